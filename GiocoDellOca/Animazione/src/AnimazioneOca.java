@@ -2,13 +2,24 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Visualizzatore per il gioco dell'oca. Legge un file contenente
  * le azioni del gioco e lo anima graficamente. Il file viene
  * letto riga per riga e le varie azioni vengono rese graficamente.
- * L'utente manda avanti il gioco premendo un bottone.
+ * L'utente manda avanti il gioco premendo un bottone, oppure lo
+ * lascia avanzare da solo alla velocita' scelta, e puo' saltare
+ * a qualsiasi turno, tornare indietro o andare alla fine grazie
+ * all'indice dei turni (vedi IndiceTurni).
+ *
+ * Le righe vengono lette e decodificate in anticipo da un thread
+ * separato (vedi CodaAzioni); le azioni vengono svolte nel thread
+ * della grafica, passo per passo, da un javax.swing.Timer, quindi
+ * la finestra non si blocca mai durante le animazioni.
  */
 public class AnimazioneOca extends JFrame implements ParoleChiave {
     /**
@@ -27,17 +38,17 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
     protected TavolaOca tavola;
 
     /**
-     * Array con 2 posti che mostra i messaggi per i due giocatori.
+     * Array che mostra i messaggi per ogni giocatore.
      */
     protected JTextField[] messaggi;
 
     /**
-     * Array con 2 posti con i bottoni per avanzare il gioco.
+     * Array con i bottoni per avanzare il gioco, uno per giocatore.
      */
     protected JButton[] avanti;
 
     /**
-     * Array con 2 posti che tiene i nomi dei due giocatori.
+     * Array che tiene i nomi dei giocatori.
      */
     protected JLabel[] nome;
 
@@ -52,7 +63,113 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
     protected JLabel mostraRiga;
 
     /**
-     * Indice, 0 oppure 1, del giocatore corrente.
+     * Mostra il turno corrente e il numero di turni della partita.
+     */
+    protected JLabel mostraTurno;
+
+    /**
+     * Cursore per scorrere i turni della partita.
+     */
+    protected JSlider cursoreTurni;
+
+    /**
+     * Bottone per tornare al turno precedente.
+     */
+    protected JButton indietro;
+
+    /**
+     * Bottone per andare alla fine della partita.
+     */
+    protected JButton fine;
+
+    /**
+     * Campo in cui scrivere il turno da raggiungere.
+     */
+    protected JTextField campoTurno;
+
+    /**
+     * Bottone per raggiungere il turno scritto in campoTurno.
+     */
+    protected JButton vai;
+
+    /**
+     * File delle azioni su cui si fanno i salti: il file indicato,
+     * oppure una sua copia decompressa se il file e' compresso o
+     * e' lo standard input.
+     */
+    protected File fileAzioni;
+
+    /**
+     * Indice dei turni del file delle azioni.
+     */
+    protected IndiceTurni indice;
+
+    /**
+     * Numero del turno corrente, da 1; 0 prima del primo turno.
+     */
+    protected int turno;
+
+    /**
+     * Se selezionato, il gioco avanza da solo.
+     */
+    protected JCheckBox automatico;
+
+    /**
+     * Scelta della velocita' della riproduzione.
+     */
+    protected JComboBox<String> velocita;
+
+    /**
+     * Millisecondi fra due passi della riproduzione per ogni
+     * velocita' di VELOCITA.
+     */
+    protected int[] ritardi;
+
+    /**
+     * Timer che svolge i passi della riproduzione.
+     */
+    protected javax.swing.Timer orologio;
+
+    /**
+     * Lettura in anticipo delle azioni, null prima dell'inizio del gioco.
+     */
+    protected CodaAzioni coda;
+
+    /**
+     * Vero se l'utente ha chiesto la prossima azione e questa non
+     * e' ancora stata letta.
+     */
+    protected boolean daSvolgere;
+
+    /**
+     * Azione SPOSTA di cui si sta mostrando l'animazione, null se
+     * nessun giocatore si sta spostando.
+     */
+    protected Azione spostamento;
+
+    /**
+     * Indice della prossima posizione da mostrare di spostamento.
+     */
+    protected int passoSpostamento;
+
+    /**
+     * Posizione del giocatore prima di spostamento.
+     */
+    protected int partenza;
+
+    /**
+     * Nomi delle velocita' della riproduzione.
+     */
+    protected static final String[] VELOCITA = {"lenta", "media", "veloce", "molto veloce", "massima"};
+
+    /**
+     * Nanosecondi dedicati a ogni passo alla velocita' massima, in
+     * cui vengono svolte quante piu' azioni possibile.
+     */
+    protected static final long DURATA_PASSO_MASSIMO = 15000000L;
+
+    /**
+     * Indice, da 0, del giocatore corrente.
      */
     protected int giocatore;
 
@@ -62,14 +179,20 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
     protected boolean giocoInCorso;
 
     /**
-     * Numero di secondi da aspettare nella funzione "aspetta".
+     * Interprete delle righe del file, riusato per tutte le azioni.
+     */
+    protected LettoreAzioni lettore = new LettoreAzioni();
+
+    /**
+     * Millisecondi fra due passi della riproduzione alla velocita'
+     * lenta, quella iniziale.
      */
     public static int secondiDaAspettare = 1200;
 
     /**
      * Classe di eccezioni nate leggendo le azioni del gioco.
      */
-    public class OcaException extends Exception {
+    public static class OcaException extends Exception {
         public OcaException(int linea, String msg) {
             super("Errore nel file di input, linea " + linea + ": " + msg);
         }
@@ -86,9 +209,9 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
         if (in != null)
             msg = msg + "\nLinea corrente sul file di input: " + riga;
         if (giocoInCorso) {
+            if (orologio != null) orologio.stop();
             msg = msg + "\nFine del gioco\nVuoi vedere i dettagli dell'eccezione?";
-            avanti[0].setEnabled(false);
-            avanti[1].setEnabled(false);
+            for (int g = 0; g < avanti.length; g++) avanti[g].setEnabled(false);
             giocoInCorso = false;
             int k = JOptionPane.showConfirmDialog(null, msg, "Errore", JOptionPane.YES_NO_OPTION);
             if (k == JOptionPane.YES_OPTION) e.printStackTrace();
@@ -106,17 +229,6 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
         System.exit(1);
     }
 
-    /**
-     * Aspetta un numero di secondi pari a secondiDaAspettare.
-     */
-    public void aspetta() {
-        try {
-            Thread.sleep(secondiDaAspettare);
-        } catch (InterruptedException exc) {
-            trattaEccezione(exc);
-        }
-    }
-
     /**
      * Legge la prossima riga dal file di input e la ritorna
      * come una sola stringa. Aggiorna la visualizzazione
@@ -132,35 +244,116 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
     }
 
     /**
-     * Funzione ausiliaria, legge dal file il nome di un giocatore.
+     * Funzione ausiliaria, legge dal file i nomi dei giocatori: le
+     * righe GIOCATORE fino alla prima riga che non lo e', che resta
+     * da leggere. Il numero di giocatori e' il numero di righe lette,
+     * e ogni giocatore da 1 a quel numero deve avere il suo nome.
      */
-    protected void leggiNome() throws Exception {
-        int n;
-        String s = leggiRiga();
-        if (!s.startsWith(PAROLA_GIOCATORE))
-            throw new OcaException(riga, "Manca parola chiave " + PAROLA_GIOCATORE);
-        s = s.substring(PAROLA_GIOCATORE.length()).trim();
-        int i = s.indexOf(' ');
-        n = Integer.parseInt(s.substring(0, i));
-        if ((n != 1) && (n != 2))
-            throw new OcaException(riga, "Numero di giocatore " + n +
-                    " non valido, deve essere 1 o 2");
-        s = s.substring(i).trim();
-        if (s.length() == 0)
-            throw new OcaException(riga, "Manca il nome del giocatore " + n);
-        if (nome[n - 1] != null)
-            throw new OcaException(riga, "Nome del giocatore " + n +
-                    " specificato due volte");
-        nome[n - 1] = new JLabel("Giocatore " + n + ": " + s);
+    protected void leggiNomi() throws Exception {
+        java.util.ArrayList<String> nomi = new java.util.ArrayList<>();
+        java.util.ArrayList<Integer> numeri = new java.util.ArrayList<>();
+        java.util.ArrayList<Integer> righe = new java.util.ArrayList<>();
+        while (true) {
+            in.mark(1 << 16);
+            String s = leggiRiga();
+            if (!s.startsWith(PAROLA_GIOCATORE)) {
+                in.reset();
+                riga--;
+                break;
+            }
+            s = s.substring(PAROLA_GIOCATORE.length()).trim();
+            int i = s.indexOf(' ');
+            int n = Integer.parseInt(i < 0 ? s : s.substring(0, i));
+            s = (i < 0) ? "" : s.substring(i).trim();
+            if (s.length() == 0)
+                throw new OcaException(riga, "Manca il nome del giocatore " + n);
+            nomi.add(s);
+            numeri.add(n);
+            righe.add(riga);
+        }
+        if (nomi.isEmpty())
+            throw new OcaException(riga + 1, "Manca parola chiave " + PAROLA_GIOCATORE);
+        nome = new JLabel[nomi.size()];
+        for (int k = 0; k < nomi.size(); k++) {
+            int n = numeri.get(k);
+            if ((n < 1) || (n > nome.length))
+                throw new OcaException(righe.get(k), "Numero di giocatore " + n +
+                        " non valido, deve essere da 1 a " + nome.length);
+            if (nome[n - 1] != null)
+                throw new OcaException(righe.get(k), "Nome del giocatore " + n +
+                        " specificato due volte");
+            nome[n - 1] = new JLabel("Giocatore " + n + ": " + nomi.get(k));
+        }
+    }
+
+    /**
+     * Ritorna il numero di giocatori della partita.
+     */
+    public int numeroGiocatori() {
+        return nome.length;
+    }
+
+    /**
+     * Apre il file delle azioni in UTF-8. Se il file e' compresso
+     * in formato gzip, riconosciuto dai primi due byte, lo
+     * decomprime mentre viene letto. Il nome "-" indica lo standard
+     * input, per esempio il log rigenerato da un record di partita.
+     */
+    public static BufferedReader apriFile(String nomeFile) throws IOException {
+        InputStream file = new BufferedInputStream(nomeFile.equals("-") ? System.in : new FileInputStream(nomeFile));
+        file.mark(2);
+        int primo = file.read();
+        int secondo = file.read();
+        file.reset();
+        if ((primo == 0x1f) && (secondo == 0x8b))
+            file = new GZIPInputStream(file, 1 << 16);
+        return new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ritorna il file delle azioni su cui fare i salti. Lo standard
+     * input e i file compressi vengono copiati, decompressi, in un
+     * file temporaneo cancellato all'uscita.
+     */
+    public static File fileConsultabile(String nomeFile) throws IOException {
+        if (!nomeFile.equals("-")) {
+            try (InputStream file = new FileInputStream(nomeFile)) {
+                if ((file.read() != 0x1f) || (file.read() != 0x8b)) return new File(nomeFile);
+            }
+        }
+        File copia = File.createTempFile("azioni", ".txt");
+        copia.deleteOnExit();
+        try (BufferedReader da = apriFile(nomeFile);
+             Writer a = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(copia), StandardCharsets.UTF_8))) {
+            char[] blocco = new char[1 << 16];
+            int n;
+            while ((n = da.read(blocco)) != -1) a.write(blocco, 0, n);
+        }
+        return copia;
+    }
+
+    /**
+     * Riapre il file delle azioni alla posizione indicata, in byte,
+     * che e' l'inizio della riga numero riga + 1.
+     */
+    protected void posiziona(long posizioneFile, int riga) throws IOException {
+        in.close();
+        FileInputStream file = new FileInputStream(fileAzioni);
+        file.getChannel().position(posizioneFile);
+        in = new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8));
+        this.riga = riga;
     }
 
     /**
      * Apre il file e compie l'inizializzazione della tavola da gioco.
      * Legge intestazione, numero di caselle e nomi dei giocatori.
-     * Crea la tavola e le etichette coi nomi dei due giocatori.
+     * Crea la tavola e le etichette coi nomi dei giocatori.
+     * Costruisce o carica l'indice dei turni; l'indice dei file
+     * temporanei non viene salvato.
      */
     protected boolean apri(String nomeFile) throws Exception {
-        in = new BufferedReader(new FileReader(nomeFile));
+        fileAzioni = fileConsultabile(nomeFile);
+        in = apriFile(fileAzioni.getPath());
         String s = null;
         int n, m;
         riga = 0;
@@ -182,17 +375,12 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
         if (n <= 0)
             throw new OcaException(riga, "Numero di caselle non valido: " + n);
 
-        // crea la tavola
-        tavola = new TavolaOca(n + 2, 50);
-
         // nomi dei giocatori
-        nome = new JLabel[2];
-        leggiNome();
-        leggiNome();
-        if (nome[0] == null)
-            throw new OcaException(riga, "Manca il nome del giocatore 1");
-        if (nome[1] == null)
-            throw new OcaException(riga, "Manca il nome del giocatore 2");
+        leggiNomi();
+
+        // crea la tavola
+        tavola = new TavolaOca(n + 2, 50, numeroGiocatori());
+        indice = IndiceTurni.carica(fileAzioni, numeroGiocatori(), fileAzioni.getPath().equals(nomeFile));
         return true;
     }
 
@@ -211,7 +399,7 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
      */
     public void init(String nomeFile) throws Exception {
         // apre il file, legge numero di caselle e nomi dei giocatori,
-        // crea tavola, nome[0], nome[1]
+        // crea tavola e nome
         apri(nomeFile);
 
         JPanel aux;
@@ -221,30 +409,56 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
         aux = new JPanel(new FlowLayout());
         aux.add(tavola);
         add(BorderLayout.CENTER, aux);
-        messaggi = new JTextField[2];
-        avanti = new JButton[2];
-        for (i = 0; i < 2; i++) {
+        // con due giocatori uno sopra e uno sotto la tavola, con
+        // piu' giocatori tutti sotto, in una lista che scorre
+        int numero = numeroGiocatori();
+        JPanel lista = new JPanel(new GridLayout(numero, 1));
+        messaggi = new JTextField[numero];
+        avanti = new JButton[numero];
+        for (i = 0; i < numero; i++) {
             aux = new JPanel(new GridLayout(3, 1));
             aux.setBorder(new LineBorder(tavola.coloreGiocatore(i)));
             messaggi[i] = new JTextField(80); // larghezza 100 caratteri
             messaggi[i].setEditable(false);
             avanti[i] = new JButton("avanti " + (i + 1));
+            avanti[i].setEnabled(false);
             aux.add(nome[i]);
             aux.add(messaggi[i]);
             aux.add(avanti[i]);
-            if (i == 1) add(BorderLayout.SOUTH, aux);
+            if (numero > 2) lista.add(aux);
+            else if (i == 1) add(BorderLayout.SOUTH, aux);
             else add(BorderLayout.NORTH, aux);
         }
+        if (numero > 2) {
+            JScrollPane scorri = new JScrollPane(lista);
+            Dimension d = lista.getPreferredSize();
+            scorri.setPreferredSize(new Dimension(d.width, 2 * d.height / numero + 4));
+            scorri.getVerticalScrollBar().setUnitIncrement(d.height / numero);
+            add(BorderLayout.SOUTH, scorri);
+        }
 
         termina = new JButton("Esci");
         mostraRiga = new JLabel("" + riga);
+        mostraTurno = new JLabel("0 di " + indice.numeroTurni());
+        cursoreTurni = new JSlider(1, Math.max(1, indice.numeroTurni()), 1);
+        indietro = new JButton("turno precedente");
+        fine = new JButton("fine");
+        campoTurno = new JTextField(6);
+        vai = new JButton("vai al turno");
+        automatico = new JCheckBox("automatico");
+        velocita = new JComboBox<>(VELOCITA);
+        ritardi = new int[]{secondiDaAspettare, 400, 100, 20, 0};
 
         aux = new JPanel(new FlowLayout());
-        JPanel temp = new JPanel(new GridLayout(4, 1));
+        JPanel temp = new JPanel(new GridLayout(7, 1));
         temp.add(termina);
         temp.add(pannelloConAllineati(
                 new JLabel("Linea sul file di input:"), mostraRiga));
-        temp.add(new JLabel());
+        temp.add(pannelloConAllineati(new JLabel("Turno:"), mostraTurno));
+        temp.add(cursoreTurni);
+        temp.add(pannelloConAllineati(indietro, fine));
+        temp.add(pannelloConAllineati(campoTurno, vai));
+        temp.add(pannelloConAllineati(automatico, velocita));
         aux.add(temp);
         add(BorderLayout.EAST, aux);
         pack();
@@ -258,8 +472,72 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
                 }
             }
         };
-        avanti[0].addActionListener(ac);
-        avanti[1].addActionListener(ac);
+        for (i = 0; i < numero; i++) avanti[i].addActionListener(ac);
+
+        // riproduzione
+        orologio = new javax.swing.Timer(secondiDaAspettare, new ActionListener() {
+            public void actionPerformed(ActionEvent ev) {
+                try {
+                    passo();
+                } catch (Exception e) {
+                    trattaEccezione(e);
+                }
+            }
+        });
+        automatico.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ev) {
+                if (automatico.isSelected() && giocoInCorso) orologio.start();
+            }
+        });
+        velocita.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ev) {
+                orologio.setDelay(ritardi[velocita.getSelectedIndex()]);
+                orologio.setInitialDelay(ritardi[velocita.getSelectedIndex()]);
+            }
+        });
+
+        // salti fra i turni
+        cursoreTurni.addChangeListener(new ChangeListener() {
+            public void stateChanged(ChangeEvent ev) {
+                if (cursoreTurni.getValueIsAdjusting() || (cursoreTurni.getValue() == turno)) return;
+                try {
+                    vaiAlTurno(cursoreTurni.getValue());
+                } catch (Exception e) {
+                    trattaEccezione(e);
+                }
+            }
+        });
+        indietro.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ev) {
+                try {
+                    vaiAlTurno(turno - 1);
+                } catch (Exception e) {
+                    trattaEccezione(e);
+                }
+            }
+        });
+        fine.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ev) {
+                try {
+                    vaiAllaFine();
+                } catch (Exception e) {
+                    trattaEccezione(e);
+                }
+            }
+        });
+        ActionListener salto = new ActionListener() {
+            public void actionPerformed(ActionEvent ev) {
+                try {
+                    vaiAlTurno(Integer.parseInt(campoTurno.getText().trim()));
+                } catch (NumberFormatException e) {
+                    campoTurno.setText("");
+                } catch (Exception e) {
+                    trattaEccezione(e);
+                }
+            }
+        };
+        vai.addActionListener(salto);
+        campoTurno.addActionListener(salto);
 
         termina.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ev) {
@@ -274,65 +552,255 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
 
     /**
      * Svolge la prossima azione relava al giocatore corrente,
-     * leggendola dal file. Questo include il cambio turno con
-     * passaggio all'altro giocatore.
+     * presa dalla coda delle azioni lette. Questo include il cambio
+     * turno con passaggio all'altro giocatore. Se un giocatore si
+     * sta spostando, lo porta subito alla fine dello spostamento.
      */
     void azione() throws Exception {
-        String s = leggiRiga();
-        if (s.startsWith(PAROLA_TURNO)) {
-            s = s.substring(PAROLA_TURNO.length()).trim();
-            int f = Integer.parseInt(s) - 1;
-            if ((f != 0) && (f != 1))
-                throw new OcaException(riga, "Numero di giocatore " + (f + 1) +
-                        " non valido, deve essere 1 o 2");
-            if (giocatore == f)
-                messaggi[giocatore].setText("Tocca di nuovo al giocatore " + (giocatore + 1));
-            else {
-                messaggi[giocatore].setText("Il giocatore " + (giocatore + 1) + " ha finito");
-                giocatore = f;
-                messaggi[giocatore].setText("Adesso tocca al giocatore " + (giocatore + 1));
-                avanti[giocatore].setEnabled(true);
-                avanti[1 - giocatore].setEnabled(false);
+        if (spostamento != null) {
+            finisciSpostamento();
+            return;
+        }
+        daSvolgere = true;
+        passo();
+        if (daSvolgere || (spostamento != null)) orologio.start();
+    }
+
+    /**
+     * Svolge un passo della riproduzione, chiamato dal timer: mostra
+     * la prossima posizione dello spostamento in corso, oppure svolge
+     * la prossima azione se il gioco e' automatico o se l'utente l'ha
+     * chiesta. Alla velocita' massima svolge quante piu' azioni
+     * possibile in DURATA_PASSO_MASSIMO, senza animare gli spostamenti.
+     * Se l'azione non e' ancora stata letta aspetta il passo seguente.
+     */
+    protected void passo() throws Exception {
+        boolean massima = orologio.getDelay() == 0;
+        long limite = System.nanoTime() + (massima ? DURATA_PASSO_MASSIMO : 0);
+        do {
+            if (spostamento != null) {
+                if (massima) finisciSpostamento();
+                else continuaSpostamento();
+            } else if (automatico.isSelected() || daSvolgere) {
+                Azione a = coda.prossima();
+                if (a == null) return;
+                daSvolgere = false;
+                svolgi(a);
+            } else {
+                orologio.stop();
+                return;
             }
-        } else if (s.startsWith(PAROLA_DADO)) {
-            s = s.substring(PAROLA_DADO.length()).trim();
-            int d = Integer.parseInt(s);
-            messaggi[giocatore].setText("Il giocatore " + (giocatore + 1) +
-                    " tirando il dado ha fatto " + d);
-        } else if (s.startsWith(PAROLA_SPOSTA)) {
-            s = s.substring(PAROLA_SPOSTA.length()).trim();
-            String t = "";
-//      messaggi[giocatore].setText("Il giocatore si sposta");
-            int vecchia = tavola.posizioneGiocatore(giocatore);
-            int n = vecchia;
-            while (s.length() > 0) {
-                int i = s.indexOf(' ');
-                if (i == -1) {
-                    t = s;
-                    s = "";
-                } else {
-                    t = s.substring(0, i);
-                    s = s.substring(i + 1).trim();
+        } while (giocoInCorso && (System.nanoTime() < limite));
+        if (!giocoInCorso && (spostamento == null)) orologio.stop();
+    }
+
+    /**
+     * Svolge un'azione presa dalla coda, mostrandola.
+     */
+    protected void svolgi(Azione a) throws Exception {
+        riga = a.riga();
+        mostraRiga.setText("" + riga);
+        if (a.tipo() == Azione.ERRORE) throw a.errore();
+        if (a.tipo() == Azione.FINE)
+            throw new OcaException(riga, "File di input finisce inaspettatamente");
+        applica(a, true);
+    }
+
+    /**
+     * Mostra la prossima posizione dello spostamento in corso.
+     */
+    protected void continuaSpostamento() {
+        int m = spostamento.numeroPosizioni();
+        int n = spostamento.posizione(passoSpostamento++);
+        tavola.mettiGiocatore(giocatore, n);
+        if (passoSpostamento == m) {
+            messaggi[giocatore].setText("Il giocatore dalla posizione " +
+                    partenza + " ha raggiunto la posizione " + n);
+            spostamento = null;
+        } else
+            messaggi[giocatore].setText("Il giocatore dalla posizione " +
+                    partenza + " va in " + n + " e continua...");
+    }
+
+    /**
+     * Porta il giocatore che si sta spostando all'ultima posizione
+     * dello spostamento.
+     */
+    protected void finisciSpostamento() {
+        passoSpostamento = spostamento.numeroPosizioni() - 1;
+        continuaSpostamento();
+    }
+
+    /**
+     * Svolge l'azione a. Se mostra e' falso aggiorna solo lo stato
+     * del gioco, senza messaggi e senza animazioni: serve a
+     * raggiungere un turno partendo da un fotogramma dell'indice.
+     * Se mostra e' vero un'azione SPOSTA mostra la prima posizione
+     * e lascia le altre ai passi seguenti della riproduzione.
+     */
+    protected void applica(Azione a, boolean mostra) throws Exception {
+        switch (a.tipo()) {
+            case LettoreAzioni.TURNO: {
+                int f = a.numero() - 1;
+                if ((f < 0) || (f >= numeroGiocatori()))
+                    throw new OcaException(riga, "Numero di giocatore " + (f + 1) +
+                            " non valido, deve essere da 1 a " + numeroGiocatori());
+                turno++;
+                if (!mostra) {
+                    giocatore = f;
+                    break;
                 }
-                n = Integer.parseInt(t);
-                tavola.mettiGiocatore(giocatore, n);
-                if (s.length() == 0)
-                    messaggi[giocatore].setText("Il giocatore dalla posizione " +
-                            vecchia + " ha raggiunto la posizione " + n);
+                mostraTurno();
+                if (giocatore == f)
+                    messaggi[giocatore].setText("Tocca di nuovo al giocatore " + (giocatore + 1));
                 else {
-                    messaggi[giocatore].setText("Il giocatore dalla posizione " +
-                            vecchia + " va in " + n + " e continua...");
-                    aspetta();
+                    messaggi[giocatore].setText("Il giocatore " + (giocatore + 1) + " ha finito");
+                    avanti[giocatore].setEnabled(false);
+                    giocatore = f;
+                    messaggi[giocatore].setText("Adesso tocca al giocatore " + (giocatore + 1));
+                    avanti[giocatore].setEnabled(true);
+                    mostraGiocatore();
+                }
+                break;
+            }
+            case LettoreAzioni.DADO:
+                if (!mostra) break;
+                messaggi[giocatore].setText("Il giocatore " + (giocatore + 1) +
+                        " tirando il dado ha fatto " + a.numero());
+                break;
+            case LettoreAzioni.SPOSTA: {
+//              messaggi[giocatore].setText("Il giocatore si sposta");
+                int m = a.numeroPosizioni();
+                if (m == 0) break;
+                if (!mostra) {
+                    tavola.collocaGiocatore(giocatore, a.posizione(m - 1));
+                    break;
                 }
+                spostamento = a;
+                passoSpostamento = 0;
+                partenza = tavola.posizioneGiocatore(giocatore);
+                continuaSpostamento();
+                break;
             }
-        } else if (s.startsWith(PAROLA_VINCE)) {
+            case LettoreAzioni.VINCE:
+                giocoInCorso = false;
+                if (!mostra) break;
+                messaggi[giocatore].setText("Il giocatore " + (giocatore + 1) + " ha vinto!");
+                avanti[giocatore].setEnabled(false);
+                break;
+            default:
+                if (mostra) messaggi[giocatore].setText(a.testo());
+        }
+    }
+
+    /**
+     * Aggiorna l'etichetta e il cursore del turno corrente.
+     */
+    protected void mostraTurno() {
+        mostraTurno.setText(turno + " di " + indice.numeroTurni());
+        cursoreTurni.setValue(Math.max(1, turno));
+    }
+
+    /**
+     * Avvia la lettura in anticipo delle azioni dalla posizione
+     * corrente del file.
+     */
+    protected void avviaLettura() {
+        coda = new CodaAzioni(in, riga);
+        coda.start();
+    }
+
+    /**
+     * Ferma la riproduzione e la lettura in anticipo, prima di un
+     * salto; le azioni lette e non svolte vengono scartate.
+     */
+    protected void fermaLettura() throws InterruptedException {
+        orologio.stop();
+        spostamento = null;
+        daSvolgere = false;
+        if (coda != null) coda.ferma();
+    }
+
+    /**
+     * Porta il gioco all'inizio del turno indicato, come se fosse
+     * stato raggiunto premendo i bottoni: riparte dal fotogramma
+     * precedente dell'indice e svolge senza animazioni al piu'
+     * IndiceTurni.PASSO turni. Se il gioco e' automatico riprende
+     * da quel turno.
+     */
+    public void vaiAlTurno(int t) throws Exception {
+        if (indice.numeroTurni() == 0) return;
+        fermaLettura();
+        salta(t);
+        mostraSalto();
+        messaggi[giocatore].setText("Turno " + turno + ": tocca al giocatore " + (giocatore + 1));
+        avviaLettura();
+        if (automatico.isSelected()) orologio.start();
+    }
+
+    /**
+     * Funzione ausiliaria, porta il file e lo stato del gioco
+     * all'inizio del turno t, senza aggiornare la finestra.
+     */
+    protected void salta(int t) throws Exception {
+        t = Math.max(1, Math.min(t, indice.numeroTurni()));
+        int f = indice.fotogramma(t);
+        posiziona(indice.posizioneFile(f), indice.riga(f));
+        for (int g = 0; g < numeroGiocatori(); g++) tavola.collocaGiocatore(g, indice.posizione(f, g));
+        giocatore = indice.giocatore(f);
+        turno = indice.turno(f);
+        giocoInCorso = true;
+        while (turno < t) {
+            lettore.leggi(leggiRiga(), riga);
+            applica(new Azione(lettore, riga), false);
+        }
+    }
+
+    /**
+     * Porta il gioco alla fine: raggiunge l'ultimo turno e lo svolge
+     * senza animazioni fino alla vittoria.
+     */
+    public void vaiAllaFine() throws Exception {
+        if (indice.numeroTurni() == 0) return;
+        fermaLettura();
+        salta(indice.numeroTurni());
+        String s;
+        while (giocoInCorso && ((s = in.readLine()) != null)) {
+            riga++;
+            lettore.leggi(s, riga);
+            applica(new Azione(lettore, riga), false);
+        }
+        mostraSalto();
+        if (!giocoInCorso) {
             messaggi[giocatore].setText("Il giocatore " + (giocatore + 1) + " ha vinto!");
             avanti[giocatore].setEnabled(false);
-            giocoInCorso = false;
-        } else if (s.startsWith(PAROLA_MESSAGGIO)) {
-            s = s.substring(PAROLA_MESSAGGIO.length()).trim();
-            messaggi[giocatore].setText(s);
-        } else throw new OcaException(riga, "Parola chiave non riconosciuta: " + s);
+        }
+        avviaLettura();
+    }
+
+    /**
+     * Aggiorna la finestra dopo un salto: tavola, bottoni, messaggi,
+     * numero di riga e turno corrente.
+     */
+    protected void mostraSalto() {
+        for (int g = 0; g < numeroGiocatori(); g++) {
+            messaggi[g].setText("");
+            avanti[g].setEnabled(g == giocatore);
+        }
+        mostraGiocatore();
+        mostraRiga.setText("" + riga);
+        mostraTurno();
+        tavola.repaint();
+    }
+
+    /**
+     * Se i giocatori sono in una lista che scorre, la fa scorrere
+     * fino al giocatore di turno.
+     */
+    protected void mostraGiocatore() {
+        Container c = avanti[giocatore].getParent();
+        if (c instanceof JComponent)
+            ((JComponent) c).scrollRectToVisible(new Rectangle(c.getSize()));
     }
 
     /**
@@ -347,28 +815,35 @@ public class AnimazioneOca extends JFrame implements ParoleChiave {
     }
 
     /**
-     * Legge dal fila la prima riga del tipo "Turno N" con
-     * N=1,2. Ritorna 0 oppure 1 secondo il valore di N-1.
+     * Legge dal fila la prima riga del tipo "Turno N" con N da 1
+     * al numero di giocatori. Ritorna N-1.
      */
     protected int leggiPrimoTurno() throws Exception {
         String s = leggiRiga();
         if (!s.startsWith(PAROLA_TURNO))
             throw new OcaException(riga, "Manca parola chiave " + PAROLA_TURNO);
         s = s.substring(PAROLA_TURNO.length()).trim();
-        return Integer.parseInt(s) - 1;
+        int n = Integer.parseInt(s);
+        if ((n < 1) || (n > numeroGiocatori()))
+            throw new OcaException(riga, "Numero di giocatore " + n +
+                    " non valido, deve essere da 1 a " + numeroGiocatori());
+        return n - 1;
     }
 
     /**
      * Inizia l'animazione del gioco. L'utente deve fare avanzare
-     * il gioco  premendo un bottone.
+     * il gioco  premendo un bottone, o selezionare "automatico".
      */
     public void gioca() throws Exception {
         if (!isVisible())
             trattaEccezione(new Exception("Finestra non ancora visibile"));
         giocoInCorso = true;
         giocatore = leggiPrimoTurno();
+        turno = 1;
+        mostraTurno();
+        avviaLettura();
         avanti[giocatore].setEnabled(true);
-        avanti[1 - giocatore].setEnabled(false);
+        mostraGiocatore();
     }
 
     /**
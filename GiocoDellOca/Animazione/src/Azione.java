@@ -0,0 +1,119 @@
+/**
+ * Azione di gioco decodificata da una riga del file delle azioni,
+ * con il numero della riga. Le azioni vengono lette in anticipo da
+ * CodaAzioni e poi svolte dal visualizzatore.
+ */
+public class Azione {
+    /**
+     * Tipo dell'azione che segnala la fine del file.
+     */
+    public static final int FINE = 0;
+
+    /**
+     * Tipo dell'azione che segnala un errore di lettura.
+     */
+    public static final int ERRORE = -1;
+
+    /**
+     * Tipo dell'azione, una delle costanti di LettoreAzioni,
+     * FINE oppure ERRORE.
+     */
+    protected int tipo;
+
+    /**
+     * Numero della riga dell'azione nel file.
+     */
+    protected int riga;
+
+    /**
+     * Numero del giocatore (TURNO) o risultato del dado (DADO).
+     */
+    protected int numero;
+
+    /**
+     * Posizioni della riga SPOSTA.
+     */
+    protected int[] posizioni;
+
+    /**
+     * Testo della riga MESSAGGIO.
+     */
+    protected String testo;
+
+    /**
+     * Errore della lettura, per le azioni di tipo ERRORE.
+     */
+    protected Exception errore;
+
+    /**
+     * Crea l'azione con i valori letti da lettore.
+     */
+    public Azione(LettoreAzioni lettore, int riga) {
+        this.tipo = lettore.tipo();
+        this.riga = riga;
+        this.numero = lettore.numero();
+        this.posizioni = new int[lettore.numeroPosizioni()];
+        for (int i = 0; i < posizioni.length; i++) posizioni[i] = lettore.posizione(i);
+        this.testo = lettore.testo();
+    }
+
+    /**
+     * Crea l'azione che segnala la fine del file (errore null)
+     * oppure un errore di lettura.
+     */
+    public Azione(int riga, Exception errore) {
+        this.tipo = (errore == null) ? FINE : ERRORE;
+        this.riga = riga;
+        this.posizioni = new int[0];
+        this.errore = errore;
+    }
+
+    /**
+     * Ritorna il tipo dell'azione.
+     */
+    public int tipo() {
+        return tipo;
+    }
+
+    /**
+     * Ritorna il numero della riga dell'azione.
+     */
+    public int riga() {
+        return riga;
+    }
+
+    /**
+     * Ritorna il numero del giocatore o il risultato del dado.
+     */
+    public int numero() {
+        return numero;
+    }
+
+    /**
+     * Ritorna il numero di posizioni della riga SPOSTA.
+     */
+    public int numeroPosizioni() {
+        return posizioni.length;
+    }
+
+    /**
+     * Ritorna la posizione i-esima, da 0, della riga SPOSTA.
+     */
+    public int posizione(int i) {
+        return posizioni[i];
+    }
+
+    /**
+     * Ritorna il testo della riga MESSAGGIO.
+     */
+    public String testo() {
+        return testo;
+    }
+
+    /**
+     * Ritorna l'errore di lettura.
+     */
+    public Exception errore() {
+        return errore;
+    }
+}
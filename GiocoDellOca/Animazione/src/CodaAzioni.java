@@ -0,0 +1,91 @@
+import java.io.*;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Lettura in anticipo del file delle azioni. Un thread separato
+ * legge le righe, le decodifica e mette le azioni in una coda
+ * limitata, da cui il visualizzatore le prende senza mai aspettare
+ * il disco. In fondo alla coda c'e' sempre un'azione FINE, oppure
+ * un'azione ERRORE se la lettura non e' riuscita.
+ */
+public class CodaAzioni extends Thread {
+    /**
+     * Numero massimo di azioni lette in anticipo.
+     */
+    public static final int CAPACITA = 4096;
+
+    /**
+     * File da cui leggere le azioni.
+     */
+    protected BufferedReader in;
+
+    /**
+     * Ultima riga letta dal file in.
+     */
+    protected int riga;
+
+    /**
+     * Azioni lette e non ancora svolte.
+     */
+    protected ArrayBlockingQueue<Azione> coda = new ArrayBlockingQueue<>(CAPACITA);
+
+    /**
+     * Diventa vero quando la lettura deve fermarsi.
+     */
+    protected volatile boolean fermata;
+
+    /**
+     * Crea la lettura del file in, di cui e' gia' stata letta la
+     * riga numero riga.
+     */
+    public CodaAzioni(BufferedReader in, int riga) {
+        super("lettura azioni");
+        setDaemon(true);
+        this.in = in;
+        this.riga = riga;
+    }
+
+    /**
+     * Legge le righe fino alla fine del file o fino a quando la
+     * lettura viene fermata.
+     */
+    public void run() {
+        LettoreAzioni lettore = new LettoreAzioni();
+        Azione ultima;
+        try {
+            String s;
+            while (!fermata && ((s = in.readLine()) != null)) {
+                riga++;
+                lettore.leggi(s, riga);
+                coda.put(new Azione(lettore, riga));
+            }
+            ultima = new Azione(riga, null);
+        } catch (InterruptedException e) {
+            return;
+        } catch (Exception e) {
+            ultima = new Azione(riga, e);
+        }
+        try {
+            if (!fermata) coda.put(ultima);
+        } catch (InterruptedException e) {
+        }
+    }
+
+    /**
+     * Ritorna la prossima azione, oppure null se non e' ancora
+     * stata letta.
+     */
+    public Azione prossima() {
+        return coda.poll();
+    }
+
+    /**
+     * Ferma la lettura e aspetta che il thread termini; il file
+     * resta aperto.
+     */
+    public void ferma() throws InterruptedException {
+        fermata = true;
+        interrupt();
+        join();
+    }
+}
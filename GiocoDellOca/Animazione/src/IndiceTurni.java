@@ -0,0 +1,278 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Indice dei turni di un file delle azioni di gioco. Ogni PASSO
+ * turni memorizza un fotogramma: la posizione nel file subito dopo
+ * la riga TURNO, il numero di quella riga, il giocatore di turno e
+ * le posizioni di tutti i giocatori. Per raggiungere un turno
+ * qualsiasi basta ripartire dal fotogramma precedente e leggere al
+ * piu' PASSO turni, qualunque sia la lunghezza della partita.
+ *
+ * L'indice viene salvato accanto al file delle azioni, con
+ * l'estensione ESTENSIONE, e riusato finche' il file non cambia.
+ */
+public class IndiceTurni implements ParoleChiave {
+    /**
+     * Numero di turni fra due fotogrammi.
+     */
+    public static final int PASSO = 128;
+
+    /**
+     * Estensione del file dell'indice salvato.
+     */
+    public static final String ESTENSIONE = ".indice";
+
+    /**
+     * Primi byte del file dell'indice, "OCAI".
+     */
+    protected static final int MAGICO = 0x4F434149;
+
+    /**
+     * Versione del formato del file dell'indice.
+     */
+    protected static final int VERSIONE = 1;
+
+    /**
+     * Numero di giocatori della partita.
+     */
+    protected int numeroGiocatori;
+
+    /**
+     * Numero di turni della partita.
+     */
+    protected int numeroTurni;
+
+    /**
+     * Numero di fotogrammi memorizzati.
+     */
+    protected int numeroFotogrammi;
+
+    /**
+     * Posizione nel file, in byte, della riga che segue la riga
+     * TURNO di ogni fotogramma.
+     */
+    protected long[] posizioneFile = new long[16];
+
+    /**
+     * Numero della riga TURNO di ogni fotogramma.
+     */
+    protected int[] riga = new int[16];
+
+    /**
+     * Giocatore di turno, da 0, di ogni fotogramma.
+     */
+    protected int[] giocatore = new int[16];
+
+    /**
+     * Posizioni dei giocatori all'inizio del turno di ogni
+     * fotogramma, numeroGiocatori valori per fotogramma.
+     */
+    protected int[] posizioni;
+
+    /**
+     * Crea un indice vuoto per una partita con numeroGiocatori giocatori.
+     */
+    protected IndiceTurni(int numeroGiocatori) {
+        this.numeroGiocatori = numeroGiocatori;
+        posizioni = new int[16 * numeroGiocatori];
+    }
+
+    /**
+     * Ritorna l'indice del file delle azioni. Se salva e' vero
+     * riusa l'indice salvato accanto al file, se e' ancora valido,
+     * altrimenti lo costruisce e prova a salvarlo.
+     */
+    public static IndiceTurni carica(File file, int numeroGiocatori, boolean salva)
+            throws IOException, AnimazioneOca.OcaException {
+        File salvato = new File(file.getPath() + ESTENSIONE);
+        if (salva && salvato.isFile()) {
+            IndiceTurni indice = leggi(salvato, file, numeroGiocatori);
+            if (indice != null) return indice;
+        }
+        IndiceTurni indice = costruisci(file, numeroGiocatori);
+        if (salva) indice.scrivi(salvato, file);
+        return indice;
+    }
+
+    /**
+     * Legge tutto il file delle azioni e costruisce l'indice. Le
+     * righe prima del primo TURNO sono l'intestazione e vengono
+     * saltate. Le righe finiscono con "\n" oppure con "\r\n";
+     * l'ultima riga, VINCE, puo' non avere il fine riga e non serve
+     * all'indice.
+     */
+    public static IndiceTurni costruisci(File file, int numeroGiocatori)
+            throws IOException, AnimazioneOca.OcaException {
+        IndiceTurni indice = new IndiceTurni(numeroGiocatori);
+        LettoreAzioni lettore = new LettoreAzioni();
+        int[] attuali = new int[numeroGiocatori];
+        int g = 0;
+        boolean azioni = false;
+        int numeroRiga = 0;
+        long inizioBlocco = 0;
+        byte[] blocco = new byte[1 << 16];
+        byte[] linea = new byte[256];
+        int lunghezza = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            int letti;
+            while ((letti = in.read(blocco)) != -1) {
+                for (int i = 0; i < letti; i++) {
+                    if (blocco[i] != '\n') {
+                        if (lunghezza == linea.length)
+                            linea = java.util.Arrays.copyOf(linea, 2 * linea.length);
+                        linea[lunghezza++] = blocco[i];
+                        continue;
+                    }
+                    numeroRiga++;
+                    if ((lunghezza > 0) && (linea[lunghezza - 1] == '\r')) lunghezza--;
+                    String s = new String(linea, 0, lunghezza, StandardCharsets.UTF_8);
+                    lunghezza = 0;
+                    if (!azioni) azioni = s.startsWith(PAROLA_TURNO);
+                    if (!azioni) continue;
+                    lettore.leggi(s, numeroRiga);
+                    if (lettore.tipo() == LettoreAzioni.TURNO) {
+                        g = lettore.numero() - 1;
+                        if ((g < 0) || (g >= numeroGiocatori))
+                            throw new AnimazioneOca.OcaException(numeroRiga, "Numero di giocatore " +
+                                    (g + 1) + " non valido");
+                        if (indice.numeroTurni % PASSO == 0)
+                            indice.aggiungi(inizioBlocco + i + 1, numeroRiga, g, attuali);
+                        indice.numeroTurni++;
+                    } else if ((lettore.tipo() == LettoreAzioni.SPOSTA) && (lettore.numeroPosizioni() > 0)) {
+                        attuali[g] = lettore.posizione(lettore.numeroPosizioni() - 1);
+                    }
+                }
+                inizioBlocco += letti;
+            }
+        }
+        return indice;
+    }
+
+    /**
+     * Aggiunge un fotogramma in fondo all'indice.
+     */
+    protected void aggiungi(long posizioneFile, int riga, int giocatore, int[] attuali) {
+        if (numeroFotogrammi == this.riga.length) {
+            int n = 2 * numeroFotogrammi;
+            this.posizioneFile = java.util.Arrays.copyOf(this.posizioneFile, n);
+            this.riga = java.util.Arrays.copyOf(this.riga, n);
+            this.giocatore = java.util.Arrays.copyOf(this.giocatore, n);
+            posizioni = java.util.Arrays.copyOf(posizioni, n * numeroGiocatori);
+        }
+        this.posizioneFile[numeroFotogrammi] = posizioneFile;
+        this.riga[numeroFotogrammi] = riga;
+        this.giocatore[numeroFotogrammi] = giocatore;
+        System.arraycopy(attuali, 0, posizioni, numeroFotogrammi * numeroGiocatori, numeroGiocatori);
+        numeroFotogrammi++;
+    }
+
+    /**
+     * Legge l'indice salvato. Ritorna null se l'indice e' di
+     * un'altra versione, di un altro passo o di un altro numero di
+     * giocatori, o se il file delle azioni e' cambiato dopo che
+     * l'indice e' stato salvato.
+     */
+    protected static IndiceTurni leggi(File salvato, File file, int numeroGiocatori) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(salvato)))) {
+            if ((in.readInt() != MAGICO) || (in.readInt() != VERSIONE) || (in.readInt() != PASSO)
+                    || (in.readLong() != file.length()) || (in.readLong() != file.lastModified())
+                    || (in.readInt() != numeroGiocatori))
+                return null;
+            IndiceTurni indice = new IndiceTurni(numeroGiocatori);
+            indice.numeroTurni = in.readInt();
+            int n = (indice.numeroTurni + PASSO - 1) / PASSO;
+            if ((indice.numeroTurni < 0) || (n > salvato.length())) return null;
+            int[] attuali = new int[numeroGiocatori];
+            for (int f = 0; f < n; f++) {
+                long posizioneFile = in.readLong();
+                int riga = in.readInt();
+                int giocatore = in.readInt();
+                for (int g = 0; g < numeroGiocatori; g++) attuali[g] = in.readInt();
+                if ((posizioneFile < 0) || (posizioneFile > file.length())
+                        || (giocatore < 0) || (giocatore >= numeroGiocatori))
+                    return null;
+                indice.aggiungi(posizioneFile, riga, giocatore, attuali);
+            }
+            return indice;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Salva l'indice accanto al file delle azioni. Se la cartella
+     * non e' scrivibile l'indice non viene salvato.
+     */
+    protected void scrivi(File salvato, File file) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(salvato)))) {
+            out.writeInt(MAGICO);
+            out.writeInt(VERSIONE);
+            out.writeInt(PASSO);
+            out.writeLong(file.length());
+            out.writeLong(file.lastModified());
+            out.writeInt(numeroGiocatori);
+            out.writeInt(numeroTurni);
+            for (int f = 0; f < numeroFotogrammi; f++) {
+                out.writeLong(posizioneFile[f]);
+                out.writeInt(riga[f]);
+                out.writeInt(giocatore[f]);
+                for (int g = 0; g < numeroGiocatori; g++) out.writeInt(posizioni[f * numeroGiocatori + g]);
+            }
+        } catch (IOException e) {
+            salvato.delete();
+        }
+    }
+
+    /**
+     * Ritorna il numero di turni della partita.
+     */
+    public int numeroTurni() {
+        return numeroTurni;
+    }
+
+    /**
+     * Ritorna il fotogramma da cui ripartire per raggiungere il
+     * turno indicato, numerato da 1.
+     */
+    public int fotogramma(int turno) {
+        return (turno - 1) / PASSO;
+    }
+
+    /**
+     * Ritorna il numero del turno del fotogramma f.
+     */
+    public int turno(int f) {
+        return f * PASSO + 1;
+    }
+
+    /**
+     * Ritorna la posizione nel file, in byte, della riga che segue
+     * la riga TURNO del fotogramma f.
+     */
+    public long posizioneFile(int f) {
+        return posizioneFile[f];
+    }
+
+    /**
+     * Ritorna il numero della riga TURNO del fotogramma f.
+     */
+    public int riga(int f) {
+        return riga[f];
+    }
+
+    /**
+     * Ritorna il giocatore di turno, da 0, del fotogramma f.
+     */
+    public int giocatore(int f) {
+        return giocatore[f];
+    }
+
+    /**
+     * Ritorna la posizione del giocatore g all'inizio del turno
+     * del fotogramma f.
+     */
+    public int posizione(int f, int g) {
+        return posizioni[f * numeroGiocatori + g];
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Interprete delle righe del file delle azioni di gioco. Riconosce
+ * la parola chiave di una riga e ne legge i valori, senza creare
+ * stringhe per i numeri: il visualizzatore usa i valori letti per
+ * aggiornare la finestra. Lo stesso interprete viene riusato per
+ * tutte le righe del file.
+ */
+public class LettoreAzioni implements ParoleChiave {
+    /**
+     * Tipo della riga "TURNO N".
+     */
+    public static final int TURNO = 1;
+
+    /**
+     * Tipo della riga "DADO N".
+     */
+    public static final int DADO = 2;
+
+    /**
+     * Tipo della riga "SPOSTA N1 N2 ...".
+     */
+    public static final int SPOSTA = 3;
+
+    /**
+     * Tipo della riga "VINCE".
+     */
+    public static final int VINCE = 4;
+
+    /**
+     * Tipo della riga "MESSAGGIO testo".
+     */
+    public static final int MESSAGGIO = 5;
+
+    /**
+     * Tipo dell'ultima riga letta.
+     */
+    protected int tipo;
+
+    /**
+     * Numero del giocatore (TURNO) o risultato del dado (DADO)
+     * dell'ultima riga letta.
+     */
+    protected int numero;
+
+    /**
+     * Posizioni dell'ultima riga SPOSTA, valide fino a numeroPosizioni.
+     */
+    protected int[] posizioni = new int[8];
+
+    /**
+     * Numero di posizioni dell'ultima riga SPOSTA.
+     */
+    protected int numeroPosizioni;
+
+    /**
+     * Testo dell'ultima riga MESSAGGIO.
+     */
+    protected String testo;
+
+    /**
+     * Legge una riga del file delle azioni. Le parole chiave sono
+     * riconosciute nello stesso ordine del visualizzatore originale.
+     * Lancia OcaException se la parola chiave non e' riconosciuta,
+     * NumberFormatException se un numero non e' valido.
+     */
+    public void leggi(String s, int riga) throws AnimazioneOca.OcaException {
+        if (s.startsWith(PAROLA_TURNO)) {
+            tipo = TURNO;
+            numero = leggiNumero(s, PAROLA_TURNO.length());
+        } else if (s.startsWith(PAROLA_DADO)) {
+            tipo = DADO;
+            numero = leggiNumero(s, PAROLA_DADO.length());
+        } else if (s.startsWith(PAROLA_SPOSTA)) {
+            tipo = SPOSTA;
+            leggiPosizioni(s, PAROLA_SPOSTA.length());
+        } else if (s.startsWith(PAROLA_VINCE)) {
+            tipo = VINCE;
+        } else if (s.startsWith(PAROLA_MESSAGGIO)) {
+            tipo = MESSAGGIO;
+            testo = s.substring(PAROLA_MESSAGGIO.length()).trim();
+        } else throw new AnimazioneOca.OcaException(riga, "Parola chiave non riconosciuta: " + s);
+    }
+
+    /**
+     * Funzione ausiliaria, legge il numero che segue la parola
+     * chiave, ignorando gli spazi prima e dopo.
+     */
+    protected static int leggiNumero(String s, int inizio) {
+        int fine = s.length();
+        while ((inizio < fine) && (s.charAt(inizio) <= ' ')) inizio++;
+        while ((fine > inizio) && (s.charAt(fine - 1) <= ' ')) fine--;
+        return Integer.parseInt(s, inizio, fine, 10);
+    }
+
+    /**
+     * Funzione ausiliaria, legge le posizioni separate da spazi
+     * che seguono la parola chiave SPOSTA.
+     */
+    protected void leggiPosizioni(String s, int inizio) {
+        numeroPosizioni = 0;
+        int fine = s.length();
+        while (true) {
+            while ((inizio < fine) && (s.charAt(inizio) <= ' ')) inizio++;
+            if (inizio == fine) return;
+            int i = inizio;
+            while ((i < fine) && (s.charAt(i) != ' ')) i++;
+            if (numeroPosizioni == posizioni.length)
+                posizioni = java.util.Arrays.copyOf(posizioni, 2 * posizioni.length);
+            posizioni[numeroPosizioni++] = Integer.parseInt(s, inizio, i, 10);
+            inizio = i;
+        }
+    }
+
+    /**
+     * Ritorna il tipo dell'ultima riga letta.
+     */
+    public int tipo() {
+        return tipo;
+    }
+
+    /**
+     * Ritorna il numero del giocatore dell'ultima riga TURNO
+     * o il risultato del dado dell'ultima riga DADO.
+     */
+    public int numero() {
+        return numero;
+    }
+
+    /**
+     * Ritorna il numero di posizioni dell'ultima riga SPOSTA.
+     */
+    public int numeroPosizioni() {
+        return numeroPosizioni;
+    }
+
+    /**
+     * Ritorna la posizione i-esima, da 0, dell'ultima riga SPOSTA.
+     */
+    public int posizione(int i) {
+        return posizioni[i];
+    }
+
+    /**
+     * Ritorna il testo dell'ultima riga MESSAGGIO.
+     */
+    public String testo() {
+        return testo;
+    }
+}
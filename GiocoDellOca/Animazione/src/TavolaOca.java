@@ -1,13 +1,26 @@
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import javax.swing.*;
 
 /**
  * Pannello grafico che disegna la tavola da gioco con le caselle
- * disposte a spirale e i segnali dei due giocatori.
+ * disposte a spirale e i segnali dei giocatori, che possono essere
+ * anche migliaia.
+ * Le caselle non cambiano durante il gioco: vengono disegnate una
+ * volta sola in un'immagine, lo sfondo, che copre la parte visibile
+ * del pannello e viene ridisegnata quando questa cambia. Quando un
+ * giocatore si sposta vengono ridisegnate solo la casella di
+ * partenza e quella di arrivo.
+ *
+ * I giocatori di ogni casella sono tenuti in una lista concatenata
+ * fatta di array di interi: una casella con uno o due giocatori
+ * mostra i loro segnali, una casella con piu' giocatori mostra un
+ * solo segnale con il loro numero, quindi il costo del disegno non
+ * dipende dal numero di giocatori.
  */
 public class TavolaOca extends JPanel {
     /**
-     * Array che tiene il colore del primo e del secondo giocatore.
+     * Array che tiene il colore di ogni giocatore.
      */
     protected Color[] colore;
 
@@ -68,10 +81,56 @@ public class TavolaOca extends JPanel {
 
     /**
      * Array che tiene la posizione (indice di casella)
-     * del primo giocatore e del secondo giocatore.
+     * di ogni giocatore.
      */
     protected int[] posizione;
 
+    /**
+     * Numero di giocatori in ogni casella.
+     */
+    protected int[] occupanti;
+
+    /**
+     * Primo giocatore della lista dei giocatori di ogni casella,
+     * -1 se la casella e' vuota.
+     */
+    protected int[] primo;
+
+    /**
+     * Giocatore che segue ogni giocatore nella lista della sua
+     * casella, -1 per l'ultimo.
+     */
+    protected int[] seguente;
+
+    /**
+     * Giocatore che precede ogni giocatore nella lista della sua
+     * casella, -1 per il primo.
+     */
+    protected int[] precedente;
+
+    /**
+     * Casella che occupa ogni quadrato della griglia delle caselle,
+     * riga per riga, -1 per i quadrati vuoti: serve a trovare le
+     * caselle che cadono in un'area del pannello.
+     */
+    protected int[] griglia;
+
+    /**
+     * Numero di colonne della griglia delle caselle.
+     */
+    protected int colonne;
+
+    /**
+     * Immagine delle caselle nella parte visibile del pannello,
+     * null finche' non serve.
+     */
+    protected BufferedImage sfondo;
+
+    /**
+     * Parte del pannello coperta dall'immagine sfondo.
+     */
+    protected Rectangle areaSfondo;
+
     /**
      * Ritorna il numero di caselle totali, incluse partenza e arrivo.
      */
@@ -80,14 +139,21 @@ public class TavolaOca extends JPanel {
     }
 
     /**
-     * Ritorna il colore del segnale del giocatore g (g=0,1).
+     * Ritorna il numero di giocatori.
+     */
+    public int numeroGiocatori() {
+        return posizione.length;
+    }
+
+    /**
+     * Ritorna il colore del segnale del giocatore g (da 0).
      */
     public Color coloreGiocatore(int g) {
         return colore[g];
     }
 
     /**
-     * Ritorna la posizione del giocatore g (g=0,1).
+     * Ritorna la posizione del giocatore g (da 0).
      */
     public int posizioneGiocatore(int g) {
         return posizione[g];
@@ -149,32 +215,105 @@ public class TavolaOca extends JPanel {
                 deltaY = 1;
             }
         }
+        // griglia delle caselle
+        colonne = 1 + maxAng.x - minAng.x;
+        griglia = new int[colonne * (1 + maxAng.y - minAng.y)];
+        java.util.Arrays.fill(griglia, -1);
+        for (i = 0; i < numero; i++)
+            griglia[(caselle[i].y - minAng.y) * colonne + caselle[i].x - minAng.x] = i;
     }
 
     /**
-     * Sposta il giocatore gioc (=0,1) dalla posizione attuale fino alla
+     * Sposta il giocatore gioc (da 0) dalla posizione attuale fino alla
      * posizione destinazione, disegnando tutte le fasi intermedie.
      */
     public void mettiGiocatore(int gioc, int dest) {
-        posizione[gioc] = dest;
+        int vecchia = posizione[gioc];
+        collocaGiocatore(gioc, dest);
 //    repaint();
 // uso questo perche' voglio che sia fatto aspettando
-        paintComponent(getGraphics());
+        paintImmediately(rettangoloCasella(vecchia));
+        paintImmediately(rettangoloCasella(dest));
     }
 
     /**
-     * Crea il pannello grafico per un gioco dell'oca con numCaselle
-     * caselle (comprese partenza e arrivo) e dove le caselle sono
-     * rappresentate da quadrati di lunghezzaLato pixel di lato.
+     * Ritorna il rettangolo occupato dalla casella i, compreso il
+     * contorno.
+     */
+    protected Rectangle rettangoloCasella(int i) {
+        return new Rectangle(latoCasella * (caselle[i].x - minAng.x),
+                latoCasella * (caselle[i].y - minAng.y), latoCasella + 1, latoCasella + 1);
+    }
+
+    /**
+     * Colloca il giocatore gioc (da 0) nella posizione dest senza
+     * ridisegnare: serve per i salti fra i turni, dopo i quali la
+     * tavola viene ridisegnata una volta sola.
+     */
+    public void collocaGiocatore(int gioc, int dest) {
+        togli(gioc);
+        posizione[gioc] = dest;
+        aggiungi(gioc);
+    }
+
+    /**
+     * Funzione ausiliaria, toglie il giocatore gioc dalla lista
+     * della sua casella.
+     */
+    protected void togli(int gioc) {
+        int c = posizione[gioc];
+        if (precedente[gioc] == -1) primo[c] = seguente[gioc];
+        else seguente[precedente[gioc]] = seguente[gioc];
+        if (seguente[gioc] != -1) precedente[seguente[gioc]] = precedente[gioc];
+        occupanti[c]--;
+    }
+
+    /**
+     * Funzione ausiliaria, aggiunge il giocatore gioc in testa alla
+     * lista della sua casella.
+     */
+    protected void aggiungi(int gioc) {
+        int c = posizione[gioc];
+        precedente[gioc] = -1;
+        seguente[gioc] = primo[c];
+        if (primo[c] != -1) precedente[primo[c]] = gioc;
+        primo[c] = gioc;
+        occupanti[c]++;
+    }
+
+    /**
+     * Crea il pannello grafico per un gioco dell'oca a due giocatori
+     * con numCaselle caselle (comprese partenza e arrivo) e dove le
+     * caselle sono rappresentate da quadrati di lunghezzaLato pixel
+     * di lato.
      */
     public TavolaOca(int numCaselle, int lunghezzaLato) {
+        this(numCaselle, lunghezzaLato, 2);
+    }
+
+    /**
+     * Crea il pannello grafico per un gioco dell'oca con numCaselle
+     * caselle (comprese partenza e arrivo) e numGiocatori giocatori,
+     * dove le caselle sono rappresentate da quadrati di lunghezzaLato
+     * pixel di lato. Il primo giocatore e' rosso, il secondo blu, gli
+     * altri hanno colori sparsi sul cerchio delle tinte.
+     */
+    public TavolaOca(int numCaselle, int lunghezzaLato, int numGiocatori) {
         super();
-        colore = new Color[2];
-        colore[0] = Color.red;
-        colore[1] = Color.blue;
+        colore = new Color[numGiocatori];
+        for (int g = 0; g < numGiocatori; g++) {
+            if (g == 0) colore[g] = Color.red;
+            else if (g == 1) colore[g] = Color.blue;
+            else colore[g] = Color.getHSBColor((g * 0.618034f) % 1, 0.8f, 0.8f);
+        }
         // i giocatori sono alla partenza
-        posizione = new int[2];
-        posizione[0] = posizione[1] = 0;
+        posizione = new int[numGiocatori];
+        seguente = new int[numGiocatori];
+        precedente = new int[numGiocatori];
+        occupanti = new int[numCaselle];
+        primo = new int[numCaselle];
+        java.util.Arrays.fill(primo, -1);
+        for (int g = numGiocatori - 1; g >= 0; g--) aggiungi(g);
         latoCasella = lunghezzaLato;
         // crea e colloca le caselle, determina minAng e maxAng
         collocaCaselle(numCaselle);
@@ -184,15 +323,17 @@ public class TavolaOca extends JPanel {
     }
 
     /**
-     * Disegna il segnale del giocatore gioc (= 0,1) posizionato alla
-     * casella posizione[gioc], usando il colore colore[gioc].
+     * Disegna il segnale del giocatore gioc (da 0) posizionato alla
+     * casella posizione[gioc], usando il colore colore[gioc], nella
+     * meta' bassa della casella se basso e' vero, altrimenti in
+     * quella alta.
      */
-    protected void disegnaSegnale(Graphics g, int gioc) {
+    protected void disegnaSegnale(Graphics g, int gioc, boolean basso) {
         // angolo della casella
         int x = latoCasella * (caselle[posizione[gioc]].x - minAng.x);
         int y = latoCasella * (caselle[posizione[gioc]].y - minAng.y);
         x += (latoCasella / 2);
-        if (gioc == 0) y += (latoCasella / 2);
+        if (basso) y += (latoCasella / 2);
         g.setColor(colore[gioc]);
         g.fillRect(x, y + 1, latoCasella / 2 - 2, latoCasella / 2 - 2);
         g.setColor(Color.white);
@@ -200,31 +341,107 @@ public class TavolaOca extends JPanel {
     }
 
     /**
-     * Disegna o ridisegna il pannello grafico.
+     * Disegna i segnali dei giocatori della casella c. Con uno o
+     * due giocatori disegna i loro segnali, il primo giocatore in
+     * basso e il secondo in alto; con piu' giocatori disegna un solo
+     * segnale, una pila grigia con il numero di giocatori.
+     */
+    protected void disegnaSegnali(Graphics g, int c) {
+        int a = primo[c];
+        if (occupanti[c] == 1)
+            disegnaSegnale(g, a, a == 0);
+        else if (occupanti[c] == 2) {
+            int b = seguente[a];
+            disegnaSegnale(g, Math.min(a, b), true);
+            disegnaSegnale(g, Math.max(a, b), false);
+        } else if (occupanti[c] > 2) {
+            int x = latoCasella * (caselle[c].x - minAng.x) + (latoCasella / 2);
+            int y = latoCasella * (caselle[c].y - minAng.y);
+            g.setColor(Color.darkGray);
+            g.fillRect(x + 2, y + 1, latoCasella / 2 - 4, latoCasella - 4);
+            g.setColor(Color.gray);
+            g.fillRect(x, y + 3, latoCasella / 2 - 4, latoCasella - 4);
+            g.setColor(Color.white);
+            g.drawString("" + occupanti[c], x + 3, y + (latoCasella / 2) + 3);
+        }
+    }
+
+    /**
+     * Disegna o ridisegna il pannello grafico: copia la parte
+     * richiesta dello sfondo e ci disegna sopra i segnali delle
+     * caselle che cadono nella parte richiesta.
      */
     public void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        Rectangle visibile = getVisibleRect();
+        if ((sfondo == null) || !visibile.equals(areaSfondo)) {
+            areaSfondo = visibile;
+            sfondo = null;
+            if (!visibile.isEmpty()) {
+                sfondo = new BufferedImage(visibile.width, visibile.height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g2 = sfondo.createGraphics();
+                g2.translate(-visibile.x, -visibile.y);
+                g2.setFont(getFont());
+                disegnaCaselle(g2, visibile);
+                g2.dispose();
+            }
+        }
+        Rectangle area = g.getClipBounds();
+        if (area == null) area = new Rectangle(0, 0, getWidth(), getHeight());
+        if ((sfondo != null) && areaSfondo.contains(area))
+            g.drawImage(sfondo, areaSfondo.x, areaSfondo.y, null);
+        else
+            disegnaCaselle(g, area);
+        // segnali delle caselle che cadono nell'area
+        int x0 = Math.max(0, area.x / latoCasella - 1);
+        int y0 = Math.max(0, area.y / latoCasella - 1);
+        int x1 = Math.min(colonne - 1, (area.x + area.width) / latoCasella);
+        int y1 = Math.min(griglia.length / colonne - 1, (area.y + area.height) / latoCasella);
+        for (int y = y0; y <= y1; y++)
+            for (int x = x0; x <= x1; x++)
+                if (griglia[y * colonne + x] != -1) disegnaSegnali(g, griglia[y * colonne + x]);
+    }
+
+    /**
+     * Disegna lo sfondo del pannello e le caselle che cadono
+     * nell'area indicata: visita solo i quadrati della griglia
+     * sotto l'area, quindi il costo non cresce con la tavola.
+     */
+    protected void disegnaCaselle(Graphics g, Rectangle area) {
         int x0, y0;
         int i;
+        g.setColor(getBackground());
+        g.fillRect(area.x, area.y, area.width, area.height);
+        // quadrati della griglia che cadono nell'area, il contorno
+        // di una casella sborda di un punto nella casella seguente
+        int gx0 = Math.max(0, area.x / latoCasella - 1);
+        int gy0 = Math.max(0, area.y / latoCasella - 1);
+        int gx1 = Math.min(colonne - 1, (area.x + area.width) / latoCasella);
+        int gy1 = Math.min(griglia.length / colonne - 1, (area.y + area.height) / latoCasella);
         // primo ciclo per riempire
-        for (i = 0; i < caselle.length; i++) {
-            x0 = latoCasella * (caselle[i].x - minAng.x);
-            y0 = latoCasella * (caselle[i].y - minAng.y);
-            if (i == 0) g.setColor(Color.cyan);
-            else if (i == caselle.length - 1) g.setColor(Color.green);
-            else g.setColor(Color.white);
-            g.fillRect(x0, y0, latoCasella, latoCasella);
-        }
+        for (int y = gy0; y <= gy1; y++)
+            for (int x = gx0; x <= gx1; x++) {
+                i = griglia[y * colonne + x];
+                if (i == -1) continue;
+                x0 = latoCasella * x;
+                y0 = latoCasella * y;
+                if (!area.intersects(x0, y0, latoCasella + 1, latoCasella + 1)) continue;
+                if (i == 0) g.setColor(Color.cyan);
+                else if (i == caselle.length - 1) g.setColor(Color.green);
+                else g.setColor(Color.white);
+                g.fillRect(x0, y0, latoCasella, latoCasella);
+            }
         // secondo ciclo per contorni e scritte
-        for (i = 0; i < caselle.length; i++) {
-            x0 = latoCasella * (caselle[i].x - minAng.x);
-            y0 = latoCasella * (caselle[i].y - minAng.y);
-            g.setColor(Color.black);
-            g.drawRect(x0, y0, latoCasella, latoCasella);
-            g.drawString("" + i, x0 + 2, y0 + latoCasella / 2);
-        }
-        disegnaSegnale(g, 0);
-        disegnaSegnale(g, 1);
+        for (int y = gy0; y <= gy1; y++)
+            for (int x = gx0; x <= gx1; x++) {
+                i = griglia[y * colonne + x];
+                if (i == -1) continue;
+                x0 = latoCasella * x;
+                y0 = latoCasella * y;
+                if (!area.intersects(x0, y0, latoCasella + 1, latoCasella + 1)) continue;
+                g.setColor(Color.black);
+                g.drawRect(x0, y0, latoCasella, latoCasella);
+                g.drawString("" + i, x0 + 2, y0 + latoCasella / 2);
+            }
     }
 
 }
\ No newline at end of file
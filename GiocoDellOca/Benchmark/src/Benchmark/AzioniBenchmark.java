@@ -0,0 +1,116 @@
+/**
+ * Contains: AzioniBenchmark Class, Benchmarks Class, BoardFiles Class, BoardLoadBenchmark Class, CellAnimationBenchmark Class, GameBenchmark Class, OutputBenchmark Class.
+ */
+package Benchmark;
+
+
+import Board.Board;
+import Dice.SplittableDice;
+import Game.Game;
+import Output.Output;
+import Output.StreamBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of the parsing of the actions of the viewer, the LettoreAzioni used by AnimazioneOca.azione.
+ * The actions are the log of a game on the medium board, without the header read when the viewer opens the file.
+ *
+ * The viewer is in the unnamed package, which a class of a package cannot import,
+ * so the parser is called through method handles bound to one instance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AzioniBenchmark {
+
+    /**
+     * The number of actions parsed by every invocation.
+     */
+    private static final int LINES = 4096;
+
+    /**
+     * The number of lines of the header: the title, the number of cells and the two players.
+     */
+    private static final int HEADER_LINES = 4;
+
+    /**
+     * The actions, repeated if the game is shorter than LINES.
+     */
+    private String[] lines;
+
+    /**
+     * LettoreAzioni.leggi(String, int) bound to the parser.
+     */
+    private MethodHandle leggi;
+
+    /**
+     * LettoreAzioni.tipo() bound to the parser.
+     */
+    private MethodHandle tipo;
+
+    /**
+     * Writes the log of a game and creates the parser.
+     *
+     * @throws ReflectiveOperationException if the parser of the viewer is missing
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        System.setProperty("oca.board.cache", "off");
+        Board board = new Board();
+        board.loadBoard(BoardFiles.create("medium"));
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Game game = new Game(board, new Output(new StreamBackend(log, 1 << 16, false)));
+        game.setDice(new SplittableDice(42));
+        game.addPlayers(Arrays.asList("Giocatore1", "Giocatore2"));
+        game.playGame();
+        String[] actions = log.toString(StandardCharsets.UTF_8).split("\n");
+        this.lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            this.lines[i] = actions[HEADER_LINES + i % (actions.length - HEADER_LINES)];
+        }
+        Class<?> lettoreAzioni = Class.forName("LettoreAzioni");
+        Object lettore = lettoreAzioni.getConstructor().newInstance();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.leggi = lookup.findVirtual(lettoreAzioni, "leggi", MethodType.methodType(void.class, String.class, int.class)).bindTo(lettore);
+        this.tipo = lookup.findVirtual(lettoreAzioni, "tipo", MethodType.methodType(int.class)).bindTo(lettore);
+    }
+
+    /**
+     * Parses the actions.
+     *
+     * @return the sum of the types of the actions
+     * @throws Throwable if an action is wrong
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int parseActions() throws Throwable {
+        int types = 0;
+        for (int i = 0; i < LINES; i++) {
+            this.leggi.invokeExact(this.lines[i], HEADER_LINES + i + 1);
+            types += (int) this.tipo.invokeExact();
+        }
+        return types;
+    }
+}
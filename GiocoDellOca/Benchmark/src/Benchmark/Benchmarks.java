@@ -0,0 +1,40 @@
+/**
+ * Contains: AzioniBenchmark Class, Benchmarks Class, BoardFiles Class, BoardLoadBenchmark Class, CellAnimationBenchmark Class, GameBenchmark Class, OutputBenchmark Class.
+ */
+package Benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The class which runs the benchmarks with the JMH options of the command line,
+ * always adding the GC profiler so that every result reports its allocation rate.
+ *
+ * Example of usage: java -jar target/benchmarks.jar GameBenchmark -p players=4
+ */
+public class Benchmarks {
+
+    /**
+     * The main method of the benchmarks.
+     *
+     * @param args the JMH options
+     * @throws Exception if the options are wrong or a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        Options options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build();
+        Runner runner = new Runner(options);
+        if (commandLine.shouldList()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Contains: AzioniBenchmark Class, Benchmarks Class, BoardFiles Class, BoardLoadBenchmark Class, CellAnimationBenchmark Class, GameBenchmark Class, OutputBenchmark Class.
+ */
+package Benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+
+/**
+ * The class which writes the boards used by the benchmarks.
+ * The boards are written once in the working directory, because the board is loaded from a path relative to it,
+ * and are kept for the following runs.
+ *
+ * One cell every SPECIAL_STEP is special. The moves of the special cells land on regular cells, or go forward,
+ * so the boards have no cycles.
+ */
+public class BoardFiles {
+
+    /**
+     * The directory of the boards, relative to the working directory.
+     */
+    public static final String DIRECTORY = "target/oca-benchmark";
+
+    /**
+     * The distance between two special cells.
+     */
+    private static final int SPECIAL_STEP = 7;
+
+    /**
+     * The number of regular cells before the last cell.
+     */
+    private static final int LAST_REGULAR_CELLS = 2 * SPECIAL_STEP;
+
+    /**
+     * The seed of the special cells, the same board is written at every run.
+     */
+    private static final long SEED = 20200401L;
+
+    /**
+     * Gets the number of cells of a board.
+     *
+     * @param size "small" (the size of the original board), "medium" or "huge"
+     * @return the number of cells
+     * @throws IllegalArgumentException if the size is unknown
+     */
+    public static int getNumberOfCells(String size) {
+        switch (size) {
+            case "small":
+                return 62;
+            case "medium":
+                return 100000;
+            case "huge":
+                return 3000000;
+            default:
+                throw new IllegalArgumentException("unknown board size " + size);
+        }
+    }
+
+    /**
+     * Writes the board of the given size if it does not exist yet.
+     *
+     * @param size "small", "medium" or "huge"
+     * @return the name of the input file, relative to the working directory
+     * @throws UncheckedIOException if the board cannot be written
+     */
+    public static String create(String size) {
+        String textFile = DIRECTORY + "/" + size + ".txt";
+        Path path = Paths.get(textFile);
+        if (Files.exists(path)) {
+            return textFile;
+        }
+        int numberOfCells = getNumberOfCells(size);
+        SplittableRandom random = new SplittableRandom(SEED);
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporary = Files.createTempFile(path.getParent(), size, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writer.write("OCA TAVOLA\n");
+                writer.write("CASELLE " + numberOfCells + "\n");
+                writer.write("COMMENTO INIZIO\nTavola scritta per i benchmark\nCOMMENTO FINE\n");
+                for (int index = SPECIAL_STEP; index < numberOfCells - LAST_REGULAR_CELLS; index += SPECIAL_STEP) {
+                    writer.write(specialCell(index, random));
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return textFile;
+    }
+
+    /**
+     * Builds the line of a special cell.
+     *
+     * @param index the index of the cell, a multiple of SPECIAL_STEP
+     * @param random the source of the types and of the parameters
+     * @return the line of the cell
+     */
+    private static String specialCell(int index, SplittableRandom random) {
+        int cells = 1 + random.nextInt(SPECIAL_STEP - 1);
+        switch (random.nextInt(5)) {
+            case 0:
+                return index + " AVANTI " + cells + " Casella " + index + ", vai avanti di " + cells + " caselle\n";
+            case 1:
+                return index + " INDIETRO " + cells + " Casella " + index + ", torna indietro di " + cells + " caselle\n";
+            case 2:
+                return index + " DOPPIO Casella " + index + ", raddoppia il tiro\n";
+            case 3:
+                return index + " FERMO " + cells + " Casella " + index + ", stai fermo " + cells + " turni\n";
+            default:
+                return index + " VAI " + (index + cells) + " Casella " + index + ", vai alla casella " + (index + cells) + "\n";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Contains: AzioniBenchmark Class, Benchmarks Class, BoardFiles Class, BoardLoadBenchmark Class, CellAnimationBenchmark Class, GameBenchmark Class, OutputBenchmark Class.
+ */
+package Benchmark;
+
+
+import Board.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of Board.loadBoard on boards of different sizes,
+ * reading the text of the board or the compiled board of the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardLoadBenchmark {
+
+    /**
+     * The size of the board, see BoardFiles.
+     */
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    /**
+     * "off" reads the text of the board at every load, "on" maps the compiled board written by the first load.
+     */
+    @Param({"off", "on"})
+    public String cache;
+
+    /**
+     * The name of the input file.
+     */
+    private String textFile;
+
+    /**
+     * Writes the board and chooses the cache of the compiled boards.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.textFile = BoardFiles.create(this.size);
+        System.setProperty("oca.board.cache", this.cache.equals("off") ? "off" : BoardFiles.DIRECTORY + "/cache");
+    }
+
+    /**
+     * Loads the board.
+     *
+     * @return the loaded board
+     */
+    @Benchmark
+    public Board loadBoard() {
+        Board board = new Board();
+        board.loadBoard(this.textFile);
+        return board;
+    }
+}
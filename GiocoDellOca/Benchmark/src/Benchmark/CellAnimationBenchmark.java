@@ -0,0 +1,122 @@
+/**
+ * Contains: AzioniBenchmark Class, Benchmarks Class, BoardFiles Class, BoardLoadBenchmark Class, CellAnimationBenchmark Class, GameBenchmark Class, OutputBenchmark Class.
+ */
+package Benchmark;
+
+
+import Board.Board;
+import Cells.Cell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of the animations of the cells, the Cell.appendPrimaryAnimation* and
+ * Cell.appendSecondaryAnimation methods which replaced the string builders getPrimaryAnimation*.
+ * Every invocation writes the animation of every cell of the small board into a reused StringBuilder,
+ * the results are per cell.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellAnimationBenchmark {
+
+    /**
+     * The number of cells of the small board, without the start cell.
+     */
+    private static final int CELLS = 62;
+
+    /**
+     * The cells of the small board, without the start cell.
+     */
+    private Cell[] cells;
+
+    /**
+     * The destination of the animations.
+     */
+    private StringBuilder out;
+
+    /**
+     * Loads the cells of the small board.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("oca.board.cache", "off");
+        Board board = new Board();
+        board.loadBoard(BoardFiles.create("small"));
+        this.cells = new Cell[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            this.cells[i] = board.getCell(i + 1);
+        }
+        this.out = new StringBuilder(1 << 12);
+    }
+
+    /**
+     * Writes the animations of the moves ending within the board.
+     *
+     * @return the length of the animations
+     * @throws IOException never, the destination is a StringBuilder
+     */
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int primaryAnimationWithin() throws IOException {
+        int length = 0;
+        for (Cell cell : this.cells) {
+            this.out.setLength(0);
+            cell.appendPrimaryAnimationWithin(Math.max(0, cell.getIndex() - 3), this.out);
+            length += this.out.length();
+        }
+        return length;
+    }
+
+    /**
+     * Writes the animations of the moves bouncing back from the end of the board.
+     *
+     * @return the length of the animations
+     * @throws IOException never, the destination is a StringBuilder
+     */
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int primaryAnimationOut() throws IOException {
+        int length = 0;
+        for (Cell cell : this.cells) {
+            this.out.setLength(0);
+            cell.appendPrimaryAnimationOut(CELLS - 2, CELLS + 1, this.out);
+            length += this.out.length();
+        }
+        return length;
+    }
+
+    /**
+     * Writes the animations of the actions of the cells.
+     *
+     * @return the length of the animations
+     * @throws IOException never, the destination is a StringBuilder
+     */
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int secondaryAnimation() throws IOException {
+        int length = 0;
+        for (Cell cell : this.cells) {
+            this.out.setLength(0);
+            cell.appendSecondaryAnimation(4, this.out);
+            length += this.out.length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Contains: AzioniBenchmark Class, Benchmarks Class, BoardFiles Class, BoardLoadBenchmark Class, CellAnimationBenchmark Class, GameBenchmark Class, OutputBenchmark Class.
+ */
+package Benchmark;
+
+
+import Board.Board;
+import Dice.SplittableDice;
+import Game.Game;
+import Output.GameLog;
+import Output.Output;
+import Output.StreamBackend;
+import Output.SummaryLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of a full Game.playGame, writing the text log to a sink which discards it,
+ * or keeping only the summary of the game to measure the engine alone.
+ * Every game rolls different dice, split from the same seed at every run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+
+    /**
+     * The size of the buffer of the text log.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The size of the board, see BoardFiles.
+     */
+    @Param({"small", "medium"})
+    public String size;
+
+    /**
+     * The number of players.
+     */
+    @Param({"2", "4"})
+    public int players;
+
+    /**
+     * "text" writes the log with Output, "summary" keeps only the winner and the rounds.
+     */
+    @Param({"text", "summary"})
+    public String log;
+
+    /**
+     * The board shared by the games.
+     */
+    private Board board;
+
+    /**
+     * The names of the players.
+     */
+    private List<String> names;
+
+    /**
+     * The dice from which the dice of every game are split.
+     */
+    private SplittableDice dice;
+
+    /**
+     * Loads the board.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("oca.board.cache", "off");
+        this.board = new Board();
+        this.board.loadBoard(BoardFiles.create(this.size));
+        this.names = new ArrayList<>();
+        for (int i = 1; i <= this.players; i++) {
+            this.names.add("Giocatore" + i);
+        }
+        this.dice = new SplittableDice(42);
+    }
+
+    /**
+     * Plays a game.
+     *
+     * @return the game, so that it is not optimized away
+     */
+    @Benchmark
+    public Game playGame() {
+        GameLog gameLog;
+        if (this.log.equals("text")) {
+            gameLog = new Output(new StreamBackend(OutputStream.nullOutputStream(), BUFFER_SIZE, false));
+        }
+        else {
+            gameLog = new SummaryLog(null);
+        }
+        Game game = new Game(this.board, gameLog);
+        game.setDice(this.dice.split());
+        game.addPlayers(this.names);
+        game.playGame();
+        return game;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Contains: AzioniBenchmark Class, Benchmarks Class, BoardFiles Class, BoardLoadBenchmark Class, CellAnimationBenchmark Class, GameBenchmark Class, OutputBenchmark Class.
+ */
+package Benchmark;
+
+
+import Board.Board;
+import Cells.Cell;
+import Output.Output;
+import Output.StreamBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of the write throughput of Output: every operation writes one turn of the log
+ * (turn, dice roll, move and end of the turn) into a backend which discards the bytes,
+ * so only the encoding of the events and the copies into the buffer are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputBenchmark {
+
+    /**
+     * The size of the buffer of the backend.
+     */
+    @Param({"4096", "65536"})
+    public int bufferSize;
+
+    /**
+     * "buffer" writes the buffer when it is full, "turn" also at the end of every turn.
+     */
+    @Param({"buffer", "turn"})
+    public String flush;
+
+    /**
+     * The cells of the small board.
+     */
+    private Cell[] cells;
+
+    /**
+     * The log.
+     */
+    private Output output;
+
+    /**
+     * The number of the turn, it chooses the player, the dice roll and the reached cell.
+     */
+    private int turn;
+
+    /**
+     * Loads the cells of the small board and opens the log.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("oca.board.cache", "off");
+        Board board = new Board();
+        board.loadBoard(BoardFiles.create("small"));
+        this.cells = new Cell[board.getNumberOfCells() + 1];
+        for (int i = 0; i < this.cells.length; i++) {
+            this.cells[i] = board.getCell(i);
+        }
+        this.output = new Output(new StreamBackend(OutputStream.nullOutputStream(), this.bufferSize, this.flush.equals("turn")));
+        this.output.begin();
+        this.output.printNumberOfCells(board.getNumberOfCells());
+        this.output.printPlayer(1, "Giocatore1");
+        this.output.printPlayer(2, "Giocatore2");
+    }
+
+    /**
+     * Closes the log.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.output.finish();
+    }
+
+    /**
+     * Writes one turn.
+     */
+    @Benchmark
+    public void writeTurn() {
+        int diceRoll = 1 + this.turn % 6;
+        int fromIndex = this.turn % (this.cells.length - 6);
+        this.output.printPlayerTurn(1 + (this.turn & 1));
+        this.output.printDiceRoll(diceRoll);
+        this.output.printPrimaryAnimationWithin(this.cells[fromIndex + diceRoll], fromIndex);
+        this.output.printEndTurn();
+        this.turn++;
+    }
+}
@@ -0,0 +1,722 @@
+/**
+ * Contains: MarkovAnalyzer Class.
+ */
+package Analysis;
+
+import Board.Board;
+import Board.MoveTable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The class which computes exact statistics of the game without simulating it.
+ * The turns of one player form an absorbing Markov chain: a state is a cell where the player starts a turn,
+ * together with the number of turns the player still has to wait in a stop cell, and the victory is the absorbing state.
+ * The chains of special cells are folded into the move table of the board, states with identical transitions are merged,
+ * and the linear systems are solved with parallel iterations over a sparse matrix.
+ */
+public class MarkovAnalyzer {
+
+    /**
+     * The relative precision at which the iterative solver stops.
+     */
+    private static final double TOLERANCE = 1e-10;
+
+    /**
+     * The maximum number of matrix entries stored by the banded elimination.
+     */
+    private static final long MAXIMUM_BAND_ENTRIES = 1L << 26;
+
+    /**
+     * The fraction of the requested precision below which the probability of a state is dropped.
+     */
+    private static final double PRUNING_FACTOR = 1e-6;
+
+    /**
+     * The maximum number of iterations of the linear solver.
+     */
+    private static final int MAXIMUM_ITERATIONS = 100_000;
+
+    /**
+     * The number of faces of the dice, every transition weight is a multiple of 1 / DICE_FACES.
+     */
+    private static final int DICE_FACES = MoveTable.DICE_FACES;
+
+    /**
+     * The number of the cells of the board, including the start cell.
+     */
+    private int numberOfCells;
+
+    /**
+     * The number of states before merging the equivalent states.
+     */
+    private int numberOfStates;
+
+    /**
+     * The merged state of the player starting a turn in the given cell without waiting.
+     */
+    private int[] cellState;
+
+    /**
+     * The number of merged states.
+     */
+    private int numberOfMergedStates;
+
+    /**
+     * The first transition of each merged state, the transitions of the state s are rowStart[s] to rowStart[s + 1] - 1.
+     */
+    private int[] rowStart;
+
+    /**
+     * The destination state of each transition.
+     */
+    private int[] column;
+
+    /**
+     * The probability of each transition.
+     */
+    private double[] probability;
+
+    /**
+     * The probability that the player wins in the next turn, for each merged state.
+     */
+    private double[] absorption;
+
+    /**
+     * The first transition arriving in each merged state, used to propagate distributions forwards.
+     */
+    private int[] reverseRowStart;
+
+    /**
+     * The source state of each arriving transition.
+     */
+    private int[] reverseColumn;
+
+    /**
+     * The probability of each arriving transition.
+     */
+    private double[] reverseProbability;
+
+    /**
+     * Constructor of the analyzer.
+     * Builds the Markov chain of the board and merges its equivalent states.
+     *
+     * @param board the loaded game's board
+     */
+    public MarkovAnalyzer(Board board) {
+        MoveTable moveTable = board.getMoveTable();
+        this.numberOfCells = board.getNumberOfCells() + 1;
+        int boardSize = moveTable.getBoardSize();
+
+        //Numbers the states: first the cell, then its waiting turns.
+        int[] firstState = new int[this.numberOfCells + 1];
+        for (int cell = 0; cell < this.numberOfCells; cell++) {
+            firstState[cell + 1] = firstState[cell] + 1 + moveTable.getTurnsToWait(cell);
+        }
+        this.numberOfStates = firstState[this.numberOfCells];
+
+        //Builds the transitions, weights are counted in dice faces.
+        int[] stateRowStart = new int[this.numberOfStates + 1];
+        int[] stateColumn = new int[this.numberOfStates * DICE_FACES];
+        int[] stateWeight = new int[this.numberOfStates * DICE_FACES];
+        int[] stateAbsorption = new int[this.numberOfStates];
+        int transitions = 0;
+        for (int cell = 0; cell < this.numberOfCells; cell++) {
+            int state = firstState[cell];
+            stateRowStart[state] = transitions;
+            for (int dice = 1; dice <= DICE_FACES; dice++) {
+                int destination = moveTable.getDestination(cell, dice);
+                if (destination == boardSize) {
+                    stateAbsorption[state]++;
+                    continue;
+                }
+                //A player entering a stop cell waits all its turns before moving again.
+                int target = firstState[destination] + moveTable.getTurnsToWait(destination);
+                transitions = addTransition(stateColumn, stateWeight, stateRowStart[state], transitions, target, 1);
+            }
+            //The waiting states lead to the state with one turn less to wait.
+            for (int wait = 1; wait <= moveTable.getTurnsToWait(cell); wait++) {
+                stateRowStart[state + wait] = transitions;
+                transitions = addTransition(stateColumn, stateWeight, transitions, transitions, state + wait - 1, DICE_FACES);
+            }
+        }
+        stateRowStart[this.numberOfStates] = transitions;
+
+        //Merges the equivalent states and builds the sparse matrices.
+        int[] stateClass = mergeEquivalentStates(stateRowStart, stateColumn, stateWeight, stateAbsorption);
+        this.cellState = new int[this.numberOfCells];
+        for (int cell = 0; cell < this.numberOfCells; cell++) {
+            this.cellState[cell] = stateClass[firstState[cell]];
+        }
+        buildMergedMatrix(stateClass, stateRowStart, stateColumn, stateWeight, stateAbsorption);
+    }
+
+    /**
+     * Adds a transition to the row which is being built, summing the weights of transitions to the same state.
+     *
+     * @param column the destination states of the transitions
+     * @param weight the weights of the transitions
+     * @param rowStart the first transition of the row
+     * @param transitions the number of transitions already added
+     * @param target the destination state
+     * @param amount the weight of the transition
+     * @return the new number of transitions
+     */
+    private static int addTransition(int[] column, int[] weight, int rowStart, int transitions, int target, int amount) {
+        for (int i = rowStart; i < transitions; i++) {
+            if (column[i] == target) {
+                weight[i] += amount;
+                return transitions;
+            }
+        }
+        column[transitions] = target;
+        weight[transitions] = amount;
+        return transitions + 1;
+    }
+
+    /**
+     * Merges the states with identical transitions, repeating until no more states can be merged.
+     * At the end every merged state has the same transitions towards every other merged state,
+     * so the merged chain has exactly the same absorption times as the original one.
+     *
+     * @param rowStart the first transition of each state
+     * @param column the destination state of each transition
+     * @param weight the weight of each transition
+     * @param absorption the weight of the victory for each state
+     * @return the merged state of each state
+     */
+    private int[] mergeEquivalentStates(int[] rowStart, int[] column, int[] weight, int[] absorption) {
+        int[] stateClass = new int[this.numberOfStates];
+        for (int state = 0; state < this.numberOfStates; state++) {
+            stateClass[state] = state;
+        }
+        int classes = this.numberOfStates;
+        while (true) {
+            Map<RowKey, Integer> rows = new HashMap<>();
+            int[] nextClass = new int[this.numberOfStates];
+            for (int state = 0; state < this.numberOfStates; state++) {
+                RowKey key = new RowKey(rowStart, column, weight, absorption, stateClass, state);
+                Integer known = rows.putIfAbsent(key, rows.size());
+                nextClass[state] = known == null ? rows.size() - 1 : known;
+            }
+            stateClass = nextClass;
+            if (rows.size() == classes) {
+                break;
+            }
+            classes = rows.size();
+        }
+        this.numberOfMergedStates = classes;
+        return stateClass;
+    }
+
+    /**
+     * Builds the sparse transition matrix of the merged states and its transpose.
+     *
+     * @param stateClass the merged state of each state
+     * @param rowStart the first transition of each state
+     * @param column the destination state of each transition
+     * @param weight the weight of each transition
+     * @param stateAbsorption the weight of the victory for each state
+     */
+    private void buildMergedMatrix(int[] stateClass, int[] rowStart, int[] column, int[] weight, int[] stateAbsorption) {
+        int merged = this.numberOfMergedStates;
+        //Picks one representative for every merged state.
+        int[] representative = new int[merged];
+        Arrays.fill(representative, -1);
+        for (int state = 0; state < this.numberOfStates; state++) {
+            if (representative[stateClass[state]] == -1) {
+                representative[stateClass[state]] = state;
+            }
+        }
+        this.rowStart = new int[merged + 1];
+        this.absorption = new double[merged];
+        int[] mergedColumn = new int[rowStart[this.numberOfStates]];
+        int[] mergedWeight = new int[rowStart[this.numberOfStates]];
+        int transitions = 0;
+        for (int s = 0; s < merged; s++) {
+            int state = representative[s];
+            this.rowStart[s] = transitions;
+            this.absorption[s] = (double) stateAbsorption[state] / DICE_FACES;
+            for (int i = rowStart[state]; i < rowStart[state + 1]; i++) {
+                transitions = addTransition(mergedColumn, mergedWeight, this.rowStart[s], transitions, stateClass[column[i]], weight[i]);
+            }
+        }
+        this.rowStart[merged] = transitions;
+        this.column = Arrays.copyOf(mergedColumn, transitions);
+        this.probability = new double[transitions];
+        for (int i = 0; i < transitions; i++) {
+            this.probability[i] = (double) mergedWeight[i] / DICE_FACES;
+        }
+
+        //Builds the transpose by counting the arriving transitions of every state.
+        this.reverseRowStart = new int[merged + 1];
+        for (int i = 0; i < transitions; i++) {
+            this.reverseRowStart[this.column[i] + 1]++;
+        }
+        for (int s = 0; s < merged; s++) {
+            this.reverseRowStart[s + 1] += this.reverseRowStart[s];
+        }
+        int[] filled = Arrays.copyOf(this.reverseRowStart, merged);
+        this.reverseColumn = new int[transitions];
+        this.reverseProbability = new double[transitions];
+        for (int s = 0; s < merged; s++) {
+            for (int i = this.rowStart[s]; i < this.rowStart[s + 1]; i++) {
+                int slot = filled[this.column[i]]++;
+                this.reverseColumn[slot] = s;
+                this.reverseProbability[slot] = this.probability[i];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of states of the chain before merging.
+     *
+     * @return the number of states
+     */
+    public int getNumberOfStates() {
+        return this.numberOfStates;
+    }
+
+    /**
+     * Gets the number of states of the chain after merging the equivalent states.
+     *
+     * @return the number of merged states
+     */
+    public int getNumberOfMergedStates() {
+        return this.numberOfMergedStates;
+    }
+
+    /**
+     * Computes the expected number of turns a single player needs to win, starting a turn from every cell.
+     * Solves the system (I - P) E = 1. The states are numbered along the board, so most transitions stay close
+     * to the diagonal: when the band of the matrix is narrow the system is solved directly with a banded elimination,
+     * otherwise with the BiCGSTAB iteration, computing every product with the sparse matrix in parallel.
+     * The player must be able to win from every cell, otherwise the system has no solution.
+     *
+     * @return the expected number of turns for every cell
+     */
+    public double[] expectedTurnsFromEveryCell() {
+        double[] x = this.canSolveBanded() ? this.solveBanded() : this.solveIterative();
+        double[] expected = new double[this.numberOfCells];
+        for (int cell = 0; cell < this.numberOfCells; cell++) {
+            expected[cell] = x[this.cellState[cell]];
+        }
+        return expected;
+    }
+
+    /**
+     * Checks whether the band of the matrix is narrow enough for the banded elimination.
+     *
+     * @return true if the banded elimination fits in the memory budget
+     */
+    private boolean canSolveBanded() {
+        long width = (long) this.getLowerBandwidth() + this.getUpperBandwidth() + 1;
+        return width * this.numberOfMergedStates <= MAXIMUM_BAND_ENTRIES;
+    }
+
+    /**
+     * Gets how far below the diagonal the transitions of the matrix reach.
+     *
+     * @return the lower bandwidth
+     */
+    private int getLowerBandwidth() {
+        int lower = 0;
+        for (int s = 0; s < this.numberOfMergedStates; s++) {
+            for (int i = this.rowStart[s]; i < this.rowStart[s + 1]; i++) {
+                lower = Math.max(lower, s - this.column[i]);
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * Gets how far above the diagonal the transitions of the matrix reach.
+     *
+     * @return the upper bandwidth
+     */
+    private int getUpperBandwidth() {
+        int upper = 0;
+        for (int s = 0; s < this.numberOfMergedStates; s++) {
+            for (int i = this.rowStart[s]; i < this.rowStart[s + 1]; i++) {
+                upper = Math.max(upper, this.column[i] - s);
+            }
+        }
+        return upper;
+    }
+
+    /**
+     * Solves the system (I - P) E = 1 with the Gaussian elimination restricted to the band of the matrix.
+     * I - P is an M-matrix, so the elimination is stable without pivoting and does not fill the entries outside the band.
+     *
+     * @return the expected number of turns for every merged state
+     */
+    private double[] solveBanded() {
+        int merged = this.numberOfMergedStates;
+        int lower = this.getLowerBandwidth();
+        int upper = this.getUpperBandwidth();
+        int width = lower + upper + 1;
+        //The entry (s, c) of the matrix is stored at s * width + c - s + lower.
+        double[] band = new double[merged * width];
+        double[] x = new double[merged];
+        for (int s = 0; s < merged; s++) {
+            band[s * width + lower] = 1.0;
+            for (int i = this.rowStart[s]; i < this.rowStart[s + 1]; i++) {
+                band[s * width + this.column[i] - s + lower] -= this.probability[i];
+            }
+            x[s] = 1.0;
+        }
+        //Eliminates the entries below the diagonal.
+        for (int k = 0; k < merged; k++) {
+            double pivot = band[k * width + lower];
+            int lastRow = Math.min(merged - 1, k + lower);
+            int lastColumn = Math.min(merged - 1, k + upper);
+            for (int s = k + 1; s <= lastRow; s++) {
+                int entry = s * width + k - s + lower;
+                if (band[entry] == 0.0) {
+                    continue;
+                }
+                double factor = band[entry] / pivot;
+                band[entry] = 0.0;
+                for (int c = k + 1; c <= lastColumn; c++) {
+                    band[s * width + c - s + lower] -= factor * band[k * width + c - k + lower];
+                }
+                x[s] -= factor * x[k];
+            }
+        }
+        //Substitutes backwards.
+        for (int s = merged - 1; s >= 0; s--) {
+            double value = x[s];
+            int lastColumn = Math.min(merged - 1, s + upper);
+            for (int c = s + 1; c <= lastColumn; c++) {
+                value -= band[s * width + c - s + lower] * x[c];
+            }
+            x[s] = value / band[s * width + lower];
+        }
+        return x;
+    }
+
+    /**
+     * Solves the system (I - P) E = 1 with the BiCGSTAB iteration preconditioned with the diagonal.
+     *
+     * @return the expected number of turns for every merged state
+     */
+    private double[] solveIterative() {
+        int merged = this.numberOfMergedStates;
+        //The inverse of the diagonal of I - P, used as the preconditioner.
+        double[] inverseDiagonal = new double[merged];
+        IntStream.range(0, merged).parallel().forEach(s -> {
+            double diagonal = 1.0;
+            for (int i = this.rowStart[s]; i < this.rowStart[s + 1]; i++) {
+                if (this.column[i] == s) {
+                    diagonal -= this.probability[i];
+                }
+            }
+            inverseDiagonal[s] = 1.0 / diagonal;
+        });
+        double[] x = new double[merged];
+        double[] r = new double[merged];
+        Arrays.fill(r, 1.0);
+        double[] rHat = r.clone();
+        double[] p = new double[merged];
+        double[] v = new double[merged];
+        double[] y = new double[merged];
+        double[] z = new double[merged];
+        double[] t = new double[merged];
+        double rho = 1.0;
+        double alpha = 1.0;
+        double omega = 1.0;
+        double target = TOLERANCE * Math.sqrt(merged);
+        for (int iteration = 0; iteration < MAXIMUM_ITERATIONS && Math.sqrt(dot(r, r)) > target; iteration++) {
+            double rhoNext = dot(rHat, r);
+            double beta = (rhoNext / rho) * (alpha / omega);
+            rho = rhoNext;
+            double betaValue = beta;
+            double omegaValue = omega;
+            IntStream.range(0, merged).parallel().forEach(s -> p[s] = r[s] + betaValue * (p[s] - omegaValue * v[s]));
+            IntStream.range(0, merged).parallel().forEach(s -> y[s] = inverseDiagonal[s] * p[s]);
+            multiply(y, v);
+            alpha = rho / dot(rHat, v);
+            double alphaValue = alpha;
+            IntStream.range(0, merged).parallel().forEach(s -> r[s] -= alphaValue * v[s]);
+            IntStream.range(0, merged).parallel().forEach(s -> z[s] = inverseDiagonal[s] * r[s]);
+            multiply(z, t);
+            double tt = dot(t, t);
+            omega = tt == 0.0 ? 0.0 : dot(t, r) / tt;
+            double omegaNext = omega;
+            IntStream.range(0, merged).parallel().forEach(s -> {
+                x[s] += alphaValue * y[s] + omegaNext * z[s];
+                r[s] -= omegaNext * t[s];
+            });
+            if (omega == 0.0) {
+                break;
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Computes the product of the matrix I - P with a vector.
+     *
+     * @param vector the vector to be multiplied
+     * @param result the array where the product is stored
+     */
+    private void multiply(double[] vector, double[] result) {
+        IntStream.range(0, this.numberOfMergedStates).parallel().forEach(s -> {
+            double value = vector[s];
+            for (int i = this.rowStart[s]; i < this.rowStart[s + 1]; i++) {
+                value -= this.probability[i] * vector[this.column[i]];
+            }
+            result[s] = value;
+        });
+    }
+
+    /**
+     * Computes the scalar product of two vectors.
+     *
+     * @param first the first vector
+     * @param second the second vector
+     * @return the scalar product
+     */
+    private static double dot(double[] first, double[] second) {
+        return IntStream.range(0, first.length).parallel().mapToDouble(s -> first[s] * second[s]).sum();
+    }
+
+    /**
+     * Computes the probability that a single player has won within the given number of turns, starting a turn from every cell.
+     * Iterates F(t) = a + P F(t - 1), where a is the probability of winning in the next turn.
+     *
+     * @param turns the number of turns
+     * @return the probability of having won within the turns, for every cell
+     */
+    public double[] winWithinFromEveryCell(int turns) {
+        int merged = this.numberOfMergedStates;
+        double[] previous = new double[merged];
+        double[] current = new double[merged];
+        for (int t = 0; t < turns; t++) {
+            double[] read = previous;
+            double[] write = current;
+            IntStream.range(0, merged).parallel().forEach(s -> {
+                double value = this.absorption[s];
+                for (int i = this.rowStart[s]; i < this.rowStart[s + 1]; i++) {
+                    value += this.probability[i] * read[this.column[i]];
+                }
+                write[s] = value;
+            });
+            previous = write;
+            current = read;
+        }
+        double[] within = new double[this.numberOfCells];
+        for (int cell = 0; cell < this.numberOfCells; cell++) {
+            within[cell] = previous[this.cellState[cell]];
+        }
+        return within;
+    }
+
+    /**
+     * Computes the first-passage distribution of a single player starting a turn from the given cell:
+     * the probability that the player wins exactly in the turn t, for t = 1, 2, ...
+     * The distribution is propagated forwards until the remaining probability is below the given precision.
+     * Only the window of states which still hold some probability is updated, and probabilities far below
+     * the precision are dropped, so the cost of a turn depends on the spread of the distribution, not on the size of the board.
+     *
+     * @param cell the index of the cell where the player starts
+     * @param precision the probability of not having won below which the computation stops
+     * @param maximumTurns the number of turns after which the computation stops anyway
+     * @return the probability of winning in each turn, the entry 0 is always 0
+     */
+    public double[] firstPassageDistribution(int cell, double precision, int maximumTurns) {
+        int merged = this.numberOfMergedStates;
+        double negligible = precision * PRUNING_FACTOR;
+        //Both the arrays are kept at zero outside the window of the states holding probability.
+        double[] previous = new double[merged];
+        double[] current = new double[merged];
+        int first = this.cellState[cell];
+        int last = first;
+        previous[first] = 1.0;
+        double[] distribution = new double[16];
+        double remaining = 1.0;
+        int turn = 0;
+        while (remaining > precision && turn < maximumTurns) {
+            turn++;
+            double[] read = previous;
+            double[] write = current;
+            //Finds the window of the states which can be reached in this turn.
+            double won = 0.0;
+            int nextFirst = merged;
+            int nextLast = -1;
+            for (int s = first; s <= last; s++) {
+                if (read[s] == 0.0) {
+                    continue;
+                }
+                //The victory in this turn is the probability of winning from the states reached so far.
+                won += read[s] * this.absorption[s];
+                for (int i = this.rowStart[s]; i < this.rowStart[s + 1]; i++) {
+                    nextFirst = Math.min(nextFirst, this.column[i]);
+                    nextLast = Math.max(nextLast, this.column[i]);
+                }
+            }
+            if (nextLast >= nextFirst) {
+                IntStream.rangeClosed(nextFirst, nextLast).parallel().forEach(s -> {
+                    double value = 0.0;
+                    for (int i = this.reverseRowStart[s]; i < this.reverseRowStart[s + 1]; i++) {
+                        value += this.reverseProbability[i] * read[this.reverseColumn[i]];
+                    }
+                    write[s] = value < negligible ? 0.0 : value;
+                });
+            }
+            Arrays.fill(read, first, last + 1, 0.0);
+            previous = write;
+            current = read;
+            first = nextFirst;
+            last = nextLast;
+            //Shrinks the window to the states which still hold probability.
+            while (first <= last && previous[first] == 0.0) {
+                first++;
+            }
+            while (last >= first && previous[last] == 0.0) {
+                last--;
+            }
+            if (turn >= distribution.length) {
+                distribution = Arrays.copyOf(distribution, 2 * distribution.length);
+            }
+            distribution[turn] = won;
+            remaining -= won;
+            if (first > last) {
+                break;
+            }
+        }
+        return Arrays.copyOf(distribution, turn + 1);
+    }
+
+    /**
+     * Computes the probability that a game with the given number of players ends in each round.
+     * The players move independently, so the game ends in the round t when the first of them wins in its turn t.
+     *
+     * @param distribution the first-passage distribution of a single player from the start cell
+     * @param numberOfPlayers the number of players
+     * @return the probability that the game ends in each round, the entry 0 is always 0
+     */
+    public static double[] gameLengthDistribution(double[] distribution, int numberOfPlayers) {
+        double[] length = new double[distribution.length];
+        double notWon = 1.0;
+        for (int t = 1; t < distribution.length; t++) {
+            double notWonNow = Math.max(0.0, notWon - distribution[t]);
+            length[t] = Math.pow(notWon, numberOfPlayers) - Math.pow(notWonNow, numberOfPlayers);
+            notWon = notWonNow;
+        }
+        return length;
+    }
+
+    /**
+     * Computes the probability of winning the game for each seat.
+     * The seat i wins in the round t if it wins in its turn t, the seats before it have not won within their turn t
+     * and the seats after it have not won within their turn t - 1.
+     *
+     * @param distribution the first-passage distribution of a single player from the start cell
+     * @param numberOfPlayers the number of players
+     * @return the probability of winning for each seat, seat 0 is the first player to move
+     */
+    public static double[] winProbabilities(double[] distribution, int numberOfPlayers) {
+        double[] wins = new double[numberOfPlayers];
+        double notWon = 1.0;
+        for (int t = 1; t < distribution.length; t++) {
+            double notWonNow = Math.max(0.0, notWon - distribution[t]);
+            for (int seat = 0; seat < numberOfPlayers; seat++) {
+                wins[seat] += distribution[t] * Math.pow(notWonNow, seat) * Math.pow(notWon, numberOfPlayers - 1 - seat);
+            }
+            notWon = notWonNow;
+        }
+        return wins;
+    }
+
+    /**
+     * Computes the expected number of rounds of a game from its length distribution.
+     *
+     * @param length the probability that the game ends in each round
+     * @return the expected number of rounds
+     */
+    public static double expectedRounds(double[] length) {
+        double expected = 0.0;
+        for (int t = 1; t < length.length; t++) {
+            expected += t * length[t];
+        }
+        return expected;
+    }
+
+    /**
+     * The key which identifies the transitions of a state in terms of the current merged states.
+     */
+    private static class RowKey {
+
+        /**
+         * The weight of the victory followed by the pairs of destination and weight, sorted by destination.
+         */
+        private final int[] values;
+
+        /**
+         * The hash code of the values.
+         */
+        private final int hash;
+
+        /**
+         * Constructor of the key.
+         *
+         * @param rowStart the first transition of each state
+         * @param column the destination state of each transition
+         * @param weight the weight of each transition
+         * @param absorption the weight of the victory for each state
+         * @param stateClass the current merged state of each state
+         * @param state the state whose transitions are described
+         */
+        RowKey(int[] rowStart, int[] column, int[] weight, int[] absorption, int[] stateClass, int state) {
+            int first = rowStart[state];
+            int count = rowStart[state + 1] - first;
+            long[] pairs = new long[count];
+            for (int i = 0; i < count; i++) {
+                pairs[i] = ((long) stateClass[column[first + i]] << 32) | weight[first + i];
+            }
+            Arrays.sort(pairs);
+            //Sums the weights of the transitions which now lead to the same merged state.
+            int[] row = new int[1 + 2 * count];
+            row[0] = absorption[state];
+            int length = 1;
+            for (int i = 0; i < count; i++) {
+                int target = (int) (pairs[i] >>> 32);
+                int amount = (int) pairs[i];
+                if (length > 1 && row[length - 2] == target) {
+                    row[length - 1] += amount;
+                }
+                else {
+                    row[length++] = target;
+                    row[length++] = amount;
+                }
+            }
+            this.values = Arrays.copyOf(row, length);
+            this.hash = Arrays.hashCode(this.values);
+        }
+
+        /**
+         * Compares the key with another object.
+         *
+         * @param other the object to be compared
+         * @return true if the other object is a key with the same transitions
+         */
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RowKey && Arrays.equals(this.values, ((RowKey) other).values);
+        }
+
+        /**
+         * Returns the hash code of the key.
+         *
+         * @return the hash code
+         */
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
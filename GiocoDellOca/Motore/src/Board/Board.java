@@ -1,30 +1,68 @@
 /**
- * Contains: Board Class.
+ * Contains: Board Class, BoardCache Class, BoardParser Class, MoveTable Class.
  */
 package Board;
 
 import Cells.*;
+import Events.BoardLoadEvent;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
 
 /**
  * The class which represents the Board object and manages read operations from the input file.
+ * The board is sparse: only the special cells are stored, sorted by their index, and the regular cells
+ * are created when they are asked for, so the memory depends on the number of special cells and not on the size of the board.
  */
 public class Board {
 
+    /**
+     * The name of the input file of the board, null until the board is loaded.
+     */
+    private String name;
+
     /**
      * The number of the cells of the board.
      */
     private int numberOfCells;
 
     /**
-     * The cells of the board.
-     * There are 7 possible types of the cell:
-     * StartCell, RegularCell, GoForwardCell, GoBackCell,TeleportCell, StopCell and DoubleThrowCell.
+     * The start cell of the board, where all the players stay at the beginning.
+     */
+    private Cell startCell;
+
+    /**
+     * The indexes of the special cells, in ascending order.
+     */
+    private int[] specialIndexes;
+
+    /**
+     * The special cells, at the same position as their index.
+     * There are 5 possible types of the special cell:
+     * GoForwardCell, GoBackCell, TeleportCell, StopCell and DoubleThrowCell.
+     */
+    private Cell[] specialCells;
+
+    /**
+     * The types of the special cells, see BoardParser.
+     */
+    private byte[] specialTypes;
+
+    /**
+     * The parameters of the special cells, 0 for the double-roll cells.
+     */
+    private int[] specialParameters;
+
+    /**
+     * The precomputed destinations of all the moves on the board.
+     */
+    private MoveTable moveTable;
+
+    /**
+     * The SHA-256 hash of the content of the input file, null until it is needed if the compiled boards are disabled.
      */
-    private Cell[] cells;
+    private byte[] hash;
 
     /**
      * Loads the game board from the input text file.
@@ -32,16 +70,38 @@ public class Board {
      * @param textFile the input file
      */
     public void loadBoard(String textFile) {
-        try {
-            FileReader boardInputFile = new FileReader("./" + textFile);
-            Scanner boardInputFileReader = new Scanner(boardInputFile);
-            String line = boardInputFileReader.nextLine();
+        BoardLoadEvent event = new BoardLoadEvent();
+        event.begin();
+        this.name = textFile;
+        boolean compiled = this.readBoard(textFile);
+        event.end();
+        if (event.shouldCommit()) {
+            event.record(textFile, this.numberOfCells, this.specialIndexes.length, compiled);
+        }
+    }
 
+    /**
+     * Reads the board from the compiled board of an earlier run or from the input text file.
+     *
+     * @param textFile the input file
+     * @return true if the board was loaded from the compiled board
+     */
+    private boolean readBoard(String textFile) {
+        BoardCache cache = null;
+        try {
+            //Loads the board compiled by an earlier run, if the input file has not changed since.
+            cache = BoardCache.open(textFile);
+            if (cache != null) {
+                this.hash = cache.getHash();
+            }
+            if (cache != null && cache.load(this)) {
+                return true;
+            }
             //Reads the input file and creates cells according to its content.
-            interprateInputFile(boardInputFileReader, line);
+            interprateInputFile(new BoardParser(textFile));
         }
         //If the file cannot be found.
-        catch (FileNotFoundException e) {
+        catch (NoSuchFileException e) {
             System.out.println("Cannot find the input file.");
             System.exit(0);
         }
@@ -50,199 +110,252 @@ public class Board {
             System.out.println("Cannot load the board from the input file.");
             System.exit(0);
         }
+        //Precomputes the destinations of all the moves and checks the chains of cells.
+        compileMoves();
+        //Compiles the board for the next runs.
+        if (cache != null) {
+            cache.store(this);
+        }
+        return false;
     }
 
     /**
-     *  Reads the input file and creates cells according to its content.
-     *
-     * @param boardInputFileReader the Scanner object assigned to the input file
-     * @param line one line of the input file
+     * Creates the move table of the board.
+     * Stops the program if a chain of special cells never terminates or leads out of the board.
      */
-    private void interprateInputFile(Scanner boardInputFileReader, String line) {
-
-        //Checks the format of the input file.
-        if (line.equals("OCA TAVOLA")) {
-            while (boardInputFileReader.hasNextLine()) {
-                line = boardInputFileReader.nextLine();
-
-                //Loads the number of cells and creates default board.
-                if (line.contains("CASELLE")) {
-                    loadNumberOfCells(line);
-                }
-
-                //Skips all the comment lines.
-                else if (line.contains("COMMENTO INIZIO")) {
-                    skipsComments(boardInputFileReader, line);
-                }
-
-                //Creates a new cell of the type GoForwardCell.
-                else if (line.contains("AVANTI")) {
-                    createGoForwardCell(line);
-                }
-
-                //Creates a new cell of the type GoBackCell.
-                else if (line.contains("INDIETRO")) {
-                    createGoBackCell(line);
-                }
-
-                //Creates a new cell of the type DoubleThrowCell.
-                else if (line.contains("DOPPIO")) {
-                    createDoubleRollCell(line);
-                }
-
-                //Creates a new cell of the type StopCell.
-                else if (line.contains("FERMO")) {
-                    createStopCell(line);
-                }
-
-                //Creates a new cell of the type TeleportCell.
-                else if (line.contains("VAI")) {
-                    createTeleportCell(line);
-                }
-            }
+    private void compileMoves() {
+        try {
+            this.moveTable = new MoveTable(this);
+        } catch (IllegalStateException e) {
+            System.out.println("Wrong board in the input file: " + e.getMessage() + ".");
+            System.exit(0);
         }
+    }
+
+    /**
+     * Creates the default board and the special cells read by the parser.
+     *
+     * @param parser the parser of the input file
+     */
+    private void interprateInputFile(BoardParser parser) {
+
         //If the format of the input file is incorrect.
-        else {
+        if (!parser.isBoardFile()) {
             System.out.println("Wrong input file format.");
             System.exit(0);
         }
+        if (parser.getNumberOfCells() < 0) {
+            throw new IllegalArgumentException("The number of cells is missing.");
+        }
+        //Sorts the special cells by index and then by position in the file, a later cell replaces an earlier one.
+        long[] keys = new long[parser.getNumberOfSpecialCells()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) parser.getIndex(i) << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i + 1 == keys.length || keys[i + 1] >>> 32 != keys[i] >>> 32) {
+                keys[count++] = keys[i];
+            }
+        }
+        int[] indexes = new int[count];
+        byte[] types = new byte[count];
+        int[] parameters = new int[count];
+        String[] descriptions = new String[count];
+        for (int k = 0; k < count; k++) {
+            int i = (int) keys[k];
+            indexes[k] = parser.getIndex(i);
+            types[k] = parser.getType(i);
+            parameters[k] = parser.getParameter(i);
+            descriptions[k] = parser.getDescription(i);
+        }
+        setSpecialCells(parser.getNumberOfCells(), indexes, types, parameters, descriptions);
     }
 
     /**
-     * Creates a new cell of the type TeleportCell.
+     * Creates the start cell and the special cells of the board.
      *
-     * @param line one line of the input file
+     * @param numberOfCells the number of the cells of the board
+     * @param indexes the indexes of the special cells, in ascending order
+     * @param types the types of the special cells, see BoardParser
+     * @param parameters the parameters of the special cells
+     * @param descriptions the descriptions of the special cells
      */
-    private void createTeleportCell(String line) {
-        String[] splitLine = line.split(" ");
-        int index = Integer.parseInt(splitLine[0]);
-        int destinationIndex = Integer.parseInt(splitLine[2]);
-        String description = getDescription(splitLine, 3);
-        this.cells[index] = new TeleportCell(index, destinationIndex, description);
+    void setSpecialCells(int numberOfCells, int[] indexes, byte[] types, int[] parameters, String[] descriptions) {
+        this.numberOfCells = numberOfCells;
+        this.startCell = new StartCell(0);
+        this.specialIndexes = indexes;
+        this.specialTypes = types;
+        this.specialParameters = parameters;
+        this.specialCells = new Cell[indexes.length];
+        for (int k = 0; k < indexes.length; k++) {
+            this.specialCells[k] = createCell(types[k], indexes[k], parameters[k], descriptions[k]);
+        }
     }
 
     /**
-     * Creates a new cell of the type StopCell.
+     * Creates a new special cell.
      *
-     * @param line one line of the input file
+     * @param type the type of the cell, see BoardParser
+     * @param index the index of the cell
+     * @param parameter the number of cells, the number of turns or the destination of the cell
+     * @param description the cell's description
+     * @return the new cell
      */
-    private void createStopCell(String line) {
-        String[] splitLine = line.split(" ");
-        int index = Integer.parseInt(splitLine[0]);
-        int turnsToWait = Integer.parseInt(splitLine[2]);
-        String description = getDescription(splitLine, 3);
-        this.cells[index] = new StopCell(index, turnsToWait, description);
+    private static Cell createCell(byte type, int index, int parameter, String description) {
+        switch (type) {
+            case BoardParser.GO_FORWARD_CELL:
+                return new GoForwardCell(index, parameter, description);
+            case BoardParser.GO_BACK_CELL:
+                return new GoBackCell(index, parameter, description);
+            case BoardParser.DOUBLE_ROLL_CELL:
+                return new DoubleRollCell(index, description);
+            case BoardParser.STOP_CELL:
+                return new StopCell(index, parameter, description);
+            case BoardParser.TELEPORT_CELL:
+                return new TeleportCell(index, parameter, description);
+            default:
+                throw new IllegalArgumentException("Unknown type of cell " + type + ".");
+        }
     }
 
     /**
-     * Creates a new cell of the type DoubleThrowCell.
+     * Gets the cell for the given index.
+     * The regular cells are not stored, a new one is created every time: the games do not use this method for them,
+     * they find the special cells with getSpecialCellPosition and handle the regular cells by their index.
      *
-     * @param line one line of the input file
+     * @param index the index of the cell
+     * @return the cell assigned to the index
      */
-    private void createDoubleRollCell(String line) {
-        String[] splitLine = line.split(" ");
-        int index = Integer.parseInt(splitLine[0]);
-        String description = getDescription(splitLine, 2);
-        this.cells[index] = new DoubleRollCell(index, description);
+    public Cell getCell(int index) {
+        int position = getSpecialCellPosition(index);
+        if (position >= 0) {
+            return this.specialCells[position];
+        }
+        if (index == 0) {
+            return this.startCell;
+        }
+        return new RegularCell(index);
     }
 
     /**
-     * Creates a new cell of the type GoBackCell.
+     * Finds the position of a special cell among the special cells of the board.
      *
-     * @param line one line of the input file
+     * @param index the index of the cell
+     * @return the position of the special cell, or -1 if the cell is not special
      */
-    private void createGoBackCell(String line) {
-        String[] splitLine = line.split(" ");
-        int index = Integer.parseInt(splitLine[0]);
-        int cellsBack = Integer.parseInt(splitLine[2]);
-        String description = getDescription(splitLine, 3);
-        this.cells[index] = new GoBackCell(index, cellsBack, description);
+    public int getSpecialCellPosition(int index) {
+        int position = Arrays.binarySearch(this.specialIndexes, index);
+        return position >= 0 ? position : -1;
     }
 
     /**
-     * Creates a new cell of the type GoForwardCell.
+     * Gets the number of the special cells of the board.
      *
-     * @param line one line of the input file
+     * @return the number of the special cells
      */
-    private void createGoForwardCell(String line) {
-        String[] splitLine = line.split(" ");
-        int index = Integer.parseInt(splitLine[0]);
-        int cellsForward = Integer.parseInt(splitLine[2]);
-        String description = getDescription(splitLine, 3);
-        this.cells[index] = new GoForwardCell(index, cellsForward, description);
+    public int getNumberOfSpecialCells() {
+        return this.specialCells.length;
     }
 
     /**
-     * Skips all the comment lines in the input file.
+     * Gets a special cell, the special cells are sorted by their index.
      *
-     * @param boardInputFileReader the Scanner object assigned to the input file
-     * @param line one line of the input file
+     * @param position the position of the special cell
+     * @return the special cell
      */
-    private void skipsComments(Scanner boardInputFileReader, String line) {
-        while (!line.contains("COMMENTO FINE")) {
-            line = boardInputFileReader.nextLine();
-        }
+    public Cell getSpecialCell(int position) {
+        return this.specialCells[position];
     }
 
     /**
-     * Gets description of the cell from the input file.
+     * Gets the type of a special cell.
      *
-     * @param splitLine one line of the input file as an array
-     * @param offset the position of the start of the cell's description
-     * @return the cell's description
+     * @param position the position of the special cell
+     * @return the type of the cell, see BoardParser
      */
-    private String getDescription(String[] splitLine, int offset) {
-        String description = "";
-        for (int i = offset; i < splitLine.length; ++i) {
-            if (i != splitLine.length - 1) {
-                description += splitLine[i] + " ";
-            }
-            else {
-                description += splitLine[i];
-            }
-        }
-        return description;
+    public byte getSpecialCellType(int position) {
+        return this.specialTypes[position];
     }
 
     /**
-     * Loads the number of the cells from the input file and calls the function responsible for creating the default board.
+     * Gets the parameter of a special cell.
      *
-     * @param line one line of the input file
+     * @param position the position of the special cell
+     * @return the number of cells, the number of turns or the destination of the cell, 0 for the double-roll cells
      */
-    private void loadNumberOfCells(String line) {
-        String[] splitLine = line.split(" ");
-        this.numberOfCells = Integer.parseInt(splitLine[1]);
-        createDefaultBoard();
+    public int getSpecialCellParameter(int position) {
+        return this.specialParameters[position];
     }
 
     /**
-     * Creates the default board which is the basis for the created board.
+     * Gets the precomputed destinations of all the moves on the board.
+     *
+     * @return the move table of the board
      */
-    private void createDefaultBoard() {
-        this.cells = new Cell[numberOfCells + 1];
-        this.cells[0] = new StartCell(0);
-        for (int i =1; i < numberOfCells + 1; ++i) {
-            this.cells[i] = new RegularCell(i);
+    public MoveTable getMoveTable() {
+        return this.moveTable;
+    }
+
+    /**
+     * Sets the move table of the board loaded from the compiled board.
+     *
+     * @param moveTable the move table of the board
+     */
+    void setMoveTable(MoveTable moveTable) {
+        this.moveTable = moveTable;
+    }
+
+    /**
+     * Gets the name of the board.
+     *
+     * @return the name of the input file of the board
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the hash of the content of the input file, which identifies the board with its descriptions.
+     *
+     * @return the SHA-256 hash of the input file
+     * @throws IOException if the input file cannot be read
+     */
+    public byte[] getHash() throws IOException {
+        if (this.hash == null) {
+            this.hash = BoardCache.hashFile(this.name);
         }
+        return this.hash.clone();
     }
 
     /**
-     * Gets all the cells of the board.
+     * Computes a fingerprint of the rules of the board: the number of cells and the index, the type and the parameter
+     * of every special cell. Two boards with the same rules have the same fingerprint, whatever their texts.
      *
-     * @return the array of the board's cells
+     * @return the fingerprint of the board
      */
-    public Cell[] getCells() {
-        return this.cells;
+    public long getFingerprint() {
+        long fingerprint = mix(this.numberOfCells);
+        for (int position = 0; position < this.specialIndexes.length; position++) {
+            fingerprint = mix(fingerprint ^ this.specialIndexes[position]);
+            fingerprint = mix(fingerprint ^ this.specialTypes[position]);
+            fingerprint = mix(fingerprint ^ this.specialParameters[position]);
+        }
+        return fingerprint;
     }
 
     /**
-     * Gets the cell for the given index.
+     * Mixes the bits of a value, with the finalizer of SplitMix64.
      *
-     * @param index the index of the cell
-     * @return the cell assigned to the index
+     * @param value the value to be mixed
+     * @return the mixed value
      */
-    public Cell getCell(int index) {
-        return this.cells[index];
+    private static long mix(long value) {
+        value += 0x9E3779B97F4A7C15L;
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
     }
 
     /**
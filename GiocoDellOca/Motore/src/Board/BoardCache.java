@@ -0,0 +1,387 @@
+/**
+ * Contains: Board Class, BoardCache Class, BoardParser Class, MoveTable Class.
+ */
+package Board;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The class which keeps the compiled boards between the runs.
+ * A compiled board holds the special cells and the move table in a compact binary file, named after the SHA-256 hash
+ * of the content of the input file, so a changed input file never finds the board compiled from its old content.
+ * The compiled board is memory-mapped and copied into the arrays of the board and of the move table in bulk;
+ * if it is missing, of another version, damaged or not consistent with a board, the input file is parsed again
+ * and the board is compiled again.
+ *
+ * The directory of the compiled boards is given by the system property oca.board.cache,
+ * by default "oca-board-cache-" followed by the name of the user in the temporary directory; "off" disables the compiled boards.
+ *
+ * Format, little-endian: the magic bytes "OCAT", the version, the 32 bytes of the hash, the number of cells,
+ * the number of special cells "n", then the indexes, the parameters and the turns to wait of the special cells,
+ * the DICE_FACES * n ends of their chains, their n types, the flat tables of the move table if the board
+ * has at most MoveTable.DENSE_LIMIT cells, the descriptions as a length followed by the UTF-8 bytes,
+ * and the CRC-32 of all the previous bytes.
+ */
+public class BoardCache {
+
+    /**
+     * The magic bytes at the start of every compiled board.
+     */
+    private static final byte[] MAGIC = {'O', 'C', 'A', 'T'};
+
+    /**
+     * The version of the format, a compiled board of another version is compiled again.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The extension of the compiled boards.
+     */
+    private static final String EXTENSION = ".ocat";
+
+    /**
+     * The value of the system property which disables the compiled boards.
+     */
+    private static final String DISABLED = "off";
+
+    /**
+     * The number of bytes of the hash.
+     */
+    private static final int HASH_SIZE = 32;
+
+    /**
+     * The number of bytes of the header: magic, version, hash, number of cells and number of special cells.
+     */
+    private static final int HEADER_SIZE = 4 + 4 + HASH_SIZE + 4 + 4;
+
+    /**
+     * The number of bytes of the trailer: the CRC-32 of the compiled board.
+     */
+    private static final int TRAILER_SIZE = 4;
+
+    /**
+     * The largest part of the input file mapped at once while it is hashed.
+     */
+    private static final int HASH_WINDOW = 1 << 30;
+
+    /**
+     * The path of the compiled board.
+     */
+    private Path file;
+
+    /**
+     * The hash of the content of the input file.
+     */
+    private byte[] hash;
+
+    /**
+     * Constructor of the cache.
+     *
+     * @param file the path of the compiled board
+     * @param hash the hash of the content of the input file
+     */
+    private BoardCache(Path file, byte[] hash) {
+        this.file = file;
+        this.hash = hash;
+    }
+
+    /**
+     * Hashes the input file and finds the path of its compiled board.
+     *
+     * @param textFile the input file
+     * @return the cache of the input file, or null if the compiled boards are disabled
+     * @throws IOException if the input file cannot be read
+     */
+    public static BoardCache open(String textFile) throws IOException {
+        String directory = System.getProperty("oca.board.cache",
+                Paths.get(System.getProperty("java.io.tmpdir"), "oca-board-cache-" + System.getProperty("user.name")).toString());
+        if (directory.equals(DISABLED)) {
+            return null;
+        }
+        byte[] hash = hash(Paths.get("./" + textFile));
+        StringBuilder name = new StringBuilder();
+        for (byte b : hash) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return new BoardCache(Paths.get(directory, name + EXTENSION), hash);
+    }
+
+    /**
+     * Computes the SHA-256 hash of the content of an input file.
+     *
+     * @param textFile the input file
+     * @return the hash of the input file
+     * @throws IOException if the input file cannot be read
+     */
+    public static byte[] hashFile(String textFile) throws IOException {
+        return hash(Paths.get("./" + textFile));
+    }
+
+    /**
+     * Gets the hash of the content of the input file.
+     *
+     * @return the SHA-256 hash of the input file
+     */
+    public byte[] getHash() {
+        return this.hash.clone();
+    }
+
+    /**
+     * Computes the SHA-256 hash of a file, mapping it part by part.
+     *
+     * @param path the path of the file
+     * @return the hash of the file
+     * @throws IOException if the file cannot be read
+     */
+    private static byte[] hash(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += HASH_WINDOW) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(HASH_WINDOW, size - position)));
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Loads the compiled board into the board.
+     * The board is not changed if the compiled board cannot be used: if its checksum is wrong, or if its special cells
+     * are not in ascending order inside the board, or its moves lead out of the board, or its turns to wait are negative.
+     *
+     * @param board the board to be loaded
+     * @return true if the board has been loaded, false if the input file has to be parsed
+     */
+    public boolean load(Board board) {
+        if (!Files.isRegularFile(this.file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE + TRAILER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return false;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int length = (int) channel.size() - TRAILER_SIZE;
+            ByteBuffer content = buffer.duplicate();
+            content.limit(length);
+            CRC32 checksum = new CRC32();
+            checksum.update(content);
+            if (buffer.getInt(length) != (int) checksum.getValue()) {
+                return false;
+            }
+            buffer.limit(length);
+            byte[] magic = new byte[MAGIC.length];
+            byte[] hash = new byte[HASH_SIZE];
+            buffer.get(magic);
+            int version = buffer.getInt();
+            buffer.get(hash);
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION || !Arrays.equals(hash, this.hash)) {
+                return false;
+            }
+            int numberOfCells = buffer.getInt();
+            int numberOfSpecialCells = buffer.getInt();
+            if (numberOfCells < 0 || numberOfCells == Integer.MAX_VALUE || numberOfSpecialCells < 0
+                    || (long) numberOfSpecialCells * (4 * (3 + MoveTable.DICE_FACES) + 1 + 4) > buffer.remaining()) {
+                return false;
+            }
+            int[] indexes = readInts(buffer, numberOfSpecialCells);
+            int[] parameters = readInts(buffer, numberOfSpecialCells);
+            int[] specialTurnsToWait = readInts(buffer, numberOfSpecialCells);
+            int[] chainEnds = readInts(buffer, numberOfSpecialCells * MoveTable.DICE_FACES);
+            byte[] types = new byte[numberOfSpecialCells];
+            buffer.get(types);
+            int[] destinations = null;
+            int[] turnsToWait = null;
+            int boardSize = numberOfCells + 1;
+            if (boardSize <= MoveTable.DENSE_LIMIT) {
+                destinations = readInts(buffer, boardSize * MoveTable.DICE_FACES);
+                turnsToWait = readInts(buffer, boardSize);
+            }
+            if (!isAscending(indexes, numberOfCells) || !isInRange(chainEnds, 0, numberOfCells)
+                    || !isInRange(specialTurnsToWait, 0, Integer.MAX_VALUE)
+                    || (destinations != null && !isInRange(destinations, 0, boardSize))
+                    || (turnsToWait != null && !isInRange(turnsToWait, 0, Integer.MAX_VALUE))) {
+                return false;
+            }
+            String[] descriptions = new String[numberOfSpecialCells];
+            for (int k = 0; k < numberOfSpecialCells; k++) {
+                int descriptionLength = buffer.getInt();
+                if (descriptionLength < 0 || descriptionLength > buffer.remaining()) {
+                    return false;
+                }
+                byte[] description = new byte[descriptionLength];
+                buffer.get(description);
+                descriptions[k] = new String(description, StandardCharsets.UTF_8);
+            }
+            if (buffer.hasRemaining()) {
+                return false;
+            }
+            board.setSpecialCells(numberOfCells, indexes, types, parameters, descriptions);
+            board.setMoveTable(new MoveTable(board, chainEnds, specialTurnsToWait, destinations, turnsToWait));
+            return true;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks that the indexes of the special cells are in strictly ascending order and inside the board,
+     * so the board can find them with a binary search.
+     *
+     * @param indexes the indexes of the special cells
+     * @param numberOfCells the number of the cells of the board
+     * @return true if the indexes are valid
+     */
+    private static boolean isAscending(int[] indexes, int numberOfCells) {
+        int previous = -1;
+        for (int index : indexes) {
+            if (index <= previous || index > numberOfCells) {
+                return false;
+            }
+            previous = index;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that all the values of an array are in a range.
+     *
+     * @param values the values
+     * @param low the smallest valid value
+     * @param high the largest valid value
+     * @return true if all the values are in the range
+     */
+    private static boolean isInRange(int[] values, int low, int high) {
+        for (int value : values) {
+            if (value < low || value > high) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads an array of ints from the compiled board in bulk.
+     *
+     * @param buffer the mapped compiled board
+     * @param length the number of ints
+     * @return the array of ints
+     * @throws BufferUnderflowException if the compiled board is too short
+     */
+    private static int[] readInts(MappedByteBuffer buffer, int length) {
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * length);
+        return values;
+    }
+
+    /**
+     * Compiles the board for the next runs.
+     * The compiled board is written to a temporary file and then renamed, so another run never reads it half written.
+     * The board is not compiled if it cannot be written or does not fit in one mapping, the next run parses the input file again.
+     *
+     * @param board the loaded board, with its move table
+     */
+    public void store(Board board) {
+        MoveTable moveTable = board.getMoveTable();
+        int numberOfCells = board.getNumberOfCells();
+        int numberOfSpecialCells = board.getNumberOfSpecialCells();
+        int boardSize = numberOfCells + 1;
+        byte[][] descriptions = new byte[numberOfSpecialCells][];
+        long size = HEADER_SIZE + TRAILER_SIZE + (long) numberOfSpecialCells * (4 * (3 + MoveTable.DICE_FACES) + 1 + 4);
+        if (boardSize <= MoveTable.DENSE_LIMIT) {
+            size += 4L * boardSize * (MoveTable.DICE_FACES + 1);
+        }
+        for (int k = 0; k < numberOfSpecialCells; k++) {
+            descriptions[k] = board.getSpecialCell(k).getDescription().getBytes(StandardCharsets.UTF_8);
+            size += descriptions[k].length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            return;
+        }
+        Path temporary = null;
+        try {
+            Files.createDirectories(this.file.getParent());
+            temporary = Files.createTempFile(this.file.getParent(), "board", ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.put(MAGIC);
+                buffer.putInt(VERSION);
+                buffer.put(this.hash);
+                buffer.putInt(numberOfCells);
+                buffer.putInt(numberOfSpecialCells);
+                for (int k = 0; k < numberOfSpecialCells; k++) {
+                    buffer.putInt(board.getSpecialCell(k).getIndex());
+                }
+                for (int k = 0; k < numberOfSpecialCells; k++) {
+                    buffer.putInt(board.getSpecialCellParameter(k));
+                }
+                writeInts(buffer, moveTable.getSpecialTurnsToWait());
+                writeInts(buffer, moveTable.getChainEnds());
+                for (int k = 0; k < numberOfSpecialCells; k++) {
+                    buffer.put(board.getSpecialCellType(k));
+                }
+                if (boardSize <= MoveTable.DENSE_LIMIT) {
+                    writeInts(buffer, moveTable.getDestinations());
+                    writeInts(buffer, moveTable.getTurnsToWaitTable());
+                }
+                for (byte[] description : descriptions) {
+                    buffer.putInt(description.length);
+                    buffer.put(description);
+                }
+                ByteBuffer content = buffer.duplicate();
+                content.flip();
+                CRC32 checksum = new CRC32();
+                checksum.update(content);
+                buffer.putInt((int) checksum.getValue());
+            }
+            try {
+                Files.move(temporary, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            //The compiled board is only a shortcut, the next run parses the input file again.
+            try {
+                if (temporary != null) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Writes an array of ints to the compiled board in bulk.
+     *
+     * @param buffer the mapped compiled board
+     * @param values the array of ints
+     */
+    private static void writeInts(MappedByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+}
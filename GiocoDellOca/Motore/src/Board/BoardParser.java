@@ -0,0 +1,639 @@
+/**
+ * Contains: Board Class, BoardCache Class, BoardParser Class, MoveTable Class.
+ */
+package Board;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The class which parses the input file of a board in a single pass over the memory-mapped file.
+ * Every line is split into tokens separated by one space and the keywords are matched exactly
+ * against the second token, so a description containing a keyword does not change the type of the cell.
+ * The numbers are parsed from the bytes without creating strings.
+ *
+ * Large files are split into chunks at line boundaries and the chunks are parsed in parallel:
+ * every chunk records its lines as events in the order of the file, and the events are then replayed in order
+ * to skip the comments and to apply the last number of cells, as the lines would be read one after the other.
+ */
+public class BoardParser {
+
+    /**
+     * The type of the go-forward cells, "index AVANTI cells description".
+     */
+    public static final byte GO_FORWARD_CELL = 1;
+
+    /**
+     * The type of the go-back cells, "index INDIETRO cells description".
+     */
+    public static final byte GO_BACK_CELL = 2;
+
+    /**
+     * The type of the double-roll cells, "index DOPPIO description".
+     */
+    public static final byte DOUBLE_ROLL_CELL = 3;
+
+    /**
+     * The type of the stop cells, "index FERMO turns description".
+     */
+    public static final byte STOP_CELL = 4;
+
+    /**
+     * The type of the teleport cells, "index VAI destination description".
+     */
+    public static final byte TELEPORT_CELL = 5;
+
+    /**
+     * The event of the line "CASELLE number".
+     */
+    private static final byte NUMBER_OF_CELLS = 6;
+
+    /**
+     * The event of the line starting a comment.
+     */
+    private static final byte COMMENT_START = 7;
+
+    /**
+     * The event of the line ending a comment.
+     */
+    private static final byte COMMENT_END = 8;
+
+    /**
+     * The event of a line which looks like a cell but cannot be parsed, it is an error only outside the comments.
+     */
+    private static final byte MALFORMED = 9;
+
+    /**
+     * The first line of every board file.
+     */
+    private static final byte[] HEADER = bytes("OCA TAVOLA");
+
+    /**
+     * The keywords of the cells, at the position of their type.
+     */
+    private static final byte[][] KEYWORDS = {null, bytes("AVANTI"), bytes("INDIETRO"), bytes("DOPPIO"), bytes("FERMO"), bytes("VAI")};
+
+    /**
+     * The keyword of the number of cells.
+     */
+    private static final byte[] CELLS = bytes("CASELLE");
+
+    /**
+     * The first keyword of the comment lines.
+     */
+    private static final byte[] COMMENT = bytes("COMMENTO");
+
+    /**
+     * The second keyword of the line starting a comment.
+     */
+    private static final byte[] START = bytes("INIZIO");
+
+    /**
+     * The second keyword of the line ending a comment.
+     */
+    private static final byte[] END = bytes("FINE");
+
+    /**
+     * The nominal size of a chunk parsed by one task.
+     */
+    private static final long CHUNK_SIZE = 1L << 26;
+
+    /**
+     * The size of the window mapped to find a line boundary.
+     */
+    private static final int WINDOW_SIZE = 1 << 16;
+
+    /**
+     * True if the first line of the file is the header of a board.
+     */
+    private boolean boardFile;
+
+    /**
+     * The number of the cells of the board, -1 if the file does not define it.
+     */
+    private int numberOfCells;
+
+    /**
+     * The number of the special cells.
+     */
+    private int numberOfSpecialCells;
+
+    /**
+     * The indexes of the special cells, in the order of the file.
+     */
+    private int[] indexes;
+
+    /**
+     * The types of the special cells.
+     */
+    private byte[] types;
+
+    /**
+     * The parameters of the special cells, 0 for the double-roll cells.
+     */
+    private int[] parameters;
+
+    /**
+     * The descriptions of the special cells.
+     */
+    private String[] descriptions;
+
+    /**
+     * Constructor of the parser.
+     * Parses the whole input file, or only its first line if it is not the header of a board.
+     *
+     * @param textFile the input file
+     * @throws IOException if the input file cannot be read
+     * @throws IllegalArgumentException if the input file has a wrong format
+     */
+    public BoardParser(String textFile) throws IOException {
+        this.numberOfCells = -1;
+        this.numberOfSpecialCells = 0;
+        this.indexes = new int[16];
+        this.types = new byte[16];
+        this.parameters = new int[16];
+        this.descriptions = new String[16];
+        try (FileChannel channel = FileChannel.open(Paths.get("./" + textFile), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long firstLine = this.checkHeader(channel, size);
+            this.boardFile = firstLine >= 0;
+            if (!this.boardFile) {
+                return;
+            }
+            long[] boundaries = findBoundaries(channel, firstLine, size);
+            Chunk[] chunks = IntStream.range(0, boundaries.length - 1).parallel()
+                    .mapToObj(i -> Chunk.parse(channel, boundaries[i], boundaries[i + 1]))
+                    .toArray(Chunk[]::new);
+            for (Chunk chunk : chunks) {
+                if (chunk.failure != null) {
+                    throw chunk.failure;
+                }
+            }
+            this.replay(chunks);
+        }
+    }
+
+    /**
+     * Encodes a keyword.
+     *
+     * @param keyword the keyword
+     * @return the bytes of the keyword
+     */
+    private static byte[] bytes(String keyword) {
+        return keyword.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Checks that the first line of the file is the header of a board.
+     *
+     * @param channel the channel of the input file
+     * @param size the size of the input file
+     * @return the position of the second line, or -1 if the first line is not the header
+     * @throws IOException if the input file cannot be read
+     */
+    private long checkHeader(FileChannel channel, long size) throws IOException {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW_SIZE));
+        int end = 0;
+        while (end < window.limit() && window.get(end) != '\n') {
+            end++;
+        }
+        int length = end > 0 && window.get(end - 1) == '\r' ? end - 1 : end;
+        boolean matches = length == HEADER.length;
+        for (int i = 0; matches && i < length; i++) {
+            matches = window.get(i) == HEADER[i];
+        }
+        if (!matches) {
+            return -1;
+        }
+        return Math.min(size, end + 1);
+    }
+
+    /**
+     * Splits the file into chunks which start at the beginning of a line.
+     *
+     * @param channel the channel of the input file
+     * @param start the position of the first line to be parsed
+     * @param size the size of the input file
+     * @return the positions of the starts of the chunks, followed by the size of the file
+     * @throws IOException if the input file cannot be read
+     */
+    private static long[] findBoundaries(FileChannel channel, long start, long size) throws IOException {
+        long[] boundaries = new long[(int) ((size - start) / CHUNK_SIZE) + 2];
+        int count = 0;
+        boundaries[count++] = start;
+        long nominal = start + CHUNK_SIZE;
+        while (nominal < size) {
+            //The chunk starts after the first line break found from the nominal position.
+            long position = nominal - 1;
+            long boundary = size;
+            while (position < size && boundary == size) {
+                int length = (int) Math.min(WINDOW_SIZE, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        boundary = position + i + 1;
+                        break;
+                    }
+                }
+                position += length;
+            }
+            if (boundary >= size) {
+                break;
+            }
+            boundaries[count++] = boundary;
+            nominal = Math.max(nominal + CHUNK_SIZE, boundary + 1);
+        }
+        boundaries[count++] = size;
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    /**
+     * Replays the events of the chunks in the order of the file.
+     * The lines of the comments are skipped, and every line with the number of cells starts a new board.
+     *
+     * @param chunks the parsed chunks
+     * @throws IllegalArgumentException if a line outside the comments is wrong or a comment never ends
+     */
+    private void replay(Chunk[] chunks) {
+        boolean inComment = false;
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++) {
+                byte kind = chunk.kinds[i];
+                if (inComment) {
+                    inComment = kind != COMMENT_END;
+                }
+                else if (kind == COMMENT_START) {
+                    inComment = true;
+                }
+                else if (kind == NUMBER_OF_CELLS) {
+                    this.numberOfCells = chunk.values[i];
+                    this.numberOfSpecialCells = 0;
+                }
+                else if (kind == MALFORMED) {
+                    throw new IllegalArgumentException("Wrong line of a cell.");
+                }
+                else if (kind != COMMENT_END) {
+                    this.addSpecialCell(chunk.values[i], kind, chunk.parameters[i], chunk.descriptions[i]);
+                }
+            }
+        }
+        if (inComment) {
+            throw new IllegalArgumentException("The comment never ends.");
+        }
+    }
+
+    /**
+     * Adds a special cell to the board.
+     *
+     * @param index the index of the cell
+     * @param type the type of the cell
+     * @param parameter the parameter of the cell
+     * @param description the description of the cell
+     * @throws IllegalArgumentException if the cell is outside the board
+     */
+    private void addSpecialCell(int index, byte type, int parameter, String description) {
+        if (index < 0 || index > this.numberOfCells) {
+            throw new IllegalArgumentException("The cell " + index + " is outside the board.");
+        }
+        if (this.numberOfSpecialCells == this.indexes.length) {
+            int capacity = 2 * this.indexes.length;
+            this.indexes = Arrays.copyOf(this.indexes, capacity);
+            this.types = Arrays.copyOf(this.types, capacity);
+            this.parameters = Arrays.copyOf(this.parameters, capacity);
+            this.descriptions = Arrays.copyOf(this.descriptions, capacity);
+        }
+        this.indexes[this.numberOfSpecialCells] = index;
+        this.types[this.numberOfSpecialCells] = type;
+        this.parameters[this.numberOfSpecialCells] = parameter;
+        this.descriptions[this.numberOfSpecialCells] = description;
+        this.numberOfSpecialCells++;
+    }
+
+    /**
+     * Checks if the first line of the file is the header of a board.
+     *
+     * @return true if the file is a board
+     */
+    public boolean isBoardFile() {
+        return this.boardFile;
+    }
+
+    /**
+     * Gets the number of the cells of the board.
+     *
+     * @return the number of the cells, -1 if the file does not define it
+     */
+    public int getNumberOfCells() {
+        return this.numberOfCells;
+    }
+
+    /**
+     * Gets the number of the special cells, in the order of the file, a later cell replaces an earlier one.
+     *
+     * @return the number of the special cells
+     */
+    public int getNumberOfSpecialCells() {
+        return this.numberOfSpecialCells;
+    }
+
+    /**
+     * Gets the index of a special cell.
+     *
+     * @param i the position of the special cell in the file
+     * @return the index of the cell
+     */
+    public int getIndex(int i) {
+        return this.indexes[i];
+    }
+
+    /**
+     * Gets the type of a special cell.
+     *
+     * @param i the position of the special cell in the file
+     * @return the type of the cell
+     */
+    public byte getType(int i) {
+        return this.types[i];
+    }
+
+    /**
+     * Gets the parameter of a special cell.
+     *
+     * @param i the position of the special cell in the file
+     * @return the parameter of the cell, 0 for the double-roll cells
+     */
+    public int getParameter(int i) {
+        return this.parameters[i];
+    }
+
+    /**
+     * Gets the description of a special cell.
+     *
+     * @param i the position of the special cell in the file
+     * @return the description of the cell
+     */
+    public String getDescription(int i) {
+        return this.descriptions[i];
+    }
+
+    /**
+     * The class which holds the events of the lines of one chunk.
+     */
+    private static class Chunk {
+
+        /**
+         * The kinds of the events, the types of the cells or the other events.
+         */
+        private byte[] kinds;
+
+        /**
+         * The index of the cell or the number of cells of each event.
+         */
+        private int[] values;
+
+        /**
+         * The parameter of the cell of each event.
+         */
+        private int[] parameters;
+
+        /**
+         * The description of the cell of each event.
+         */
+        private String[] descriptions;
+
+        /**
+         * The number of events.
+         */
+        private int count;
+
+        /**
+         * The error which stopped the parsing of the chunk, or null.
+         */
+        private IOException failure;
+
+        /**
+         * The mapped bytes of the chunk.
+         */
+        private MappedByteBuffer bytes;
+
+        /**
+         * Constructor of the chunk.
+         */
+        private Chunk() {
+            this.kinds = new byte[16];
+            this.values = new int[16];
+            this.parameters = new int[16];
+            this.descriptions = new String[16];
+            this.count = 0;
+        }
+
+        /**
+         * Maps and parses a chunk of the file.
+         *
+         * @param channel the channel of the input file
+         * @param start the position of the first line of the chunk
+         * @param end the position after the last line of the chunk
+         * @return the parsed chunk, with its failure if it cannot be read
+         */
+        static Chunk parse(FileChannel channel, long start, long end) {
+            Chunk chunk = new Chunk();
+            try {
+                chunk.bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                int length = (int) (end - start);
+                int lineStart = 0;
+                while (lineStart < length) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < length && chunk.bytes.get(lineEnd) != '\n') {
+                        lineEnd++;
+                    }
+                    int contentEnd = lineEnd > lineStart && chunk.bytes.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                    chunk.parseLine(lineStart, contentEnd);
+                    lineStart = lineEnd + 1;
+                }
+            } catch (IOException e) {
+                chunk.failure = e;
+            }
+            chunk.bytes = null;
+            return chunk;
+        }
+
+        /**
+         * Parses one line and records its event, the lines which are neither cells nor keywords are ignored.
+         *
+         * @param start the position of the first byte of the line
+         * @param end the position after the last byte of the line
+         */
+        private void parseLine(int start, int end) {
+            int first = this.tokenEnd(start, end);
+            if (first == end) {
+                return;
+            }
+            int second = this.tokenEnd(first + 1, end);
+            if (this.matches(start, first, COMMENT)) {
+                if (this.matches(first + 1, second, START)) {
+                    this.add(COMMENT_START, 0, 0, null);
+                }
+                else if (this.matches(first + 1, second, END)) {
+                    this.add(COMMENT_END, 0, 0, null);
+                }
+                return;
+            }
+            if (this.matches(start, first, CELLS)) {
+                long value = this.parseNumber(first + 1, second);
+                if (value == Long.MIN_VALUE || value < 0) {
+                    this.add(MALFORMED, 0, 0, null);
+                }
+                else {
+                    this.add(NUMBER_OF_CELLS, (int) value, 0, null);
+                }
+                return;
+            }
+            byte type = 0;
+            for (byte t = GO_FORWARD_CELL; t <= TELEPORT_CELL; t++) {
+                if (this.matches(first + 1, second, KEYWORDS[t])) {
+                    type = t;
+                }
+            }
+            if (type == 0) {
+                return;
+            }
+            long index = this.parseNumber(start, first);
+            long parameter = 0;
+            int descriptionStart = second + 1;
+            if (type != DOUBLE_ROLL_CELL) {
+                int third = second < end ? this.tokenEnd(second + 1, end) : end;
+                parameter = this.parseNumber(second + 1, third);
+                descriptionStart = third + 1;
+            }
+            if (index == Long.MIN_VALUE || parameter == Long.MIN_VALUE) {
+                this.add(MALFORMED, 0, 0, null);
+                return;
+            }
+            //The description loses its trailing spaces.
+            int descriptionEnd = end;
+            while (descriptionEnd > descriptionStart && this.bytes.get(descriptionEnd - 1) == ' ') {
+                descriptionEnd--;
+            }
+            this.add(type, (int) index, (int) parameter, this.text(descriptionStart, descriptionEnd));
+        }
+
+        /**
+         * Finds the end of the token starting at the given position.
+         *
+         * @param start the position of the token
+         * @param end the end of the line
+         * @return the position of the space after the token, or the end of the line
+         */
+        private int tokenEnd(int start, int end) {
+            int position = start;
+            while (position < end && this.bytes.get(position) != ' ') {
+                position++;
+            }
+            return position;
+        }
+
+        /**
+         * Checks if a token is exactly the keyword.
+         *
+         * @param start the position of the token
+         * @param end the position after the token
+         * @param keyword the keyword
+         * @return true if the token is the keyword
+         */
+        private boolean matches(int start, int end, byte[] keyword) {
+            if (end - start != keyword.length) {
+                return false;
+            }
+            for (int i = 0; i < keyword.length; i++) {
+                if (this.bytes.get(start + i) != keyword[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Parses an integer with an optional sign.
+         *
+         * @param start the position of the token
+         * @param end the position after the token
+         * @return the integer, or Long.MIN_VALUE if the token is not an integer
+         */
+        private long parseNumber(int start, int end) {
+            if (start >= end) {
+                return Long.MIN_VALUE;
+            }
+            boolean negative = false;
+            int position = start;
+            byte sign = this.bytes.get(position);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                position++;
+                if (position == end) {
+                    return Long.MIN_VALUE;
+                }
+            }
+            long value = 0;
+            for (; position < end; position++) {
+                int digit = this.bytes.get(position) - '0';
+                if (digit < 0 || digit > 9) {
+                    return Long.MIN_VALUE;
+                }
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE + 1L) {
+                    return Long.MIN_VALUE;
+                }
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+                return Long.MIN_VALUE;
+            }
+            return value;
+        }
+
+        /**
+         * Decodes a part of the line.
+         *
+         * @param start the position of the first byte
+         * @param end the position after the last byte
+         * @return the decoded text, empty if the part is empty
+         */
+        private String text(int start, int end) {
+            if (start >= end) {
+                return "";
+            }
+            byte[] text = new byte[end - start];
+            this.bytes.get(start, text);
+            return new String(text, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Records an event.
+         *
+         * @param kind the kind of the event
+         * @param value the index of the cell or the number of cells
+         * @param parameter the parameter of the cell
+         * @param description the description of the cell
+         */
+        private void add(byte kind, int value, int parameter, String description) {
+            if (this.count == this.kinds.length) {
+                int capacity = 2 * this.kinds.length;
+                this.kinds = Arrays.copyOf(this.kinds, capacity);
+                this.values = Arrays.copyOf(this.values, capacity);
+                this.parameters = Arrays.copyOf(this.parameters, capacity);
+                this.descriptions = Arrays.copyOf(this.descriptions, capacity);
+            }
+            this.kinds[this.count] = kind;
+            this.values[this.count] = value;
+            this.parameters[this.count] = parameter;
+            this.descriptions[this.count] = description;
+            this.count++;
+        }
+    }
+}
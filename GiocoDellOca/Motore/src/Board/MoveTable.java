@@ -0,0 +1,340 @@
+/**
+ * Contains: Board Class, BoardCache Class, BoardParser Class, MoveTable Class.
+ */
+package Board;
+
+import Cells.Cell;
+import Cells.StopCell;
+
+import java.util.Arrays;
+
+/**
+ * The class which holds the precomputed result of every possible move on the board.
+ * For each starting cell and each dice result it gives the index of the cell in which the turn terminates,
+ * after the bounce-back from the end of the board and after following the whole chain of special cells.
+ *
+ * Only the chains starting in the special cells are stored, the chain of a regular cell terminates in the cell itself.
+ * The flat tables of all the destinations are built together with the move table for the boards up to DENSE_LIMIT cells,
+ * for the larger boards the destinations are computed from the chains and there are no flat tables.
+ */
+public class MoveTable {
+
+    /**
+     * The number of faces of the dice.
+     */
+    public static final int DICE_FACES = 6;
+
+    /**
+     * The largest board whose flat tables are built together with the move table.
+     */
+    public static final int DENSE_LIMIT = 1 << 20;
+
+    /**
+     * The marker of a chain which has not been followed yet while the table is built.
+     */
+    private static final int UNKNOWN = -2;
+
+    /**
+     * The marker of a chain which is being followed while the table is built.
+     */
+    private static final int IN_PROGRESS = -1;
+
+    /**
+     * The board of the table.
+     */
+    private Board board;
+
+    /**
+     * The number of the cells of the board.
+     */
+    private int numberOfCells;
+
+    /**
+     * The index reached by the winning player, it is stored in the table for the winning moves.
+     */
+    private int boardSize;
+
+    /**
+     * The cell in which the chain of special cells terminates, for each special cell and each dice result.
+     * The entry for the special cell at position "k" and the dice "dice" is at k * DICE_FACES + dice - 1.
+     */
+    private int[] chainEnds;
+
+    /**
+     * The number of turns to wait after the turn terminates in each special cell.
+     */
+    private int[] specialTurnsToWait;
+
+    /**
+     * The largest number of turns to wait of the board.
+     */
+    private int maximumTurnsToWait;
+
+    /**
+     * The destinations of all the moves, the entry for the cell "from" and the dice "dice" is at from * DICE_FACES + dice - 1,
+     * or null on a board larger than DENSE_LIMIT.
+     */
+    private final int[] destinations;
+
+    /**
+     * The number of turns to wait after the turn terminates in every cell, or null on a board larger than DENSE_LIMIT.
+     */
+    private final int[] turnsToWait;
+
+    /**
+     * Constructor of the move table.
+     * Follows all the chains of special cells and fails if any of them never terminates or leaves the board.
+     *
+     * @param board the board
+     * @throws IllegalStateException if a chain of special cells is a cycle or leads out of the board
+     */
+    public MoveTable(Board board) {
+        this.board = board;
+        this.numberOfCells = board.getNumberOfCells();
+        this.boardSize = this.numberOfCells + 1;
+        int numberOfSpecialCells = board.getNumberOfSpecialCells();
+        this.chainEnds = new int[numberOfSpecialCells * DICE_FACES];
+        this.specialTurnsToWait = new int[numberOfSpecialCells];
+        this.maximumTurnsToWait = 0;
+        Arrays.fill(this.chainEnds, UNKNOWN);
+        for (int k = 0; k < numberOfSpecialCells; k++) {
+            Cell cell = board.getSpecialCell(k);
+            if (cell instanceof StopCell) {
+                this.specialTurnsToWait[k] = ((StopCell) cell).getNumberOfTurnsToWait();
+                this.maximumTurnsToWait = Math.max(this.maximumTurnsToWait, this.specialTurnsToWait[k]);
+            }
+        }
+        for (int dice = 1; dice <= DICE_FACES; dice++) {
+            for (int k = 0; k < numberOfSpecialCells; k++) {
+                this.resolveChain(k, dice);
+            }
+        }
+        if (this.boardSize <= DENSE_LIMIT) {
+            this.destinations = this.buildDestinations();
+            this.turnsToWait = this.buildTurnsToWait();
+        }
+        else {
+            this.destinations = null;
+            this.turnsToWait = null;
+        }
+    }
+
+    /**
+     * Constructor of the move table compiled by an earlier run, see BoardCache.
+     *
+     * @param board the board
+     * @param chainEnds the ends of the chains of the special cells
+     * @param specialTurnsToWait the number of turns to wait in the special cells
+     * @param destinations the destinations of all the moves, or null on a board larger than DENSE_LIMIT
+     * @param turnsToWait the number of turns to wait in every cell, or null on a board larger than DENSE_LIMIT
+     */
+    MoveTable(Board board, int[] chainEnds, int[] specialTurnsToWait, int[] destinations, int[] turnsToWait) {
+        this.board = board;
+        this.numberOfCells = board.getNumberOfCells();
+        this.boardSize = this.numberOfCells + 1;
+        this.chainEnds = chainEnds;
+        this.specialTurnsToWait = specialTurnsToWait;
+        this.maximumTurnsToWait = 0;
+        for (int turns : specialTurnsToWait) {
+            this.maximumTurnsToWait = Math.max(this.maximumTurnsToWait, turns);
+        }
+        this.destinations = destinations;
+        this.turnsToWait = turnsToWait;
+    }
+
+    /**
+     * Follows the chain of special cells which starts in the given special cell and stores where it terminates.
+     * The chain terminates in the first cell which sends the player to itself.
+     *
+     * @param start the position of the first cell of the chain among the special cells
+     * @param dice the result of the dice roll
+     * @throws IllegalStateException if the chain is a cycle or leads out of the board
+     */
+    private void resolveChain(int start, int dice) {
+        if (this.chainEnds[start * DICE_FACES + dice - 1] != UNKNOWN) {
+            return;
+        }
+        //Marks the cells of the chain until a resolved, a regular or a terminal cell is found.
+        int index = this.board.getSpecialCell(start).getIndex();
+        int position = start;
+        int end;
+        while (true) {
+            if (position < 0) {
+                end = index;
+                break;
+            }
+            int slot = position * DICE_FACES + dice - 1;
+            if (this.chainEnds[slot] == IN_PROGRESS) {
+                throw new IllegalStateException("the chain of cells starting at cell "
+                        + this.board.getSpecialCell(start).getIndex() + " never terminates");
+            }
+            if (this.chainEnds[slot] != UNKNOWN) {
+                end = this.chainEnds[slot];
+                break;
+            }
+            int next = this.board.getSpecialCell(position).handleMove(dice);
+            if (next < 0 || next > this.numberOfCells) {
+                throw new IllegalStateException("the cell " + index + " leads out of the board");
+            }
+            if (next == index) {
+                end = index;
+                this.chainEnds[slot] = end;
+                break;
+            }
+            this.chainEnds[slot] = IN_PROGRESS;
+            index = next;
+            position = this.board.getSpecialCellPosition(index);
+        }
+        //Stores the end of the chain for all the marked cells.
+        position = start;
+        while (position >= 0 && this.chainEnds[position * DICE_FACES + dice - 1] == IN_PROGRESS) {
+            this.chainEnds[position * DICE_FACES + dice - 1] = end;
+            position = this.board.getSpecialCellPosition(this.board.getSpecialCell(position).handleMove(dice));
+        }
+    }
+
+    /**
+     * Gets the cell in which the chain of special cells terminates.
+     *
+     * @param index the index of the cell reached with the dice roll
+     * @param dice the result of the dice roll
+     * @return the index of the cell in which the turn terminates
+     */
+    public int getChainEnd(int index, int dice) {
+        int position = this.board.getSpecialCellPosition(index);
+        return position >= 0 ? this.chainEnds[position * DICE_FACES + dice - 1] : index;
+    }
+
+    /**
+     * Gets the destination of a move.
+     *
+     * @param from the index of the cell where the player starts the turn
+     * @param dice the result of the dice roll
+     * @return the index of the cell in which the turn terminates, or the board size if the player wins
+     */
+    public int getDestination(int from, int dice) {
+        if (this.destinations != null) {
+            return this.destinations[from * DICE_FACES + dice - 1];
+        }
+        return this.computeDestination(from, dice);
+    }
+
+    /**
+     * Computes the destination of a move from the chains of special cells.
+     *
+     * @param from the index of the cell where the player starts the turn
+     * @param dice the result of the dice roll
+     * @return the index of the cell in which the turn terminates, or the board size if the player wins
+     */
+    private int computeDestination(int from, int dice) {
+        int afterRollIndex = from + dice;
+        //If the player has won.
+        if (afterRollIndex == this.boardSize) {
+            return this.boardSize;
+        }
+        //If the player is out of board.
+        if (afterRollIndex > this.boardSize) {
+            afterRollIndex = 2 * this.boardSize - afterRollIndex;
+        }
+        return this.getChainEnd(afterRollIndex, dice);
+    }
+
+    /**
+     * Builds the flat array of the destinations of all the moves.
+     * The entry for the cell "from" and the dice "dice" is at from * DICE_FACES + dice - 1.
+     *
+     * @return the array of the destinations
+     */
+    private int[] buildDestinations() {
+        int[] table = new int[this.boardSize * DICE_FACES];
+        for (int from = 0; from < this.boardSize; from++) {
+            for (int dice = 1; dice <= DICE_FACES; dice++) {
+                table[from * DICE_FACES + dice - 1] = this.computeDestination(from, dice);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Gets the flat array of the destinations of all the moves.
+     * The entry for the cell "from" and the dice "dice" is at from * DICE_FACES + dice - 1.
+     *
+     * @return the array of the destinations, or null on a board larger than DENSE_LIMIT
+     */
+    public int[] getDestinations() {
+        return this.destinations;
+    }
+
+    /**
+     * Gets the number of turns to wait after the turn terminates in the cell.
+     *
+     * @param index the index of the cell
+     * @return the number of turns to wait, 0 for all the cells except the stop cells
+     */
+    public int getTurnsToWait(int index) {
+        if (this.turnsToWait != null) {
+            return this.turnsToWait[index];
+        }
+        int position = this.board.getSpecialCellPosition(index);
+        return position >= 0 ? this.specialTurnsToWait[position] : 0;
+    }
+
+    /**
+     * Builds the array of the number of turns to wait after the turn terminates in each cell.
+     *
+     * @return the array of the turns to wait
+     */
+    private int[] buildTurnsToWait() {
+        int[] table = new int[this.boardSize];
+        for (int k = 0; k < this.specialTurnsToWait.length; k++) {
+            table[this.board.getSpecialCell(k).getIndex()] = this.specialTurnsToWait[k];
+        }
+        return table;
+    }
+
+    /**
+     * Gets the array of the number of turns to wait after the turn terminates in each cell.
+     *
+     * @return the array of the turns to wait, or null on a board larger than DENSE_LIMIT
+     */
+    public int[] getTurnsToWaitTable() {
+        return this.turnsToWait;
+    }
+
+    /**
+     * Gets the ends of the chains of the special cells.
+     * The entry for the special cell at position "k" and the dice "dice" is at k * DICE_FACES + dice - 1.
+     *
+     * @return the array of the ends of the chains
+     */
+    int[] getChainEnds() {
+        return this.chainEnds;
+    }
+
+    /**
+     * Gets the number of turns to wait in each special cell.
+     *
+     * @return the array of the turns to wait of the special cells
+     */
+    int[] getSpecialTurnsToWait() {
+        return this.specialTurnsToWait;
+    }
+
+    /**
+     * Gets the largest number of turns to wait of the board.
+     *
+     * @return the largest number of turns to wait
+     */
+    public int getMaximumTurnsToWait() {
+        return this.maximumTurnsToWait;
+    }
+
+    /**
+     * Gets the index reached by the winning player.
+     *
+     * @return the board size
+     */
+    public int getBoardSize() {
+        return this.boardSize;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Contains: AnimationWriter Class, Cell Interface, StartCell Class, RegularCell Class, DoubleRollCell Class, GoBackCell Class, GoForwardCell Class, StopCell Class, TeleportCell Class.
+ */
+package Cells;
+
+import java.io.IOException;
+
+/**
+ * The class which writes the commands of the animation directly into an Appendable.
+ * The numbers are written digit by digit, so writing a command creates no strings.
+ */
+public final class AnimationWriter {
+
+    /**
+     * The command which moves the player through the listed cells.
+     */
+    public static final String MOVE = "SPOSTA";
+
+    /**
+     * The command which shows a message.
+     */
+    public static final String MESSAGE = "MESSAGGIO";
+
+    /**
+     * The class holds only static methods.
+     */
+    private AnimationWriter() {
+    }
+
+    /**
+     * Writes a non-negative integer in decimal digits.
+     *
+     * @param out the destination of the animation
+     * @param value the non-negative integer
+     * @throws IOException if the destination cannot be written
+     */
+    public static void appendInt(Appendable out, int value) throws IOException {
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    /**
+     * Writes the cells from the first to the last in ascending order, each preceded by a space.
+     * Nothing is written if the first cell is after the last one.
+     *
+     * @param out the destination of the animation
+     * @param first the index of the first cell
+     * @param last the index of the last cell
+     * @throws IOException if the destination cannot be written
+     */
+    public static void appendAscending(Appendable out, int first, int last) throws IOException {
+        for (int i = first; i <= last; i++) {
+            out.append(' ');
+            appendInt(out, i);
+        }
+    }
+
+    /**
+     * Writes the cells from the first to the last in descending order, each preceded by a space.
+     * Nothing is written if the first cell is before the last one.
+     *
+     * @param out the destination of the animation
+     * @param first the index of the first cell
+     * @param last the index of the last cell
+     * @throws IOException if the destination cannot be written
+     */
+    public static void appendDescending(Appendable out, int first, int last) throws IOException {
+        for (int i = first; i >= last; i--) {
+            out.append(' ');
+            appendInt(out, i);
+        }
+    }
+
+    /**
+     * Writes the move of a player who arrived to a cell having rolled the dice within the length of the board.
+     *
+     * @param out the destination of the animation
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param index the index of the reached cell
+     * @throws IOException if the destination cannot be written
+     */
+    public static void appendMoveWithin(Appendable out, int fromIndex, int index) throws IOException {
+        out.append(MOVE);
+        appendAscending(out, fromIndex + 1, index);
+        out.append('\n');
+    }
+
+    /**
+     * Writes the move of a player who bounced back from the end of the board.
+     *
+     * @param out the destination of the animation
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     * @param index the index of the reached cell
+     * @throws IOException if the destination cannot be written
+     */
+    public static void appendMoveOut(Appendable out, int fromIndex, int boardSize, int index) throws IOException {
+        out.append(MOVE);
+        appendAscending(out, fromIndex + 1, boardSize);
+        appendDescending(out, boardSize - 1, index);
+        out.append('\n');
+    }
+
+    /**
+     * Writes the message of a regular cell, which is empty.
+     *
+     * @param out the destination of the animation
+     * @param index the index of the cell
+     * @throws IOException if the destination cannot be written
+     */
+    public static void appendRegularCell(Appendable out, int index) throws IOException {
+        out.append(MESSAGE).append(" La casella ");
+        appendInt(out, index);
+        out.append(" e' vuota\n");
+    }
+
+    /**
+     * Writes a message line.
+     *
+     * @param out the destination of the animation
+     * @param message the message
+     * @throws IOException if the destination cannot be written
+     */
+    public static void appendMessage(Appendable out, String message) throws IOException {
+        out.append(MESSAGE).append(' ').append(message).append('\n');
+    }
+}
@@ -1,10 +1,11 @@
 /**
- * Contains: Cell Interface, StartCell Class, RegularCell Class, DoubleRollCell Class, GoBackCell Class, GoForwardCell Class, StopCell Class, TeleportCell Class.
+ * Contains: AnimationWriter Class, Cell Interface, StartCell Class, RegularCell Class, DoubleRollCell Class, GoBackCell Class, GoForwardCell Class, StopCell Class, TeleportCell Class.
  */
 package Cells;
 
 import Player.Player;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -28,35 +29,38 @@ public interface Cell {
     int handleMove(int diceRoll);
 
     /**
-     * Creates and returns a string that later is printed in the output file.
+     * Writes the move animation to the output file.
      * Covers cases when a player arrives to specific cell having rolled the dice
      * and its result does not exceed the length of the board.
      *
-     * @param player the player arriving to the cell
-     * @return the animation string for the output file
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param out the destination of the animation
+     * @throws IOException if the destination cannot be written
      */
-    String getPrimaryAnimationWithin(Player player);
+    void appendPrimaryAnimationWithin(int fromIndex, Appendable out) throws IOException;
 
     /**
-     * Creates and returns a string that later is printed in the output file.
+     * Writes the move animation to the output file.
      * Covers cases when a player arrives to specific cell having rolled the dice
      * and its result exceeds the length of the board.
      *
-     * @param player the player arriving to the cell
+     * @param fromIndex the index of the cell where the player started the turn
      * @param boardSize the size of the game's board
-     * @return the animation string for the output file
+     * @param out the destination of the animation
+     * @throws IOException if the destination cannot be written
      */
-    String getPrimaryAnimationOut(Player player, int boardSize);
+    void appendPrimaryAnimationOut(int fromIndex, int boardSize, Appendable out) throws IOException;
 
     /**
-     * Creates and returns a string that later is printed in the output file.
+     * Writes the animation of the cell's action to the output file.
      * Covers cases when a player arrives to another cell being delegated from the specific cell.
+     * The animation is written straight into the destination, without creating strings.
      *
-     * @param player the player arriving to the cell
      * @param diceRoll the result of the dice roll when the player reaches this cell
-     * @return the animation string for the output file
+     * @param out the destination of the animation
+     * @throws IOException if the destination cannot be written
      */
-    String getSecondaryAnimation(Player player, int diceRoll);
+    void appendSecondaryAnimation(int diceRoll, Appendable out) throws IOException;
 
     /**
      * Gets the players in the cell.
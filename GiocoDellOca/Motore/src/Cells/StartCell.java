@@ -1,10 +1,11 @@
 /**
- * Contains: Cell Interface, StartCell Class, RegularCell Class, DoubleRollCell Class, GoBackCell Class, GoForwardCell Class, StopCell Class, TeleportCell Class.
+ * Contains: AnimationWriter Class, Cell Interface, StartCell Class, RegularCell Class, DoubleRollCell Class, GoBackCell Class, GoForwardCell Class, StopCell Class, TeleportCell Class.
  */
 package Cells;
 
 import Player.Player;
 
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -61,66 +62,47 @@ public class StartCell implements Cell {
     }
 
     /**
-     * Creates and returns a string that later is printed in the output file.
+     * Writes the move animation to the output file.
      * Covers cases when a player arrives to specific cell having rolled the dice
      * and its result does not exceed the length of the board.
      *
-     * @param player the player arriving to the cell
-     * @return the animation string for the output file
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param out the destination of the animation
+     * @throws IOException if the destination cannot be written
      */
     @Override
-    public String getPrimaryAnimationWithin(Player player) {
-        String animationOutput = "";
-        animationOutput += "SPOSTA";
-        for (int i = player.getCell().getIndex() + 1; i <= this.getIndex(); i++) {
-            animationOutput += " ";
-            animationOutput += i;
-        }
-        animationOutput += "\n";
-        return animationOutput;
+    public void appendPrimaryAnimationWithin(int fromIndex, Appendable out) throws IOException {
+        AnimationWriter.appendMoveWithin(out, fromIndex, this.getIndex());
     }
 
     /**
-     * Creates and returns a string that later is printed in the output file.
+     * Writes the move animation to the output file.
      * Covers cases when a player arrives to specific cell having rolled the dice
      * and its result exceeds the length of the board.
      *
-     * @param player the player arriving to the cell
+     * @param fromIndex the index of the cell where the player started the turn
      * @param boardSize the size of the game's board
-     * @return the animation string for the output file
+     * @param out the destination of the animation
+     * @throws IOException if the destination cannot be written
      */
     @Override
-    public String getPrimaryAnimationOut(Player player, int boardSize) {
-        String animationOutput = "";
-        animationOutput += "SPOSTA";
-        for (int i = player.getCell().getIndex() + 1; i <= boardSize; i++) {
-            animationOutput += " ";
-            animationOutput += i;
-        }
-        for (int i = boardSize - 1; i >= this.getIndex(); i--) {
-            animationOutput += " ";
-            animationOutput += i;
-        }
-        animationOutput += "\n";
-        return animationOutput;
+    public void appendPrimaryAnimationOut(int fromIndex, int boardSize, Appendable out) throws IOException {
+        AnimationWriter.appendMoveOut(out, fromIndex, boardSize, this.getIndex());
     }
 
     /**
-     * Creates and returns a string that later is printed in the output file.
-     * Returns cells' descriptions and animations strings for non-regular cells.
+     * Writes the animation of the cell's action to the output file.
+     * Writes the cell's description and the animation for non-regular cells.
      * Covers cases when a player arrives to another cell being delegated from the specific cell.
      * For the start cell there is no special action.
      *
-     * @param player the player arriving to the cell
      * @param diceRoll the result of the dice roll when the player reaches this cell
-     * @return the animation string for the output file
+     * @param out the destination of the animation
+     * @throws IOException if the destination cannot be written
      */
     @Override
-    public String getSecondaryAnimation(Player player, int diceRoll) {
-        String animationOutput = "";
-        animationOutput += "MESSAGGIO" + " " + this.getDescription();
-        animationOutput += "\n";
-        return animationOutput;
+    public void appendSecondaryAnimation(int diceRoll, Appendable out) throws IOException {
+        AnimationWriter.appendMessage(out, this.getDescription());
     }
 
     /**
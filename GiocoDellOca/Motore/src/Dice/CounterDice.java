@@ -0,0 +1,150 @@
+/**
+ * Contains: DiceSource Interface, SplittableDice Class, CounterDice Class.
+ */
+package Dice;
+
+/**
+ * The class which rolls the dice with a counter-based generator.
+ * Every roll is a function of the seed, the number of the stream and the position in the stream only,
+ * so the stream of the game k is the same whatever thread plays it and in whatever order the games are played,
+ * and any roll can be computed directly from its position.
+ */
+public class CounterDice implements DiceSource {
+
+    /**
+     * The odd constant which separates the streams, derived from the golden ratio.
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The lowest bit of each of the 21 groups of 3 bits of a random long.
+     */
+    private static final long LOWEST_BITS = 0x1249249249249249L;
+
+    /**
+     * The seed of all the streams.
+     */
+    private long seed;
+
+    /**
+     * The key of the current stream, derived from the seed and the number of the stream.
+     */
+    private long streamKey;
+
+    /**
+     * The position of the next roll in the current stream.
+     */
+    private long counter;
+
+    /**
+     * Constructor of the dice positioned at the beginning of the given stream.
+     *
+     * @param seed the seed of all the streams
+     * @param stream the number of the stream, for example the number of the game
+     */
+    public CounterDice(long seed, long stream) {
+        this.seed = seed;
+        this.setStream(stream);
+    }
+
+    /**
+     * Moves the dice to the beginning of another stream.
+     *
+     * @param stream the number of the stream, for example the number of the game
+     */
+    public void setStream(long stream) {
+        this.streamKey = streamKey(this.seed, stream);
+        this.counter = 0;
+    }
+
+    /**
+     * Gets the position of the next roll in the current stream.
+     *
+     * @return the counter of the stream
+     */
+    public long getCounter() {
+        return this.counter;
+    }
+
+    /**
+     * Moves the dice to the given position of the current stream.
+     *
+     * @param counter the position of the next roll
+     */
+    public void setCounter(long counter) {
+        this.counter = counter;
+    }
+
+    /**
+     * Rolls the dice.
+     *
+     * @return random integer number of the range [1,6]
+     */
+    @Override
+    public int roll() {
+        return rollAt(this.streamKey, this.counter++);
+    }
+
+    /**
+     * Rolls the dice many times and stores the results in the buffer.
+     * Gives the same results as calling roll the same number of times.
+     *
+     * @param buffer the buffer for the results, each one of the range [1,6]
+     * @param offset the position of the first result in the buffer
+     * @param length the number of rolls
+     */
+    @Override
+    public void fill(byte[] buffer, int offset, int length) {
+        long key = this.streamKey;
+        long position = this.counter;
+        for (int i = offset; i < offset + length; i++) {
+            buffer[i] = (byte) rollAt(key, position++);
+        }
+        this.counter = position;
+    }
+
+    /**
+     * Computes the key of a stream.
+     *
+     * @param seed the seed of all the streams
+     * @param stream the number of the stream
+     * @return the key of the stream
+     */
+    public static long streamKey(long seed, long stream) {
+        return mix(seed + mix(stream * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Computes the roll at the given position of a stream, without generating the previous rolls.
+     * The roll is the first group of 3 bits of a random long which is smaller than 6,
+     * so every face has exactly the same probability.
+     *
+     * @param streamKey the key of the stream
+     * @param index the position of the roll in the stream
+     * @return random integer number of the range [1,6]
+     */
+    public static int rollAt(long streamKey, long index) {
+        long word = mix(streamKey + index * GOLDEN_GAMMA);
+        while (true) {
+            //A group is discarded when its two highest bits are set, that is when its value is 6 or 7.
+            long accepted = ~((word >>> 2) & (word >>> 1)) & LOWEST_BITS;
+            if (accepted != 0) {
+                return (int) ((word >>> Long.numberOfTrailingZeros(accepted)) & 7) + 1;
+            }
+            //All the groups were discarded, which happens with probability 4^-21.
+            word = mix(word + GOLDEN_GAMMA);
+        }
+    }
+
+    /**
+     * Scrambles the bits of a long with the finalizer of the SplitMix64 generator.
+     *
+     * @param value the long to be scrambled
+     * @return the scrambled long
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
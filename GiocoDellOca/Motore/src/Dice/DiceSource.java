@@ -0,0 +1,31 @@
+/**
+ * Contains: DiceSource Interface, SplittableDice Class, CounterDice Class.
+ */
+package Dice;
+
+/**
+ * The interface which represents the source of the dice rolls.
+ */
+public interface DiceSource {
+
+    /**
+     * The number of faces of the dice.
+     */
+    int FACES = 6;
+
+    /**
+     * Rolls the dice.
+     *
+     * @return random integer number of the range [1,6]
+     */
+    int roll();
+
+    /**
+     * Rolls the dice many times and stores the results in the buffer.
+     *
+     * @param buffer the buffer for the results, each one of the range [1,6]
+     * @param offset the position of the first result in the buffer
+     * @param length the number of rolls
+     */
+    void fill(byte[] buffer, int offset, int length);
+}
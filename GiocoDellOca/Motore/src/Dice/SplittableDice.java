@@ -0,0 +1,85 @@
+/**
+ * Contains: DiceSource Interface, SplittableDice Class, CounterDice Class.
+ */
+package Dice;
+
+import java.util.SplittableRandom;
+
+/**
+ * The class which rolls the dice with a SplittableRandom generator.
+ * The generator belongs to a single thread, a new independent source for another thread is created with split.
+ */
+public class SplittableDice implements DiceSource {
+
+    /**
+     * The random generator.
+     */
+    private SplittableRandom random;
+
+    /**
+     * Constructor of the dice with a random seed.
+     */
+    public SplittableDice() {
+        this.random = new SplittableRandom();
+    }
+
+    /**
+     * Constructor of the dice with the given seed, the same seed gives the same rolls.
+     *
+     * @param seed the seed of the generator
+     */
+    public SplittableDice(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Constructor of the dice using the given generator.
+     *
+     * @param random the random generator
+     */
+    private SplittableDice(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Creates a new source independent from this one.
+     *
+     * @return the new source of the dice rolls
+     */
+    public SplittableDice split() {
+        return new SplittableDice(this.random.split());
+    }
+
+    /**
+     * Rolls the dice.
+     *
+     * @return random integer number of the range [1,6]
+     */
+    @Override
+    public int roll() {
+        return this.random.nextInt(FACES) + 1;
+    }
+
+    /**
+     * Rolls the dice many times and stores the results in the buffer.
+     * Every random long gives up to 21 rolls: each group of 3 bits is a roll, and the values 6 and 7 are discarded.
+     *
+     * @param buffer the buffer for the results, each one of the range [1,6]
+     * @param offset the position of the first result in the buffer
+     * @param length the number of rolls
+     */
+    @Override
+    public void fill(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            long bits = this.random.nextLong();
+            for (int i = 0; i < 21 && offset < end; i++) {
+                int value = (int) (bits & 7);
+                bits >>>= 3;
+                if (value < FACES) {
+                    buffer[offset++] = (byte) (value + 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Contains: BoardLoadEvent Class, GameEvent Class, OutputWriteEvent Class, RoundEvent Class, TurnEvent Class.
+ */
+package Events;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The flight recorder event of the loading of a board, from the input file or from the compiled board.
+ * Boards are loaded rarely, so every load is recorded.
+ */
+@Name("GiocoDellOca.BoardLoad")
+@Label("Board Load")
+@Category({"Gioco dell'Oca", "Board"})
+@Description("The loading of a board from the input file or from the compiled board")
+@StackTrace(false)
+public class BoardLoadEvent extends Event {
+
+    /**
+     * The name of the input file of the board.
+     */
+    @Label("Board")
+    private String board;
+
+    /**
+     * The number of cells.
+     */
+    @Label("Cells")
+    private int cells;
+
+    /**
+     * The number of special cells.
+     */
+    @Label("Special Cells")
+    private int specialCells;
+
+    /**
+     * True if the board was loaded from the compiled board.
+     */
+    @Label("Compiled")
+    private boolean compiled;
+
+    /**
+     * Sets the fields and commits the event.
+     *
+     * @param board the name of the input file of the board
+     * @param cells the number of cells
+     * @param specialCells the number of special cells
+     * @param compiled true if the board was loaded from the compiled board
+     */
+    public void record(String board, int cells, int specialCells, boolean compiled) {
+        this.board = board;
+        this.cells = cells;
+        this.specialCells = specialCells;
+        this.compiled = compiled;
+        this.commit();
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Contains: BoardLoadEvent Class, GameEvent Class, OutputWriteEvent Class, RoundEvent Class, TurnEvent Class.
+ */
+package Events;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The flight recorder event of a whole game, from the first to the last line of the log.
+ * Only the games longer than the threshold are recorded, so the event can stay enabled.
+ */
+@Name("GiocoDellOca.Game")
+@Label("Game")
+@Category({"Gioco dell'Oca", "Game"})
+@Description("A whole game, recorded if it is longer than the threshold")
+@Threshold("20 ms")
+@StackTrace(false)
+public class GameEvent extends Event {
+
+    /**
+     * The name of the input file of the board.
+     */
+    @Label("Board")
+    private String board;
+
+    /**
+     * The number of players.
+     */
+    @Label("Players")
+    private int players;
+
+    /**
+     * The number of rounds.
+     */
+    @Label("Rounds")
+    private int rounds;
+
+    /**
+     * The number of the winner.
+     */
+    @Label("Winner")
+    private int winner;
+
+    /**
+     * Sets the fields and commits the event.
+     *
+     * @param board the name of the input file of the board
+     * @param players the number of players
+     * @param rounds the number of rounds
+     * @param winner the number of the winner
+     */
+    public void record(String board, int players, int rounds, int winner) {
+        this.board = board;
+        this.players = players;
+        this.rounds = rounds;
+        this.winner = winner;
+        this.commit();
+    }
+}
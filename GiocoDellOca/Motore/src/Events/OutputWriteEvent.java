@@ -0,0 +1,52 @@
+/**
+ * Contains: BoardLoadEvent Class, GameEvent Class, OutputWriteEvent Class, RoundEvent Class, TurnEvent Class.
+ */
+package Events;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The flight recorder event of a write of the buffer of a log to the output file.
+ * Only the writes longer than the threshold are recorded, so the event shows the stalls of the output.
+ */
+@Name("GiocoDellOca.OutputWrite")
+@Label("Output Write")
+@Category({"Gioco dell'Oca", "Output"})
+@Description("A write of the buffer of a log, recorded if it is longer than the threshold")
+@Threshold("1 ms")
+@StackTrace(false)
+public class OutputWriteEvent extends Event {
+
+    /**
+     * The name of the class of the backend.
+     */
+    @Label("Backend")
+    private String backend;
+
+    /**
+     * The number of written bytes.
+     */
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * Sets the fields and commits the event.
+     *
+     * @param backend the name of the class of the backend
+     * @param bytes the number of written bytes
+     */
+    public void record(String backend, long bytes) {
+        this.backend = backend;
+        this.bytes = bytes;
+        this.commit();
+    }
+}
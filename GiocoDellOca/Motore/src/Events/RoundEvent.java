@@ -0,0 +1,50 @@
+/**
+ * Contains: BoardLoadEvent Class, GameEvent Class, OutputWriteEvent Class, RoundEvent Class, TurnEvent Class.
+ */
+package Events;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The flight recorder event of a round of a game, the turns of all the players.
+ * Only the rounds longer than the threshold are recorded, so the event can stay enabled.
+ */
+@Name("GiocoDellOca.Round")
+@Label("Round")
+@Category({"Gioco dell'Oca", "Game"})
+@Description("A round of a game, recorded if it is longer than the threshold")
+@Threshold("5 ms")
+@StackTrace(false)
+public class RoundEvent extends Event {
+
+    /**
+     * The name of the input file of the board.
+     */
+    @Label("Board")
+    private String board;
+
+    /**
+     * The number of the round, starting from 1.
+     */
+    @Label("Round")
+    private int round;
+
+    /**
+     * Sets the fields and commits the event.
+     *
+     * @param board the name of the input file of the board
+     * @param round the number of the round
+     */
+    public void record(String board, int round) {
+        this.board = board;
+        this.round = round;
+        this.commit();
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Contains: BoardLoadEvent Class, GameEvent Class, OutputWriteEvent Class, RoundEvent Class, TurnEvent Class.
+ */
+package Events;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The flight recorder event of the turn of a player: the dice roll, the moves and their log.
+ * Only the turns longer than the threshold are recorded, so the event can stay enabled.
+ */
+@Name("GiocoDellOca.Turn")
+@Label("Turn")
+@Category({"Gioco dell'Oca", "Game"})
+@Description("The turn of a player, recorded if it is longer than the threshold")
+@Threshold("1 ms")
+@StackTrace(false)
+public class TurnEvent extends Event {
+
+    /**
+     * The name of the input file of the board.
+     */
+    @Label("Board")
+    private String board;
+
+    /**
+     * The number of the player.
+     */
+    @Label("Player")
+    private int player;
+
+    /**
+     * The dice roll, 0 if the player could not move.
+     */
+    @Label("Dice")
+    private int dice;
+
+    /**
+     * The number of moves of the special cells after the dice roll.
+     */
+    @Label("Chain Length")
+    private int chainLength;
+
+    /**
+     * Sets the fields and commits the event.
+     *
+     * @param board the name of the input file of the board
+     * @param player the number of the player
+     * @param dice the dice roll, 0 if the player could not move
+     * @param chainLength the number of moves of the special cells after the dice roll
+     */
+    public void record(String board, int player, int dice, int chainLength) {
+        this.board = board;
+        this.player = player;
+        this.dice = dice;
+        this.chainLength = chainLength;
+        this.commit();
+    }
+}
@@ -5,9 +5,12 @@ package Game;
 
 import Board.Board;
 import Cells.Cell;
-import Cells.RegularCell;
-import Cells.StopCell;
-import Output.Output;
+import Dice.DiceSource;
+import Events.GameEvent;
+import Events.RoundEvent;
+import Events.TurnEvent;
+import Metrics.EngineMetrics;
+import Output.GameLog;
 import Player.Player;
 
 import java.util.LinkedList;
@@ -39,9 +42,29 @@ public class Game {
     private boolean isGameFinished;
 
     /**
-     * The Output object to create the output file.
+     * The log of the game writing the output file, in the text or in the binary format.
      */
-    private Output animation;
+    private GameLog animation;
+
+    /**
+     * The source of the dice rolls shared by all the players, null if every player rolls its own dice.
+     */
+    private DiceSource dice;
+
+    /**
+     * The number of the winner, 0 until the game is finished.
+     */
+    private int winner;
+
+    /**
+     * The dice roll of the last turn, 0 if the player could not move.
+     */
+    private int turnDice;
+
+    /**
+     * The number of moves of the special cells after the dice roll of the last turn.
+     */
+    private int turnChainLength;
 
     /**
      * Constructor of the Game.
@@ -54,10 +77,27 @@ public class Game {
         //Loads the board from the input file.
         this.board.loadBoard(inputFile);
         //Creates the output file.
-        this.animation = new Output(outputFile);
+        this.animation = GameLog.create(outputFile, this.board);
         this.boardSize = board.getNumberOfCells() + 1;
         this.players = new LinkedList<Player>();
         this.isGameFinished = false;
+        this.dice = null;
+    }
+
+    /**
+     * Constructor of the Game on a board which is already loaded.
+     * The board is only read, so the same board can be shared by many games played at the same time.
+     *
+     * @param board the game's board
+     * @param animation the log of the game
+     */
+    public Game(Board board, GameLog animation) {
+        this.board = board;
+        this.animation = animation;
+        this.boardSize = board.getNumberOfCells() + 1;
+        this.players = new LinkedList<Player>();
+        this.isGameFinished = false;
+        this.dice = null;
     }
 
     /**
@@ -87,14 +127,60 @@ public class Game {
         return this.board;
     }
 
+    /**
+     * Gets the cell of the board for an index, if the cell is special or is the start cell.
+     * The regular cells are not asked for, so no cell is created during the game.
+     *
+     * @param index the index of the cell
+     * @return the cell, or null for a regular cell
+     */
+    private Cell getSpecialCell(int index) {
+        int position = this.board.getSpecialCellPosition(index);
+        if (position >= 0) {
+            return this.board.getSpecialCell(position);
+        }
+        return index == 0 ? this.board.getCell(0) : null;
+    }
+
+    /**
+     * Records a player reaching a cell in the metrics.
+     *
+     * @param cell the reached cell, or null for a regular cell
+     */
+    private static void recordCellHit(Cell cell) {
+        if (cell == null) {
+            EngineMetrics.get().recordRegularCellHit();
+        }
+        else {
+            EngineMetrics.get().recordCellHit(cell);
+        }
+    }
+
+    /**
+     * Sets the source of the dice rolls shared by all the players.
+     * With a seeded source the whole game can be reproduced.
+     *
+     * @param dice the source of the dice rolls
+     */
+    public void setDice(DiceSource dice) {
+        this.dice = dice;
+        for (Player player : this.players) {
+            player.setDice(dice);
+        }
+    }
+
     /**
      * Adds a player to the game and assigns their position to the start cell.
      *
      * @param newPlayer the object of the player to be added
      */
     private void addPlayer(Player newPlayer) {
+        if (this.dice != null) {
+            newPlayer.setDice(this.dice);
+        }
         this.players.add(newPlayer);
-        this.getBoard().getCells()[0].setPlayer(newPlayer);
+        //The start cell is not changed, the board may be shared with other games.
+        newPlayer.setPosition(0);
     }
 
     /**
@@ -105,10 +191,22 @@ public class Game {
         //Next round.
         oneTurn:
         for (Player player : this.players) {
-            this.animation.printPlayerTurn(player);
+            this.animation.printPlayerTurn(player.getNumber());
             //Next turn for each player.
+            TurnEvent event = new TurnEvent();
+            event.begin();
+            long turnStart = EngineMetrics.ENABLED ? System.nanoTime() : 0L;
+            boolean victory = nextTurn(player);
+            if (EngineMetrics.ENABLED) {
+                EngineMetrics.get().recordTurn(System.nanoTime() - turnStart);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.record(this.board.getName(), player.getNumber(), this.turnDice, this.turnChainLength);
+            }
             //Stops after victory.
-            if (nextTurn(player)) {
+            if (victory) {
+                this.winner = player.getNumber();
                 break oneTurn;
             }
             this.animation.printEndTurn();
@@ -125,15 +223,18 @@ public class Game {
      */
     private boolean nextTurn(Player player) {
         int playerNumber = player.getNumber();
+        this.turnDice = 0;
+        this.turnChainLength = 0;
         //Checks if the player can move.
         if (player.canMove()) {
             //Rolls the dice.
             int dice = player.diceRoll();
+            this.turnDice = dice;
             //Prints the dice roll result to the output file.
             this.animation.printDiceRoll(dice);
             //Execute the turn.
             //The index of the player before the turn.
-            int beforeRollIndex = player.getCell().getIndex();
+            int beforeRollIndex = player.getPosition();
             //The index of the player after the roll of the dice.
             int afterRollIndex = beforeRollIndex + dice;
             //The index at the end of the turn.
@@ -149,16 +250,13 @@ public class Game {
             //If the player has won.
             else {
                 this.setTheGameplayStatus(true);
-                this.animation.printVictory(player, afterRollIndex);
+                this.animation.printVictory(player.toString(), beforeRollIndex, afterRollIndex);
                 return true;
             }
             //Assigns the player to the final cell.
-            Cell finalCell = this.getBoard().getCell(finalIndex);
-            player.setCell(finalCell);
+            player.setPosition(finalIndex);
             //If player entered the stop cell.
-            if (finalCell instanceof StopCell) {
-                player.setNumberOfTurnsToWait(((StopCell) finalCell).getNumberOfTurnsToWait());
-            }
+            player.setNumberOfTurnsToWait(this.getBoard().getMoveTable().getTurnsToWait(finalIndex));
         }
         else {
             //Decrease turns to wait.
@@ -179,25 +277,22 @@ public class Game {
         int auxIndex;
         int finalIndex;
         auxIndex = boardSize - (dice - (boardSize - beforeRollIndex));
-        finalIndex = this.getBoard().getCell(auxIndex).handleMove(dice);
-        //Prints the player's move animation based on the dice roll result.
-        String cellPrimaryAnimation = this.getBoard().getCell(auxIndex).getPrimaryAnimationOut(player, boardSize);
-        this.animation.printAnimation(cellPrimaryAnimation);
-        //Prints the player's move animation based on the cell of arrival.
-        String cellSecondaryAnimation = this.getBoard().getCell(auxIndex).getSecondaryAnimation(player, dice);
-        this.animation.printAnimation(cellSecondaryAnimation);
-        //If the destination cell is not a regular cell or stop cell.
-        if (auxIndex != finalIndex) {
-            cellSecondaryAnimation = this.getBoard().getCell(finalIndex).getSecondaryAnimation(player, dice);
-            this.animation.printAnimation(cellSecondaryAnimation);
+        Cell cell = this.getSpecialCell(auxIndex);
+        if (cell == null) {
+            //A regular cell keeps the player, and is printed from its index.
+            finalIndex = auxIndex;
+            this.animation.printMoveOut(beforeRollIndex, boardSize, auxIndex);
+            this.animation.printRegularCell(auxIndex);
         }
-        //Repeats as long as the destination cell is not a regular cell or stop cell.
-        while (!(this.getBoard().getCell(finalIndex) instanceof RegularCell) && !(this.getBoard().getCell(finalIndex) instanceof StopCell)) {
-            finalIndex = this.getBoard().getCell(finalIndex).handleMove(dice);
-            cellSecondaryAnimation = this.getBoard().getCell(finalIndex).getSecondaryAnimation(player, dice);
-            this.animation.printAnimation(cellSecondaryAnimation);
+        else {
+            finalIndex = cell.handleMove(dice);
+            //Prints the player's move animation based on the dice roll result.
+            this.animation.printPrimaryAnimationOut(cell, beforeRollIndex, boardSize);
+            //Prints the player's move animation based on the cell of arrival.
+            this.animation.printSecondaryAnimation(cell, dice);
         }
-        return finalIndex;
+        //Follows the chain of cells and prints their animations.
+        return executeChain(player, dice, auxIndex, finalIndex);
     }
 
     /**
@@ -210,24 +305,63 @@ public class Game {
      */
     private int executePlayerTurnWithin(Player player, int dice, int afterRollIndex) {
         int finalIndex;
-        finalIndex = this.getBoard().getCell(afterRollIndex).handleMove(dice);
-        //Prints the player's move animation based on the dice roll result.
-        String cellPrimaryAnimation = this.getBoard().getCell(afterRollIndex).getPrimaryAnimationWithin(player);
-        this.animation.printAnimation(cellPrimaryAnimation);
-        //Prints the player's move animation based on the cell of arrival.
-        String cellSecondaryAnimation = this.getBoard().getCell(afterRollIndex).getSecondaryAnimation(player, dice);
-        this.animation.printAnimation(cellSecondaryAnimation);
-        //If the destination cell is not a regular cell or stop cell.
-        if (afterRollIndex != finalIndex) {
-            cellSecondaryAnimation = this.getBoard().getCell(finalIndex).getSecondaryAnimation(player, dice);
-            this.animation.printAnimation(cellSecondaryAnimation);
+        Cell cell = this.getSpecialCell(afterRollIndex);
+        if (cell == null) {
+            //A regular cell keeps the player, and is printed from its index.
+            finalIndex = afterRollIndex;
+            this.animation.printMoveWithin(player.getPosition(), afterRollIndex);
+            this.animation.printRegularCell(afterRollIndex);
+        }
+        else {
+            finalIndex = cell.handleMove(dice);
+            //Prints the player's move animation based on the dice roll result.
+            this.animation.printPrimaryAnimationWithin(cell, player.getPosition());
+            //Prints the player's move animation based on the cell of arrival.
+            this.animation.printSecondaryAnimation(cell, dice);
+        }
+        //Follows the chain of cells and prints their animations.
+        return executeChain(player, dice, afterRollIndex, finalIndex);
+    }
+
+    /**
+     * Follows the chain of special cells and prints the animation of each cell reached.
+     * If the metrics are enabled, records the reached cells and the length of the chain.
+     * The chain terminates in the first cell which sends the player to itself,
+     * the board guarantees that every chain terminates.
+     *
+     * @param player the object of the player who is performing the turn
+     * @param dice the result of the dice roll
+     * @param reachedIndex the index of the cell reached with the dice roll
+     * @param nextIndex the index of the cell where the reached cell sends the player
+     * @return the index of the destination cell
+     */
+    private int executeChain(Player player, int dice, int reachedIndex, int nextIndex) {
+        int finalIndex = reachedIndex;
+        int length = 0;
+        if (EngineMetrics.ENABLED) {
+            recordCellHit(this.getSpecialCell(reachedIndex));
         }
-        //Repeats as long as the destination cell is not a regular cell or stop cell.
-        while (!(this.getBoard().getCell(finalIndex) instanceof RegularCell) && !(this.getBoard().getCell(finalIndex) instanceof StopCell)) {
-            finalIndex = this.getBoard().getCell(finalIndex).handleMove(dice);
-            cellSecondaryAnimation = this.getBoard().getCell(finalIndex).getSecondaryAnimation(player, dice);
-            this.animation.printAnimation(cellSecondaryAnimation);
+        //Repeats as long as the destination cell sends the player to another cell.
+        while (nextIndex != finalIndex) {
+            finalIndex = nextIndex;
+            Cell cell = this.getSpecialCell(finalIndex);
+            if (cell == null) {
+                //A regular cell ends the chain.
+                this.animation.printRegularCell(finalIndex);
+            }
+            else {
+                this.animation.printSecondaryAnimation(cell, dice);
+                nextIndex = cell.handleMove(dice);
+            }
+            if (EngineMetrics.ENABLED) {
+                recordCellHit(cell);
+            }
+            length++;
         }
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordChain(length);
+        }
+        this.turnChainLength = length;
         return finalIndex;
     }
 
@@ -241,8 +375,17 @@ public class Game {
         for (int i = 2; i < args.length; i++) {
             names.add(args[i]);
         }
+        this.addPlayers(names);
+    }
+
+    /**
+     * Adds the players to the game, numbered in the order of the list.
+     *
+     * @param names the names of the players
+     */
+    public void addPlayers(List<String> names) {
         for (String name : names) {
-            Player newPlayer = new Player(name);
+            Player newPlayer = new Player(name, this.players.size() + 1);
             this.addPlayer(newPlayer);
         }
     }
@@ -251,12 +394,31 @@ public class Game {
      * Starts the game.
      */
     public void playGame() {
+        GameEvent gameEvent = new GameEvent();
+        gameEvent.begin();
         this.animation.begin();
         this.animation.printNumberOfCells(this.boardSize - 1);
-        this.animation.printPlayers(this.players);
+        for (Player player : this.players) {
+            this.animation.printPlayer(player.getNumber(), player.toString());
+        }
+        int rounds = 0;
         while (!this.checkTheGameplayStatus()) {
+            RoundEvent roundEvent = new RoundEvent();
+            roundEvent.begin();
             this.nextRound();
+            rounds++;
+            roundEvent.end();
+            if (roundEvent.shouldCommit()) {
+                roundEvent.record(this.board.getName(), rounds);
+            }
         }
         this.animation.finish();
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordGame();
+        }
+        gameEvent.end();
+        if (gameEvent.shouldCommit()) {
+            gameEvent.record(this.board.getName(), this.players.size(), rounds, this.winner);
+        }
     }
 }
\ No newline at end of file
@@ -3,15 +3,39 @@
  */
 package Main;
 
+import Analysis.MarkovAnalyzer;
+import Board.Board;
+import Dice.SplittableDice;
 import Game.Game;
+import Output.BinaryLogReader;
+import Output.GameRecord;
+import Output.OutputBackend;
+import Output.SummaryLog;
+import Service.GameService;
+import Simulation.BatchSimulation;
+import Simulation.Checkpoint;
+import Simulation.SimulationResult;
+import Tournament.Tournament;
+import Tournament.TournamentResult;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * The class which is the entry point of the application.
  */
 public class Main {
+    /**
+     * The seed of the dice given with the -seed option, null if the dice are not seeded.
+     */
+    private static Long seed = null;
+
     /**
      * The main function.
      * Arguments to Main:
@@ -21,26 +45,425 @@ public class Main {
      *
      * Example of usage: java .../Main .../input.txt .../output.txt Name1 Name2 Name3 ...
      *
+     * Arguments to Main in the batch mode:
+     * args[0] - the -batch flag
+     * args[1] - the name of the input file
+     * args[2] - the number of games, or the maximum number of games if args[4] is given
+     * args[3] - the number of players
+     * args[4] - optional, the requested half width of the 95% confidence interval of the mean number of rounds
+     * The arguments may end with the -checkpoint option followed by the name of a file: the state of the batch is written
+     * to the file every oca.checkpoint.interval milliseconds, and a batch started again with the same file resumes from it.
+     *
+     * Example of usage: java .../Main -batch .../input.txt 1000000 2 0.05
+     * Example of usage: java .../Main -batch .../input.txt 1000000000 2 -checkpoint .../batch.ckpt
+     *
+     * Arguments to Main in the analysis mode:
+     * args[0] - the -analyze flag
+     * args[1] - the name of the input file
+     * args[2] - the number of players
+     *
+     * Example of usage: java .../Main -analyze .../input.txt 2
+     *
+     * Arguments to Main in the conversion mode:
+     * args[0] - the -convert flag
+     * args[1] - the name of the binary log, written by a game whose output file ends with .ocab
+     * args[2] - the name of the output file in the text format
+     *
+     * Example of usage: java .../Main -convert .../output.ocab .../output.txt
+     *
+     * A game whose output file ends with .ocar writes only its record: the hash of the board, the seed and the names.
+     * Arguments to Main in the replay mode, which plays the game of a record again and writes its log:
+     * args[0] - the -replay flag
+     * args[1] - the name of the record
+     * args[2] - the name of the output file, "-" streams the log to the standard output
+     * args[3] - optional, the name of the input file, by default the input file named in the record
+     *
+     * Example of usage: java .../Main -replay .../game.ocar - | java AnimazioneOca -
+     *
+     * Arguments to Main in the service mode:
+     * args[0] - the -serve flag
+     * args[1] - the port of the local HTTP service
+     * args[2...] - the names of the input files, registered as boards with the same names
+     *
+     * Example of usage: java .../Main -serve 8080 .../input.txt .../other.txt
+     *
+     * Arguments to Main in the tournament mode:
+     * args[0] - the -tournament flag
+     * args[1] - the names of the input files, separated by commas
+     * args[2] - "permutations" to play every order of the players, "rotations" to play every player in every seat once
+     * args[3] - the number of games of each order of the players on each board
+     * args[4...] - the names of the players
+     *
+     * Example of usage: java .../Main -tournament .../input.txt,.../other.txt rotations 1000 Name1 Name2 Name3
+     *
+     * In the game, in the batch and in the tournament mode the arguments may start with the -seed option followed by a number:
+     * the same seed gives the same dice rolls, so the game or the batch can be reproduced.
+     *
+     * Example of usage: java .../Main -seed 42 .../input.txt .../output.txt Name1 Name2
+     *
+     * The output file "-" writes the log to the standard output, the backend writing the output file
+     * is chosen with the system properties described in OutputBackend.
+     *
      * @param args the main function's arguments from the command line
      */
     public static void main(String[] args) {
         Game game = null;
-        if(args.length >= 3) {
+        if (args.length >= 1 && args[0].equals("-seed")) {
+            if (args.length < 2 || !readSeed(args[1])) {
+                wrongParameters(args);
+                return;
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length >= 1 && args[0].equals("-batch")) {
+            playBatch(args);
+        }
+        else if (args.length >= 1 && args[0].equals("-analyze")) {
+            analyzeBoard(args);
+        }
+        else if (args.length >= 1 && args[0].equals("-convert")) {
+            convertLog(args);
+        }
+        else if (args.length >= 1 && args[0].equals("-replay")) {
+            replayRecord(args);
+        }
+        else if (args.length >= 1 && args[0].equals("-serve")) {
+            serve(args);
+        }
+        else if (args.length >= 1 && args[0].equals("-tournament")) {
+            playTournament(args);
+        }
+        else if(args.length >= 3) {
+            reserveStandardOutput(args[1]);
             game = getGameCommandLine(args);
+            setGameDice(game);
             game.addPlayers(args);
             game.playGame();
+            writeRecord(game, args);
         }
         else if(args.length == 2) {
+            reserveStandardOutput(args[1]);
             String[] gameArgs = getGameArgs(args, 2);
             game = getGamePlayers(gameArgs);
+            setGameDice(game);
             game.addPlayers(gameArgs);
             game.playGame();
+            writeRecord(game, gameArgs);
         }
         else {
             wrongParameters(args);
         }
     }
 
+    /**
+     * Sends the messages of the program to the standard error if the log is written to the standard output,
+     * so that the two are not mixed.
+     *
+     * @param outputFile the output file, "-" for the standard output
+     */
+    private static void reserveStandardOutput(String outputFile) {
+        if (outputFile.equals(OutputBackend.STANDARD_OUTPUT)) {
+            System.setOut(System.err);
+        }
+    }
+
+    /**
+     * Reads the seed of the dice.
+     *
+     * @param value the seed as a text
+     * @return true if the seed is a valid number
+     */
+    private static boolean readSeed(String value) {
+        try {
+            seed = Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Makes all the players of the game roll the seeded dice, if the seed was given.
+     *
+     * @param game the game object
+     */
+    private static void setGameDice(Game game) {
+        if (seed != null) {
+            game.setDice(new SplittableDice(seed));
+            System.out.println("Seed:" + " " + seed);
+        }
+    }
+
+    /**
+     * Plays many games on the board without writing the output file and prints the aggregate results.
+     *
+     * @param args the main function's arguments from the command line
+     */
+    private static void playBatch(String[] args) {
+        String checkpointFile = null;
+        if (args.length >= 2 && args[args.length - 2].equals("-checkpoint")) {
+            checkpointFile = args[args.length - 1];
+            args = Arrays.copyOf(args, args.length - 2);
+        }
+        if (args.length != 4 && args.length != 5) {
+            wrongParameters(args);
+            return;
+        }
+        long numberOfGames = 0;
+        int numberOfPlayers = 0;
+        double halfWidth = 0.0;
+        try {
+            numberOfGames = Long.parseLong(args[2]);
+            numberOfPlayers = Integer.parseInt(args[3]);
+            if (args.length == 5) {
+                halfWidth = Double.parseDouble(args[4]);
+            }
+        } catch (NumberFormatException e) {
+            wrongParameters(args);
+            return;
+        }
+        if (numberOfGames <= 0 || numberOfPlayers <= 0) {
+            wrongParameters(args);
+            return;
+        }
+        Board board = new Board();
+        board.loadBoard(args[1]);
+        System.out.println("Input file:" + " " + args[1]);
+        System.out.println("Number of players:" + " " + numberOfPlayers);
+        BatchSimulation simulation;
+        if (seed != null) {
+            simulation = new BatchSimulation(board, numberOfPlayers, seed);
+        }
+        else {
+            simulation = new BatchSimulation(board, numberOfPlayers);
+        }
+        if (checkpointFile != null) {
+            try {
+                if (simulation.resume(new Checkpoint(checkpointFile))) {
+                    System.out.println("Resumed from checkpoint:" + " " + checkpointFile);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Wrong checkpoint: " + e.getMessage());
+                System.exit(0);
+            }
+            if (seed != null && seed != simulation.getSeed()) {
+                System.out.println("Wrong checkpoint: the checkpoint was written with the seed " + simulation.getSeed());
+                System.exit(0);
+            }
+        }
+        System.out.println("Seed:" + " " + simulation.getSeed());
+        SimulationResult result = null;
+        try {
+            if (args.length == 5) {
+                result = simulation.runUntil(halfWidth, numberOfGames);
+            }
+            else {
+                result = simulation.run(numberOfGames);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Wrong checkpoint: " + e.getMessage());
+            System.exit(0);
+        } catch (UncheckedIOException e) {
+            System.out.println("The checkpoint cannot be written: " + e.getCause().getMessage());
+            System.exit(0);
+        }
+        System.out.println(result);
+    }
+
+    /**
+     * Computes the exact statistics of the board with its Markov chain and prints them.
+     *
+     * @param args the main function's arguments from the command line
+     */
+    private static void analyzeBoard(String[] args) {
+        if (args.length != 3) {
+            wrongParameters(args);
+            return;
+        }
+        int numberOfPlayers = 0;
+        try {
+            numberOfPlayers = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            wrongParameters(args);
+            return;
+        }
+        if (numberOfPlayers <= 0) {
+            wrongParameters(args);
+            return;
+        }
+        Board board = new Board();
+        board.loadBoard(args[1]);
+        System.out.println("Input file:" + " " + args[1]);
+        System.out.println("Number of players:" + " " + numberOfPlayers);
+        MarkovAnalyzer analyzer = new MarkovAnalyzer(board);
+        System.out.println("States: " + analyzer.getNumberOfStates() + " (" + analyzer.getNumberOfMergedStates() + " after merging)");
+        System.out.println("Expected turns of a single player: " + String.format("%.6f", analyzer.expectedTurnsFromEveryCell()[0]));
+        double[] distribution = analyzer.firstPassageDistribution(0, 1e-15, Integer.MAX_VALUE);
+        double[] length = MarkovAnalyzer.gameLengthDistribution(distribution, numberOfPlayers);
+        System.out.println("Expected rounds: " + String.format("%.6f", MarkovAnalyzer.expectedRounds(length)));
+        double[] wins = MarkovAnalyzer.winProbabilities(distribution, numberOfPlayers);
+        for (int i = 0; i < numberOfPlayers; i++) {
+            System.out.println("    -> Player " + (i + 1) + " wins: " + String.format("%.6f", wins[i]));
+        }
+    }
+
+    /**
+     * Converts a binary log to the text format read by the animation.
+     *
+     * @param args the main function's arguments from the command line
+     */
+    private static void convertLog(String[] args) {
+        if (args.length != 3) {
+            wrongParameters(args);
+            return;
+        }
+        reserveStandardOutput(args[2]);
+        BinaryLogReader.convert(args[1], args[2]);
+        System.out.println("Binary log:" + " " + args[1]);
+        System.out.println("Output file:" + " " + args[2]);
+    }
+
+    /**
+     * Plays the game of a record again and writes its log.
+     *
+     * @param args the main function's arguments from the command line
+     */
+    private static void replayRecord(String[] args) {
+        if (args.length != 3 && args.length != 4) {
+            wrongParameters(args);
+            return;
+        }
+        reserveStandardOutput(args[2]);
+        GameRecord.convert(args[1], args.length == 4 ? args[3] : null, args[2]);
+        System.out.println("Record:" + " " + args[1]);
+        System.out.println("Output file:" + " " + args[2]);
+    }
+
+    /**
+     * Creates the game, which keeps only its summary if the output file is a record.
+     * The game of a record rolls the seeded dice, so the seed is chosen now if it was not given.
+     *
+     * @param inputFile the input file
+     * @param outputFile the output file
+     * @return the game object
+     */
+    private static Game createGame(String inputFile, String outputFile) {
+        if (!outputFile.endsWith(GameRecord.EXTENSION)) {
+            return new Game(inputFile, outputFile);
+        }
+        if (seed == null) {
+            seed = new SplittableRandom().nextLong();
+        }
+        Board board = new Board();
+        board.loadBoard(inputFile);
+        return new Game(board, new SummaryLog(null));
+    }
+
+    /**
+     * Writes the record of the game, if the output file is a record.
+     *
+     * @param game the played game
+     * @param args the input file, the output file and the names of the players
+     */
+    private static void writeRecord(Game game, String[] args) {
+        if (!args[1].endsWith(GameRecord.EXTENSION)) {
+            return;
+        }
+        try {
+            new GameRecord(game.getBoard(), seed, Arrays.asList(args).subList(2, args.length)).write(args[1]);
+        } catch (IOException e) {
+            System.out.println("Cannot find the input file.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Loads the boards and starts the local HTTP service playing games on them, see GameService.
+     *
+     * @param args the main function's arguments from the command line
+     */
+    private static void serve(String[] args) {
+        if (args.length < 3) {
+            wrongParameters(args);
+            return;
+        }
+        int port = 0;
+        try {
+            port = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            wrongParameters(args);
+            return;
+        }
+        GameService service = null;
+        try {
+            service = new GameService(port);
+        } catch (IOException e) {
+            System.out.println("Cannot start the service on the port" + " " + port + ".");
+            System.exit(0);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Wrong service options: " + e.getMessage() + ".");
+            System.exit(0);
+        }
+        for (int i = 2; i < args.length; i++) {
+            Board board = new Board();
+            board.loadBoard(args[i]);
+            service.registerBoard(args[i], board);
+            System.out.println("Board:" + " " + args[i]);
+        }
+        service.start();
+        System.out.println("Service:" + " " + "http://localhost:" + service.getPort() + "/");
+    }
+
+    /**
+     * Plays every order of the players on every board and prints the standings and the win rates, see Tournament.
+     *
+     * @param args the main function's arguments from the command line
+     */
+    private static void playTournament(String[] args) {
+        if (args.length < 5 || (!args[2].equals("permutations") && !args[2].equals("rotations"))) {
+            wrongParameters(args);
+            return;
+        }
+        int gamesPerSeating = 0;
+        try {
+            gamesPerSeating = Integer.parseInt(args[3]);
+        } catch (NumberFormatException e) {
+            wrongParameters(args);
+            return;
+        }
+        List<String> boardNames = Arrays.asList(args[1].split(","));
+        List<Board> boards = new ArrayList<>();
+        for (String boardName : boardNames) {
+            Board board = new Board();
+            board.loadBoard(boardName);
+            boards.add(board);
+        }
+        long tournamentSeed = seed != null ? seed : new SplittableRandom().nextLong();
+        Tournament tournament = null;
+        try {
+            tournament = new Tournament(boardNames, boards, Arrays.asList(Arrays.copyOfRange(args, 4, args.length)),
+                    args[2].equals("permutations"), gamesPerSeating, tournamentSeed);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Wrong tournament: " + e.getMessage() + ".");
+            System.exit(0);
+        }
+        System.out.println("Input files:" + " " + String.join(", ", boardNames));
+        System.out.println("Seatings:" + " " + tournament.getNumberOfSeatings());
+        System.out.println(tournament.describeSeatings());
+        System.out.println("Seed:" + " " + tournamentSeed);
+        TournamentResult result = null;
+        try {
+            result = tournament.play();
+        } catch (InterruptedException e) {
+            System.out.println("The tournament has been interrupted.");
+            System.exit(0);
+        } catch (IllegalStateException e) {
+            System.out.println("The tournament has failed: " + e.getMessage() + ".");
+            System.exit(0);
+        }
+        System.out.println(result);
+    }
+
     /**
      * Creates a new array of the size specified by the number of players passed to the method.
      * Two first cells of the new array are equal to the parameters passed to the main function from the command line.
@@ -67,6 +490,13 @@ public class Main {
         System.out.println("The minimum number of parameters is 2");
         System.out.println("The minimum number of names is 0");
         System.out.println("Example of usage: java Main input.txt output.txt Name1 Name2 Name3 ...");
+        System.out.println("Batch mode: java Main -batch input.txt numberOfGames numberOfPlayers [confidenceHalfWidth] [-checkpoint file]");
+        System.out.println("Reproducible dice: java Main -seed number ...");
+        System.out.println("Analysis mode: java Main -analyze input.txt numberOfPlayers");
+        System.out.println("Binary log: java Main input.txt output.ocab Name1 Name2 ..., then java Main -convert output.ocab output.txt");
+        System.out.println("Game record: java Main input.txt game.ocar Name1 Name2 ..., then java Main -replay game.ocar output.txt [input.txt]");
+        System.out.println("Service mode: java Main -serve port input.txt ...");
+        System.out.println("Tournament mode: java Main -tournament input.txt,other.txt permutations|rotations gamesPerSeating Name1 Name2 ...");
     }
 
     /**
@@ -77,7 +507,7 @@ public class Main {
      */
     private static Game getGameCommandLine(String[] args) {
         Game game;
-        game = new Game(args[0], args[1]);
+        game = createGame(args[0], args[1]);
         System.out.println("Input file:" + " " + args[0]);
         System.out.println("Output file:" + " " + args[1]);
         System.out.println("Number of players:" + " " + (args.length - 2));
@@ -99,7 +529,7 @@ public class Main {
     private static Game getGamePlayers(String[] gameArgs) {
         BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
         Game game;
-        game = new Game(gameArgs[0], gameArgs[1]);
+        game = createGame(gameArgs[0], gameArgs[1]);
         System.out.println("Input file:" + " " + gameArgs[0]);
         System.out.println("Output file:" + " " + gameArgs[1]);
         System.out.println("Number of players:" + " " + (gameArgs.length - 2));
@@ -0,0 +1,495 @@
+/**
+ * Contains: EngineMetrics Class, EngineMetricsMBean Interface, Histogram Class, PrometheusEndpoint Class.
+ */
+package Metrics;
+
+import Cells.Cell;
+import Cells.DoubleRollCell;
+import Cells.GoBackCell;
+import Cells.GoForwardCell;
+import Cells.RegularCell;
+import Cells.StartCell;
+import Cells.StopCell;
+import Cells.TeleportCell;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class which holds the metrics of the engine: games, turns, time of the turns, hits of the cells,
+ * length of the chains of moves and writes of the output files.
+ *
+ * The metrics are recorded only if the system property oca.metrics is true or oca.metrics.port is set:
+ * ENABLED is a constant, so the checks of the disabled metrics are removed by the compiler of the JVM.
+ * The counters are striped, the threads recording at the same time do not contend.
+ * The metrics are published as a JMX MBean and, if oca.metrics.port is set, in the Prometheus text format
+ * at http://localhost:port/metrics.
+ */
+public class EngineMetrics implements EngineMetricsMBean {
+
+    /**
+     * True if the metrics are recorded.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("oca.metrics") || System.getProperty("oca.metrics.port") != null;
+
+    /**
+     * The name of the MBean.
+     */
+    public static final String OBJECT_NAME = "GiocoDellOca:type=EngineMetrics";
+
+    /**
+     * The names of the types of cells, in the order of the counters of the hits.
+     */
+    private static final String[] CELL_TYPES = {"StartCell", "RegularCell", "GoForwardCell", "GoBackCell",
+            "DoubleRollCell", "StopCell", "TeleportCell"};
+
+    /**
+     * The longest chain with its own bucket.
+     */
+    private static final int LONGEST_CHAIN = 16;
+
+    /**
+     * The metrics of the process.
+     */
+    private static final EngineMetrics METRICS = new EngineMetrics();
+
+    static {
+        if (ENABLED) {
+            METRICS.publish();
+        }
+    }
+
+    /**
+     * The number of finished games.
+     */
+    private LongAdder games;
+
+    /**
+     * The number of played turns.
+     */
+    private LongAdder turns;
+
+    /**
+     * The time of the turns of the games, in nanoseconds.
+     */
+    private Histogram turnLatency;
+
+    /**
+     * The number of hits of each type of cell.
+     */
+    private LongAdder[] cellHits;
+
+    /**
+     * The number of moves of the special cells which followed each dice roll.
+     */
+    private Histogram chainLength;
+
+    /**
+     * The number of bytes written to the output files.
+     */
+    private LongAdder outputBytes;
+
+    /**
+     * The time of the writes of the buffers of the output files, in nanoseconds.
+     */
+    private Histogram outputWriteLatency;
+
+    /**
+     * The rate of the games.
+     */
+    private Rate gamesRate;
+
+    /**
+     * The rate of the turns.
+     */
+    private Rate turnsRate;
+
+    /**
+     * The rate of the bytes of the output files.
+     */
+    private Rate outputBytesRate;
+
+    /**
+     * Constructor of the metrics, all zero.
+     */
+    private EngineMetrics() {
+        this.games = new LongAdder();
+        this.turns = new LongAdder();
+        this.turnLatency = new Histogram(Histogram.exponentialBounds(128, 22));
+        this.cellHits = new LongAdder[CELL_TYPES.length];
+        for (int i = 0; i < this.cellHits.length; i++) {
+            this.cellHits[i] = new LongAdder();
+        }
+        this.chainLength = new Histogram(Histogram.linearBounds(LONGEST_CHAIN));
+        this.outputBytes = new LongAdder();
+        this.outputWriteLatency = new Histogram(Histogram.exponentialBounds(1024, 21));
+        this.gamesRate = new Rate();
+        this.turnsRate = new Rate();
+        this.outputBytesRate = new Rate();
+    }
+
+    /**
+     * Gets the metrics of the process. The callers check ENABLED before recording.
+     *
+     * @return the metrics
+     */
+    public static EngineMetrics get() {
+        return METRICS;
+    }
+
+    /**
+     * Registers the MBean and starts the Prometheus endpoint if its port is set.
+     * The game goes on without the metrics which cannot be published.
+     */
+    private void publish() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.out.println("Cannot register the metrics MBean" + " " + OBJECT_NAME + ".");
+        }
+        String port = System.getProperty("oca.metrics.port");
+        if (port != null) {
+            try {
+                PrometheusEndpoint.start(Integer.parseInt(port), this);
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("Cannot publish the metrics on the port" + " " + port + ".");
+            }
+        }
+    }
+
+    /**
+     * Records a finished game.
+     */
+    public void recordGame() {
+        this.games.increment();
+    }
+
+    /**
+     * Records a played turn of a game.
+     *
+     * @param nanos the time of the turn in nanoseconds
+     */
+    public void recordTurn(long nanos) {
+        this.turns.increment();
+        this.turnLatency.record(nanos);
+    }
+
+    /**
+     * Records turns played without timing them, by the batch simulations.
+     *
+     * @param numberOfTurns the number of turns
+     */
+    public void recordTurns(long numberOfTurns) {
+        this.turns.add(numberOfTurns);
+    }
+
+    /**
+     * Records a player reaching a cell.
+     *
+     * @param cell the reached cell
+     */
+    public void recordCellHit(Cell cell) {
+        this.cellHits[cellType(cell)].increment();
+    }
+
+    /**
+     * Records a player reaching a regular cell, which the games do not create.
+     */
+    public void recordRegularCellHit() {
+        this.cellHits[1].increment();
+    }
+
+    /**
+     * Records the chain of moves which followed a dice roll.
+     *
+     * @param length the number of moves of the special cells
+     */
+    public void recordChain(int length) {
+        this.chainLength.record(length);
+    }
+
+    /**
+     * Records a write of the buffer of an output file.
+     *
+     * @param bytes the number of written bytes
+     * @param nanos the time of the write in nanoseconds
+     */
+    public void recordOutputWrite(long bytes, long nanos) {
+        this.outputBytes.add(bytes);
+        this.outputWriteLatency.record(nanos);
+    }
+
+    /**
+     * Finds the type of a cell.
+     *
+     * @param cell the cell
+     * @return the position of the type in CELL_TYPES
+     */
+    private static int cellType(Cell cell) {
+        if (cell instanceof RegularCell) {
+            return 1;
+        }
+        if (cell instanceof GoForwardCell) {
+            return 2;
+        }
+        if (cell instanceof GoBackCell) {
+            return 3;
+        }
+        if (cell instanceof DoubleRollCell) {
+            return 4;
+        }
+        if (cell instanceof StopCell) {
+            return 5;
+        }
+        if (cell instanceof TeleportCell) {
+            return 6;
+        }
+        return cell instanceof StartCell ? 0 : 1;
+    }
+
+    /**
+     * Gets the number of finished games.
+     *
+     * @return the number of games
+     */
+    @Override
+    public long getGames() {
+        return this.games.sum();
+    }
+
+    /**
+     * Gets the number of finished games per second.
+     *
+     * @return the rate of the games
+     */
+    @Override
+    public double getGamesPerSecond() {
+        return this.gamesRate.sample(this.games.sum());
+    }
+
+    /**
+     * Gets the number of played turns.
+     *
+     * @return the number of turns
+     */
+    @Override
+    public long getTurns() {
+        return this.turns.sum();
+    }
+
+    /**
+     * Gets the number of played turns per second.
+     *
+     * @return the rate of the turns
+     */
+    @Override
+    public double getTurnsPerSecond() {
+        return this.turnsRate.sample(this.turns.sum());
+    }
+
+    /**
+     * Gets the mean time of a turn of a game, the turns of the batch simulations are not timed.
+     *
+     * @return the mean time in nanoseconds
+     */
+    @Override
+    public double getTurnLatencyMeanNanos() {
+        return this.turnLatency.getMean();
+    }
+
+    /**
+     * Gets the bound of the time of half the turns.
+     *
+     * @return the bound of the bucket of the median, in nanoseconds
+     */
+    @Override
+    public long getTurnLatencyP50Nanos() {
+        return this.turnLatency.getQuantileBound(0.5);
+    }
+
+    /**
+     * Gets the bound of the time of 99% of the turns.
+     *
+     * @return the bound of the bucket of the 99th percentile, in nanoseconds
+     */
+    @Override
+    public long getTurnLatencyP99Nanos() {
+        return this.turnLatency.getQuantileBound(0.99);
+    }
+
+    /**
+     * Gets the names of the types of cells, in the order of getCellHits.
+     *
+     * @return the names of the classes of the cells
+     */
+    @Override
+    public String[] getCellTypes() {
+        return CELL_TYPES.clone();
+    }
+
+    /**
+     * Gets the number of times a player reached a cell of each type, with the dice or with a move of another cell.
+     *
+     * @return the number of hits of each type of cell
+     */
+    @Override
+    public long[] getCellHits() {
+        long[] hits = new long[this.cellHits.length];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = this.cellHits[i].sum();
+        }
+        return hits;
+    }
+
+    /**
+     * Gets the mean number of moves of the special cells which followed a dice roll.
+     *
+     * @return the mean length of the chains
+     */
+    @Override
+    public double getChainLengthMean() {
+        return this.chainLength.getMean();
+    }
+
+    /**
+     * Gets the number of chains of each length, the last count is for the longer chains.
+     *
+     * @return the number of chains of each length
+     */
+    @Override
+    public long[] getChainLengthCounts() {
+        return this.chainLength.getCounts();
+    }
+
+    /**
+     * Gets the number of bytes written to the output files.
+     *
+     * @return the number of bytes
+     */
+    @Override
+    public long getOutputBytes() {
+        return this.outputBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes written to the output files per second.
+     *
+     * @return the rate of the bytes
+     */
+    @Override
+    public double getOutputBytesPerSecond() {
+        return this.outputBytesRate.sample(this.outputBytes.sum());
+    }
+
+    /**
+     * Gets the number of writes of the buffers of the output files.
+     *
+     * @return the number of writes
+     */
+    @Override
+    public long getOutputWrites() {
+        return this.outputWriteLatency.getCount();
+    }
+
+    /**
+     * Gets the mean time of a write of the buffer of an output file.
+     *
+     * @return the mean time in nanoseconds
+     */
+    @Override
+    public double getOutputWriteLatencyMeanNanos() {
+        return this.outputWriteLatency.getMean();
+    }
+
+    /**
+     * Gets the bound of the time of 99% of the writes of the buffers of the output files.
+     *
+     * @return the bound of the bucket of the 99th percentile, in nanoseconds
+     */
+    @Override
+    public long getOutputWriteLatencyP99Nanos() {
+        return this.outputWriteLatency.getQuantileBound(0.99);
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format.
+     *
+     * @return the metrics as a text
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        appendCounter(out, "oca_games_total", "Finished games.", this.getGames());
+        appendCounter(out, "oca_turns_total", "Played turns, of the games and of the batch simulations.", this.getTurns());
+        this.turnLatency.appendPrometheus(out, "oca_turn_duration_seconds", "Time of the turns of the games.", 1e-9);
+        out.append("# HELP oca_cell_hits_total Players reaching a cell, by type of cell.\n");
+        out.append("# TYPE oca_cell_hits_total counter\n");
+        long[] hits = this.getCellHits();
+        for (int i = 0; i < hits.length; i++) {
+            out.append("oca_cell_hits_total{type=\"").append(CELL_TYPES[i]).append("\"} ").append(hits[i]).append('\n');
+        }
+        this.chainLength.appendPrometheus(out, "oca_chain_length", "Moves of the special cells after a dice roll.", 1);
+        appendCounter(out, "oca_output_bytes_total", "Bytes written to the output files.", this.getOutputBytes());
+        this.outputWriteLatency.appendPrometheus(out, "oca_output_write_duration_seconds", "Time of the writes of the output buffers.", 1e-9);
+        return out.toString();
+    }
+
+    /**
+     * Writes a counter in the Prometheus text format.
+     *
+     * @param out the destination of the text
+     * @param name the name of the counter
+     * @param help the description of the counter
+     * @param value the value of the counter
+     */
+    private static void appendCounter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * The class which measures the rate of a counter over windows of at least one second.
+     * It is read only by the publishers of the metrics, never on the hot path.
+     */
+    private static class Rate {
+
+        /**
+         * The shortest window, in nanoseconds.
+         */
+        private static final long WINDOW = 1_000_000_000L;
+
+        /**
+         * The time of the start of the current window.
+         */
+        private long windowStart = System.nanoTime();
+
+        /**
+         * The value of the counter at the start of the current window.
+         */
+        private long windowValue = 0;
+
+        /**
+         * The rate of the last completed window.
+         */
+        private double rate = 0.0;
+
+        /**
+         * Closes the window if it is long enough and gets the rate of the last completed window.
+         *
+         * @param value the current value of the counter
+         * @return the rate per second
+         */
+        synchronized double sample(long value) {
+            long now = System.nanoTime();
+            if (now - this.windowStart >= WINDOW) {
+                this.rate = (value - this.windowValue) * 1e9 / (now - this.windowStart);
+                this.windowStart = now;
+                this.windowValue = value;
+            }
+            return this.rate;
+        }
+    }
+}
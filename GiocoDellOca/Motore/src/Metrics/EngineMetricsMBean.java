@@ -0,0 +1,123 @@
+/**
+ * Contains: EngineMetrics Class, EngineMetricsMBean Interface, Histogram Class, PrometheusEndpoint Class.
+ */
+package Metrics;
+
+/**
+ * The management interface of the metrics of the engine, published as the MBean "GiocoDellOca:type=EngineMetrics".
+ * The rates are measured over the last window of at least one second.
+ */
+public interface EngineMetricsMBean {
+
+    /**
+     * Gets the number of finished games.
+     *
+     * @return the number of games
+     */
+    long getGames();
+
+    /**
+     * Gets the number of finished games per second.
+     *
+     * @return the rate of the games
+     */
+    double getGamesPerSecond();
+
+    /**
+     * Gets the number of played turns.
+     *
+     * @return the number of turns
+     */
+    long getTurns();
+
+    /**
+     * Gets the number of played turns per second.
+     *
+     * @return the rate of the turns
+     */
+    double getTurnsPerSecond();
+
+    /**
+     * Gets the mean time of a turn of a game, the turns of the batch simulations are not timed.
+     *
+     * @return the mean time in nanoseconds
+     */
+    double getTurnLatencyMeanNanos();
+
+    /**
+     * Gets the bound of the time of half the turns.
+     *
+     * @return the bound of the bucket of the median, in nanoseconds
+     */
+    long getTurnLatencyP50Nanos();
+
+    /**
+     * Gets the bound of the time of 99% of the turns.
+     *
+     * @return the bound of the bucket of the 99th percentile, in nanoseconds
+     */
+    long getTurnLatencyP99Nanos();
+
+    /**
+     * Gets the names of the types of cells, in the order of getCellHits.
+     *
+     * @return the names of the classes of the cells
+     */
+    String[] getCellTypes();
+
+    /**
+     * Gets the number of times a player reached a cell of each type, with the dice or with a move of another cell.
+     *
+     * @return the number of hits of each type of cell
+     */
+    long[] getCellHits();
+
+    /**
+     * Gets the mean number of moves of the special cells which followed a dice roll.
+     *
+     * @return the mean length of the chains
+     */
+    double getChainLengthMean();
+
+    /**
+     * Gets the number of chains of each length, the last count is for the longer chains.
+     *
+     * @return the number of chains of each length
+     */
+    long[] getChainLengthCounts();
+
+    /**
+     * Gets the number of bytes written to the output files.
+     *
+     * @return the number of bytes
+     */
+    long getOutputBytes();
+
+    /**
+     * Gets the number of bytes written to the output files per second.
+     *
+     * @return the rate of the bytes
+     */
+    double getOutputBytesPerSecond();
+
+    /**
+     * Gets the number of writes of the buffers of the output files.
+     *
+     * @return the number of writes
+     */
+    long getOutputWrites();
+
+    /**
+     * Gets the mean time of a write of the buffer of an output file.
+     *
+     * @return the mean time in nanoseconds
+     */
+    double getOutputWriteLatencyMeanNanos();
+
+    /**
+     * Gets the bound of the time of 99% of the writes of the buffers of the output files.
+     *
+     * @return the bound of the bucket of the 99th percentile, in nanoseconds
+     */
+    long getOutputWriteLatencyP99Nanos();
+}
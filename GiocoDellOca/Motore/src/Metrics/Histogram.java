@@ -0,0 +1,198 @@
+/**
+ * Contains: EngineMetrics Class, EngineMetricsMBean Interface, Histogram Class, PrometheusEndpoint Class.
+ */
+package Metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class which counts the recorded values in buckets with fixed upper bounds.
+ * Every bucket is a striped counter, so the threads recording at the same time do not contend.
+ */
+public class Histogram {
+
+    /**
+     * The upper bounds of the buckets, inclusive and increasing, the last bucket has no bound.
+     */
+    private long[] bounds;
+
+    /**
+     * The number of values of each bucket.
+     */
+    private LongAdder[] counts;
+
+    /**
+     * The sum of the recorded values.
+     */
+    private LongAdder sum;
+
+    /**
+     * Constructor of the histogram.
+     *
+     * @param bounds the upper bounds of the buckets, inclusive and increasing
+     */
+    public Histogram(long[] bounds) {
+        this.bounds = bounds.clone();
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = new LongAdder();
+        }
+        this.sum = new LongAdder();
+    }
+
+    /**
+     * Builds bounds which double from one bucket to the next.
+     *
+     * @param first the bound of the first bucket
+     * @param numberOfBounds the number of bounds
+     * @return the bounds
+     */
+    public static long[] exponentialBounds(long first, int numberOfBounds) {
+        long[] bounds = new long[numberOfBounds];
+        for (int i = 0; i < numberOfBounds; i++) {
+            bounds[i] = first << i;
+        }
+        return bounds;
+    }
+
+    /**
+     * Builds one bound for every value from 0 to the last bound.
+     *
+     * @param last the bound of the last bucket
+     * @return the bounds
+     */
+    public static long[] linearBounds(int last) {
+        long[] bounds = new long[last + 1];
+        for (int i = 0; i <= last; i++) {
+            bounds[i] = i;
+        }
+        return bounds;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        int bucket = Arrays.binarySearch(this.bounds, value);
+        this.counts[bucket >= 0 ? bucket : -bucket - 1].increment();
+        this.sum.add(value);
+    }
+
+    /**
+     * Gets the upper bounds of the buckets.
+     *
+     * @return the bounds, the last bucket has no bound
+     */
+    public long[] getBounds() {
+        return this.bounds.clone();
+    }
+
+    /**
+     * Gets the number of values of each bucket.
+     *
+     * @return the counts, one more than the bounds
+     */
+    public long[] getCounts() {
+        long[] counts = new long[this.counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.counts[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : this.counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the sum of the recorded values.
+     *
+     * @return the sum
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return the mean, 0 if no value was recorded
+     */
+    public double getMean() {
+        long count = this.getCount();
+        return count == 0 ? 0.0 : (double) this.getSum() / count;
+    }
+
+    /**
+     * Gets the upper bound of the bucket holding the given quantile.
+     *
+     * @param quantile the quantile, from 0 to 1
+     * @return the bound of the bucket, Long.MAX_VALUE for the last bucket, 0 if no value was recorded
+     */
+    public long getQuantileBound(double quantile) {
+        long[] counts = this.getCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < this.bounds.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return this.bounds[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Writes the histogram in the Prometheus text format, with cumulative buckets.
+     *
+     * @param out the destination of the text
+     * @param name the name of the metric
+     * @param help the description of the metric
+     * @param scale the factor converting the recorded values to the unit of the metric
+     */
+    public void appendPrometheus(StringBuilder out, String name, String help, double scale) {
+        long[] counts = this.getCounts();
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String bound = i < this.bounds.length ? formatValue(this.bounds[i] * scale) : "+Inf";
+            out.append(name).append("_bucket{le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+        }
+        out.append(name).append("_sum ").append(formatValue(this.getSum() * scale)).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+    }
+
+    /**
+     * Formats a value of a metric, without decimals if it is an integer.
+     *
+     * @param value the value
+     * @return the value as a text
+     */
+    static String formatValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Contains: EngineMetrics Class, EngineMetricsMBean Interface, Histogram Class, PrometheusEndpoint Class.
+ */
+package Metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The class which sends the metrics of the engine in the Prometheus text format at http://localhost:port/metrics.
+ * The server runs on daemon threads, so it does not keep a finished game alive.
+ */
+public class PrometheusEndpoint {
+
+    /**
+     * The content type of the Prometheus text format.
+     */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Starts the endpoint.
+     *
+     * @param port the local port
+     * @param metrics the published metrics
+     * @return the started server
+     * @throws IOException if the port cannot be opened
+     */
+    public static HttpServer start(int port, EngineMetrics metrics) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> send(exchange, metrics));
+        //The dispatcher of the server inherits the daemon status of the thread which starts it.
+        Thread starter = new Thread(server::start, "oca-metrics");
+        starter.setDaemon(true);
+        starter.start();
+        try {
+            starter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return server;
+    }
+
+    /**
+     * Sends the metrics, or 405 if the request is not a GET.
+     *
+     * @param exchange the request and its response
+     * @param metrics the published metrics
+     * @throws IOException if the response cannot be sent
+     */
+    private static void send(HttpExchange exchange, EngineMetrics metrics) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,490 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import Cells.Cell;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The class which hands the events of the game to another log written by a dedicated thread.
+ * The events go through a bounded ring buffer with one producer, the game, and one consumer, the writer thread:
+ * every event is a few ints and at most one reference, so handing it off allocates nothing and never touches the disk.
+ * When the ring buffer is full the game waits for the writer thread to catch up.
+ * If the log fails in the writer thread, the failure is thrown again to the game while it waits for space or finishes.
+ */
+public class AsyncGameLog implements GameLog {
+
+    /**
+     * The number of ints of one event in the ring buffer.
+     */
+    private static final int EVENT_SIZE = 4;
+
+    /**
+     * The time waited when the ring buffer is full or empty.
+     */
+    private static final long PARK_NANOS = 20_000;
+
+    /**
+     * The number of times the writer thread checks the empty ring buffer before waiting.
+     */
+    private static final int SPINS = 100;
+
+    /**
+     * The event of the beginning of the log.
+     */
+    private static final int BEGIN = 0;
+
+    /**
+     * The event of the end of the log, the writer thread stops after it.
+     */
+    private static final int FINISH = 1;
+
+    /**
+     * The event with the number of cells.
+     */
+    private static final int NUMBER_OF_CELLS = 2;
+
+    /**
+     * The event with the number and the name of a player.
+     */
+    private static final int PLAYER = 3;
+
+    /**
+     * The event of the end of the turn.
+     */
+    private static final int END_TURN = 4;
+
+    /**
+     * The event of the start of the turn.
+     */
+    private static final int PLAYER_TURN = 5;
+
+    /**
+     * The event of the dice roll.
+     */
+    private static final int DICE_ROLL = 6;
+
+    /**
+     * The event of the move within the board.
+     */
+    private static final int PRIMARY_ANIMATION_WITHIN = 7;
+
+    /**
+     * The event of the move bouncing back from the end of the board.
+     */
+    private static final int PRIMARY_ANIMATION_OUT = 8;
+
+    /**
+     * The event of the action of a cell.
+     */
+    private static final int SECONDARY_ANIMATION = 9;
+
+    /**
+     * The event of the victory.
+     */
+    private static final int VICTORY = 10;
+
+    /**
+     * The event of the move within the board to a regular cell.
+     */
+    private static final int MOVE_WITHIN = 11;
+
+    /**
+     * The event of the move bouncing back from the end of the board to a regular cell.
+     */
+    private static final int MOVE_OUT = 12;
+
+    /**
+     * The event of the action of a regular cell.
+     */
+    private static final int REGULAR_CELL = 13;
+
+    /**
+     * The log written by the writer thread.
+     */
+    private GameLog log;
+
+    /**
+     * The tags and the numbers of the events, EVENT_SIZE ints for each slot.
+     */
+    private int[] events;
+
+    /**
+     * The cell or the name of the event of each slot.
+     */
+    private Object[] references;
+
+    /**
+     * The mask of the index of a slot, the number of slots is a power of two.
+     */
+    private int mask;
+
+    /**
+     * The number of events published by the game.
+     */
+    private AtomicLong tail;
+
+    /**
+     * The number of events written by the writer thread.
+     */
+    private AtomicLong head;
+
+    /**
+     * The number of events written known by the game, it is read again only when the ring buffer looks full.
+     */
+    private long cachedHead;
+
+    /**
+     * The writer thread.
+     */
+    private Thread writer;
+
+    /**
+     * The exception which stopped the writer thread, null while the log is written.
+     */
+    private volatile Throwable failure;
+
+    /**
+     * Constructor of the asynchronous log.
+     * Starts the writer thread.
+     *
+     * @param log the log written by the writer thread
+     * @param capacity the number of events of the ring buffer, rounded up to a power of two
+     */
+    public AsyncGameLog(GameLog log, int capacity) {
+        int slots = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.log = log;
+        this.events = new int[slots * EVENT_SIZE];
+        this.references = new Object[slots];
+        this.mask = slots - 1;
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+        this.cachedHead = 0;
+        this.failure = null;
+        this.writer = new Thread(this::writeEvents, "oca-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Publishes an event with two numbers, waiting while the ring buffer is full.
+     *
+     * @param tag the event
+     * @param a the first number of the event
+     * @param b the second number of the event
+     * @param reference the cell or the name of the event
+     */
+    private void publish(int tag, int a, int b, Object reference) {
+        this.publish(tag, a, b, 0, reference);
+    }
+
+    /**
+     * Publishes an event, waiting while the ring buffer is full.
+     * The waiting stops if the writer thread has failed.
+     *
+     * @param tag the event
+     * @param a the first number of the event
+     * @param b the second number of the event
+     * @param c the third number of the event
+     * @param reference the cell or the name of the event
+     */
+    private void publish(int tag, int a, int b, int c, Object reference) {
+        long next = this.tail.get();
+        while (next - this.cachedHead > this.mask) {
+            this.cachedHead = this.head.get();
+            if (next - this.cachedHead > this.mask) {
+                this.checkFailure();
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        int slot = (int) next & this.mask;
+        int offset = slot * EVENT_SIZE;
+        this.events[offset] = tag;
+        this.events[offset + 1] = a;
+        this.events[offset + 2] = b;
+        this.events[offset + 3] = c;
+        this.references[slot] = reference;
+        this.tail.lazySet(next + 1);
+    }
+
+    /**
+     * Throws again the exception which stopped the writer thread, if any.
+     *
+     * @throws RuntimeException if the log failed with it
+     * @throws Error if the log failed with it
+     */
+    private void checkFailure() {
+        Throwable failure = this.failure;
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    /**
+     * The body of the writer thread, writes the events to the log until the game finishes.
+     * An exception of the log stops the thread and is kept for the game.
+     */
+    private void writeEvents() {
+        try {
+            this.writeEventsUntilFinish();
+        } catch (Throwable e) {
+            this.failure = e;
+        }
+    }
+
+    /**
+     * Writes the events to the log until the event which finishes it.
+     */
+    private void writeEventsUntilFinish() {
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            long available = this.tail.get();
+            if (next == available) {
+                if (++idle > SPINS) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            idle = 0;
+            while (next < available) {
+                int slot = (int) next & this.mask;
+                Object reference = this.references[slot];
+                this.references[slot] = null;
+                boolean finished = this.writeEvent(slot * EVENT_SIZE, reference);
+                next++;
+                this.head.lazySet(next);
+                if (finished) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes one event to the log.
+     *
+     * @param offset the position of the event in the ring buffer
+     * @param reference the cell or the name of the event
+     * @return true if the event finished the log
+     */
+    private boolean writeEvent(int offset, Object reference) {
+        int a = this.events[offset + 1];
+        int b = this.events[offset + 2];
+        int c = this.events[offset + 3];
+        switch (this.events[offset]) {
+            case BEGIN:
+                this.log.begin();
+                break;
+            case FINISH:
+                this.log.finish();
+                return true;
+            case NUMBER_OF_CELLS:
+                this.log.printNumberOfCells(a);
+                break;
+            case PLAYER:
+                this.log.printPlayer(a, (String) reference);
+                break;
+            case END_TURN:
+                this.log.printEndTurn();
+                break;
+            case PLAYER_TURN:
+                this.log.printPlayerTurn(a);
+                break;
+            case DICE_ROLL:
+                this.log.printDiceRoll(a);
+                break;
+            case PRIMARY_ANIMATION_WITHIN:
+                this.log.printPrimaryAnimationWithin((Cell) reference, a);
+                break;
+            case PRIMARY_ANIMATION_OUT:
+                this.log.printPrimaryAnimationOut((Cell) reference, a, b);
+                break;
+            case SECONDARY_ANIMATION:
+                this.log.printSecondaryAnimation((Cell) reference, a);
+                break;
+            case VICTORY:
+                this.log.printVictory((String) reference, a, b);
+                break;
+            case MOVE_WITHIN:
+                this.log.printMoveWithin(a, b);
+                break;
+            case MOVE_OUT:
+                this.log.printMoveOut(a, b, c);
+                break;
+            case REGULAR_CELL:
+                this.log.printRegularCell(a);
+                break;
+            default:
+                throw new IllegalStateException("unknown event " + this.events[offset]);
+        }
+        return false;
+    }
+
+    /**
+     * Prints initial command to the output file.
+     */
+    @Override
+    public void begin() {
+        this.publish(BEGIN, 0, 0, null);
+    }
+
+    /**
+     * Waits for the writer thread to write all the events and to close the output file.
+     *
+     * @throws RuntimeException if the log failed in the writer thread
+     * @throws Error if the log failed in the writer thread
+     */
+    @Override
+    public void finish() {
+        this.publish(FINISH, 0, 0, null);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
+        }
+        this.checkFailure();
+    }
+
+    /**
+     * Prints the number of cells to the output file.
+     *
+     * @param numberOfCells the number of the cells in the game's board
+     */
+    @Override
+    public void printNumberOfCells(int numberOfCells) {
+        this.publish(NUMBER_OF_CELLS, numberOfCells, 0, null);
+    }
+
+    /**
+     * Defines a player in the output file.
+     *
+     * @param number the player's number
+     * @param name the name of the player
+     */
+    @Override
+    public void printPlayer(int number, String name) {
+        this.publish(PLAYER, number, 0, name);
+    }
+
+    /**
+     * Prints "end of the turn" message to the output file.
+     */
+    @Override
+    public void printEndTurn() {
+        this.publish(END_TURN, 0, 0, null);
+    }
+
+    /**
+     * Prints start of the turn command to the output file.
+     *
+     * @param number the number of the player who is performing the turn
+     */
+    @Override
+    public void printPlayerTurn(int number) {
+        this.publish(PLAYER_TURN, number, 0, null);
+    }
+
+    /**
+     * Prints dice roll result to the output file.
+     *
+     * @param diceRoll the result of the dice roll
+     */
+    @Override
+    public void printDiceRoll(int diceRoll) {
+        this.publish(DICE_ROLL, diceRoll, 0, null);
+    }
+
+    /**
+     * Prints player's move animation command to the output file.
+     * Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     */
+    @Override
+    public void printPrimaryAnimationWithin(Cell cell, int fromIndex) {
+        this.publish(PRIMARY_ANIMATION_WITHIN, fromIndex, 0, cell);
+    }
+
+    /**
+     * Prints player's move animation command to the output file.
+     * Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     */
+    @Override
+    public void printPrimaryAnimationOut(Cell cell, int fromIndex, int boardSize) {
+        this.publish(PRIMARY_ANIMATION_OUT, fromIndex, boardSize, cell);
+    }
+
+    /**
+     * Prints the animation of the action of the cell reached by the player to the output file.
+     *
+     * @param cell the cell reached by the player
+     * @param diceRoll the result of the dice roll
+     */
+    @Override
+    public void printSecondaryAnimation(Cell cell, int diceRoll) {
+        this.publish(SECONDARY_ANIMATION, diceRoll, 0, cell);
+    }
+
+    /**
+     * Prints player's move animation command to the output file, when the cell reached with the dice roll is a
+     * regular cell. Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    @Override
+    public void printMoveWithin(int fromIndex, int index) {
+        this.publish(MOVE_WITHIN, fromIndex, index, null);
+    }
+
+    /**
+     * Prints player's move animation command to the output file, when the cell reached with the dice roll is a
+     * regular cell. Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    @Override
+    public void printMoveOut(int fromIndex, int boardSize, int index) {
+        this.publish(MOVE_OUT, fromIndex, boardSize, index, null);
+    }
+
+    /**
+     * Prints the animation of a regular cell reached by the player to the output file.
+     *
+     * @param index the index of the regular cell
+     */
+    @Override
+    public void printRegularCell(int index) {
+        this.publish(REGULAR_CELL, index, 0, null);
+    }
+
+    /**
+     * Prints the final player's move animation command, and the victory command to the output file.
+     *
+     * @param name the name of the player who is performing the turn
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param afterRollIndex the index of the cell where the player arrived after the dice roll, in this case the final cell
+     */
+    @Override
+    public void printVictory(String name, int fromIndex, int afterRollIndex) {
+        this.publish(VICTORY, fromIndex, afterRollIndex, name);
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+/**
+ * The class which defines the binary format of the game's log.
+ *
+ * The file starts with the magic bytes "OCAB" and the version of the format, followed by the dictionary
+ * of the special cells of the board: their number and, for each of them, the index, the type, the parameter
+ * and the description. Every following event is one tag byte followed by its unsigned varints:
+ * the cells are referred to by index and the positions are zigzag-encoded differences from the previous position
+ * of the player, so a whole turn usually takes a few bytes.
+ * The dice roll is stored in its tag.
+ */
+public final class BinaryLog {
+
+    /**
+     * The magic bytes at the start of every binary log.
+     */
+    static final byte[] MAGIC = {'O', 'C', 'A', 'B'};
+
+    /**
+     * The version of the format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The event with the number of cells of the board.
+     */
+    static final int NUMBER_OF_CELLS = 1;
+
+    /**
+     * The event with the number and the name of a player.
+     */
+    static final int PLAYER = 2;
+
+    /**
+     * The event with the number of the player starting the turn.
+     */
+    static final int TURN = 3;
+
+    /**
+     * The event of the end of the turn.
+     */
+    static final int END_TURN = 4;
+
+    /**
+     * The event of the move within the board, with the difference between the reached cell and the position.
+     */
+    static final int MOVE_WITHIN = 5;
+
+    /**
+     * The event of the move bouncing back from the end of the board, with the difference between the reached cell and the position.
+     */
+    static final int MOVE_OUT = 6;
+
+    /**
+     * The event of the action of a cell, with the difference between the cell and the position.
+     */
+    static final int CELL_ACTION = 7;
+
+    /**
+     * The event of the victory, with the difference between the final cell and the position.
+     */
+    static final int VICTORY = 8;
+
+    /**
+     * The event of the dice roll, the tag is DICE_ROLL plus the result of the roll.
+     */
+    static final int DICE_ROLL = 16;
+
+    /**
+     * The type of the go-forward cells in the dictionary, the parameter is the number of cells forward.
+     */
+    static final int GO_FORWARD_CELL = 1;
+
+    /**
+     * The type of the go-back cells in the dictionary, the parameter is the number of cells back.
+     */
+    static final int GO_BACK_CELL = 2;
+
+    /**
+     * The type of the double-roll cells in the dictionary, the parameter is 0.
+     */
+    static final int DOUBLE_ROLL_CELL = 3;
+
+    /**
+     * The type of the stop cells in the dictionary, the parameter is the number of turns to wait.
+     */
+    static final int STOP_CELL = 4;
+
+    /**
+     * The type of the teleport cells in the dictionary, the parameter is the index of the destination cell.
+     */
+    static final int TELEPORT_CELL = 5;
+
+    /**
+     * The class holds only constants.
+     */
+    private BinaryLog() {
+    }
+
+    /**
+     * Maps a signed difference to an unsigned number, the small differences of both signs stay small.
+     *
+     * @param value the signed difference
+     * @return the zigzag-encoded difference
+     */
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Maps a zigzag-encoded number back to the signed difference.
+     *
+     * @param value the zigzag-encoded difference
+     * @return the signed difference
+     */
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,366 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import Cells.Cell;
+import Cells.DoubleRollCell;
+import Cells.GoBackCell;
+import Cells.GoForwardCell;
+import Cells.StartCell;
+import Cells.StopCell;
+import Cells.TeleportCell;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The class which reads a log written in the binary format and replays its events into another log.
+ * Replaying into Output converts the binary log to the text format read by AnimazioneOca.
+ * The file is read as a stream, only the special cells of the board and the positions of the players are kept in memory:
+ * as in the game, the special cells are found by index with a binary search and the regular cells are replayed by index.
+ * A binary log compressed in the gzip format is recognized by its magic bytes and decompressed while it is read.
+ */
+public class BinaryLogReader {
+
+    /**
+     * The largest length in bytes of a name or a description read from the binary log.
+     */
+    private static final int MAXIMUM_STRING_LENGTH = 1 << 20;
+
+    /**
+     * The binary log.
+     */
+    private InputStream in;
+
+    /**
+     * The indexes of the special cells of the dictionary, in ascending order.
+     */
+    private int[] specialIndexes;
+
+    /**
+     * The special cells of the dictionary, in the order of their indexes.
+     */
+    private Cell[] specialCells;
+
+    /**
+     * The start cell of the board.
+     */
+    private Cell startCell;
+
+    /**
+     * The number of the cells of the board, -1 until it is read.
+     */
+    private int numberOfCells;
+
+    /**
+     * The names of the players, by number.
+     */
+    private String[] names;
+
+    /**
+     * The positions of the players, by number.
+     */
+    private int[] positions;
+
+    /**
+     * Constructor of the reader.
+     * Opens the binary log.
+     *
+     * @param binaryFile the binary log
+     */
+    public BinaryLogReader(String binaryFile) {
+        this.names = new String[0];
+        this.positions = new int[0];
+        this.startCell = new StartCell(0);
+        this.numberOfCells = -1;
+        try {
+            this.in = new BufferedInputStream(new FileInputStream("./" + binaryFile));
+            //Checks the magic bytes of the gzip format.
+            this.in.mark(2);
+            int first = this.in.read();
+            int second = this.in.read();
+            this.in.reset();
+            if (first == 0x1f && second == 0x8b) {
+                this.in = new BufferedInputStream(new GZIPInputStream(this.in));
+            }
+        } catch (IOException e) {
+            System.out.println("Cannot find the binary log.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Converts a binary log to the text format.
+     *
+     * @param binaryFile the binary log
+     * @param textFile the output file in the text format
+     */
+    public static void convert(String binaryFile, String textFile) {
+        new BinaryLogReader(binaryFile).replay(new Output(textFile));
+    }
+
+    /**
+     * Reads all the events of the binary log and replays them into the log.
+     *
+     * @param log the log receiving the events
+     */
+    public void replay(GameLog log) {
+        try {
+            this.readHeader();
+            log.begin();
+            int player = 0;
+            int position = 0;
+            int diceRoll = 0;
+            int tag;
+            while ((tag = this.in.read()) != -1) {
+                switch (tag) {
+                    case BinaryLog.NUMBER_OF_CELLS: {
+                        this.numberOfCells = this.readVarint();
+                        if (this.numberOfCells < 0) {
+                            throw new IOException("wrong number of cells");
+                        }
+                        log.printNumberOfCells(this.numberOfCells);
+                        break;
+                    }
+                    case BinaryLog.PLAYER: {
+                        int number = this.readVarint();
+                        this.addPlayer(number, this.readString());
+                        log.printPlayer(number, this.names[number]);
+                        break;
+                    }
+                    case BinaryLog.TURN:
+                        player = this.readVarint();
+                        position = this.positions[player];
+                        log.printPlayerTurn(player);
+                        break;
+                    case BinaryLog.END_TURN:
+                        log.printEndTurn();
+                        break;
+                    case BinaryLog.MOVE_WITHIN: {
+                        int index = this.checkIndex(position + BinaryLog.unzigzag(this.readVarint()));
+                        Cell cell = this.getSpecialCell(index);
+                        if (cell != null) {
+                            log.printPrimaryAnimationWithin(cell, position);
+                        }
+                        else {
+                            log.printMoveWithin(position, index);
+                        }
+                        position = index;
+                        this.positions[player] = position;
+                        break;
+                    }
+                    case BinaryLog.MOVE_OUT: {
+                        int index = this.checkIndex(position + BinaryLog.unzigzag(this.readVarint()));
+                        Cell cell = this.getSpecialCell(index);
+                        if (cell != null) {
+                            log.printPrimaryAnimationOut(cell, position, this.numberOfCells + 1);
+                        }
+                        else {
+                            log.printMoveOut(position, this.numberOfCells + 1, index);
+                        }
+                        position = index;
+                        this.positions[player] = position;
+                        break;
+                    }
+                    case BinaryLog.CELL_ACTION: {
+                        position = this.checkIndex(position + BinaryLog.unzigzag(this.readVarint()));
+                        Cell cell = this.getSpecialCell(position);
+                        if (cell != null) {
+                            log.printSecondaryAnimation(cell, diceRoll);
+                        }
+                        else {
+                            log.printRegularCell(position);
+                        }
+                        this.positions[player] = position;
+                        break;
+                    }
+                    case BinaryLog.VICTORY: {
+                        int afterRollIndex = position + BinaryLog.unzigzag(this.readVarint());
+                        log.printVictory(this.names[player], position, afterRollIndex);
+                        break;
+                    }
+                    default:
+                        if (tag <= BinaryLog.DICE_ROLL || tag > BinaryLog.DICE_ROLL + 6) {
+                            throw new IOException("unknown event " + tag);
+                        }
+                        diceRoll = tag - BinaryLog.DICE_ROLL;
+                        log.printDiceRoll(diceRoll);
+                }
+            }
+            this.in.close();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Wrong binary log format.");
+            System.exit(0);
+        }
+        log.finish();
+    }
+
+    /**
+     * Reads the magic bytes, the version and the dictionary of the special cells.
+     * The special cells are written in ascending order of index, so they are kept as a sorted array as in the board.
+     *
+     * @throws IOException if the file is not a binary log or the dictionary is not sorted
+     */
+    private void readHeader() throws IOException {
+        for (byte b : BinaryLog.MAGIC) {
+            if (this.readByte() != b) {
+                throw new IOException("not a binary log");
+            }
+        }
+        if (this.readByte() != BinaryLog.VERSION) {
+            throw new IOException("unknown version");
+        }
+        int numberOfSpecialCells = this.readVarint();
+        if (numberOfSpecialCells < 0) {
+            throw new IOException("wrong number of special cells");
+        }
+        //The arrays grow with the cells actually read, not with the number written in the file.
+        this.specialIndexes = new int[Math.min(numberOfSpecialCells, 16)];
+        this.specialCells = new Cell[this.specialIndexes.length];
+        int previous = -1;
+        for (int i = 0; i < numberOfSpecialCells; i++) {
+            int index = this.readVarint();
+            int type = this.readByte();
+            int parameter = this.readVarint();
+            String description = this.readString();
+            if (index <= previous) {
+                throw new IOException("the special cells are not in ascending order");
+            }
+            previous = index;
+            if (i == this.specialIndexes.length) {
+                this.specialIndexes = Arrays.copyOf(this.specialIndexes, 2 * i);
+                this.specialCells = Arrays.copyOf(this.specialCells, 2 * i);
+            }
+            this.specialIndexes[i] = index;
+            this.specialCells[i] = createCell(index, type, parameter, description);
+        }
+        this.specialIndexes = Arrays.copyOf(this.specialIndexes, numberOfSpecialCells);
+        this.specialCells = Arrays.copyOf(this.specialCells, numberOfSpecialCells);
+    }
+
+    /**
+     * Creates a special cell of the dictionary.
+     *
+     * @param index the index of the cell
+     * @param type the type of the cell
+     * @param parameter the parameter of the cell
+     * @param description the description of the cell
+     * @return the cell
+     * @throws IOException if the type is unknown
+     */
+    private static Cell createCell(int index, int type, int parameter, String description) throws IOException {
+        switch (type) {
+            case BinaryLog.GO_FORWARD_CELL:
+                return new GoForwardCell(index, parameter, description);
+            case BinaryLog.GO_BACK_CELL:
+                return new GoBackCell(index, parameter, description);
+            case BinaryLog.DOUBLE_ROLL_CELL:
+                return new DoubleRollCell(index, description);
+            case BinaryLog.STOP_CELL:
+                return new StopCell(index, parameter, description);
+            case BinaryLog.TELEPORT_CELL:
+                return new TeleportCell(index, parameter, description);
+            default:
+                throw new IOException("unknown cell type " + type);
+        }
+    }
+
+    /**
+     * Gets the cell of the board for an index, if the cell is special or is the start cell.
+     *
+     * @param index the index of the cell
+     * @return the cell, or null for a regular cell
+     */
+    private Cell getSpecialCell(int index) {
+        int position = Arrays.binarySearch(this.specialIndexes, index);
+        if (position >= 0) {
+            return this.specialCells[position];
+        }
+        return index == 0 ? this.startCell : null;
+    }
+
+    /**
+     * Checks that a cell reached by a player is on the board.
+     *
+     * @param index the index of the cell
+     * @return the index of the cell
+     * @throws IOException if the number of cells has not been read or the cell is outside the board
+     */
+    private int checkIndex(int index) throws IOException {
+        if (index < 0 || index > this.numberOfCells) {
+            throw new IOException("the cell " + index + " is outside the board");
+        }
+        return index;
+    }
+
+    /**
+     * Adds a player, all the players start in the start cell.
+     *
+     * @param number the player's number
+     * @param name the name of the player
+     */
+    private void addPlayer(int number, String name) {
+        if (number >= this.names.length) {
+            this.names = Arrays.copyOf(this.names, number + 1);
+            this.positions = Arrays.copyOf(this.positions, number + 1);
+        }
+        this.names[number] = name;
+    }
+
+    /**
+     * Reads one byte.
+     *
+     * @return the byte as an unsigned number
+     * @throws IOException if the file ends
+     */
+    private int readByte() throws IOException {
+        int value = this.in.read();
+        if (value == -1) {
+            throw new EOFException();
+        }
+        return value;
+    }
+
+    /**
+     * Reads an unsigned number written in 7-bit groups.
+     *
+     * @return the unsigned number
+     * @throws IOException if the file ends
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = this.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads a string written as its length in bytes followed by its UTF-8 bytes.
+     *
+     * @return the string
+     * @throws IOException if the file ends or the length is larger than MAXIMUM_STRING_LENGTH
+     */
+    private String readString() throws IOException {
+        int length = this.readVarint();
+        if (length < 0 || length > MAXIMUM_STRING_LENGTH) {
+            throw new IOException("wrong length of a string " + length);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) this.readByte();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
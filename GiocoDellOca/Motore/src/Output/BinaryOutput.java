@@ -0,0 +1,368 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import Board.Board;
+import Cells.Cell;
+import Cells.DoubleRollCell;
+import Cells.GoBackCell;
+import Cells.GoForwardCell;
+import Cells.StopCell;
+import Cells.TeleportCell;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The class which writes the log of the game in the binary format described by BinaryLog.
+ * The events are encoded straight into the buffer of the backend chosen by the system properties, see OutputBackend.
+ */
+public class BinaryOutput implements GameLog {
+
+    /**
+     * The space always left in the buffer for one event.
+     */
+    private static final int MAXIMUM_EVENT_SIZE = 16;
+
+    /**
+     * The backend writing the output file.
+     */
+    private OutputBackend backend;
+
+    /**
+     * The game's board, its special cells are written in the dictionary.
+     */
+    private Board board;
+
+    /**
+     * The buffer of the backend.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The index of the last cell written, the positions are written as differences from it.
+     */
+    private int position;
+
+    /**
+     * The constructor of the output.
+     * Creates the output file.
+     *
+     * @param binaryFile the output file, or "-" for the standard output
+     * @param board the game's board
+     */
+    public BinaryOutput(String binaryFile, Board board) {
+        this.board = board;
+        this.position = 0;
+        try {
+            this.backend = OutputBackend.open(binaryFile);
+            this.buffer = this.backend.getBuffer();
+        } catch (IOException e) {
+            System.out.println("Cannot create the output file.");
+            System.exit(0);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Wrong output options: " + e.getMessage() + ".");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints the header and the dictionary of the special cells to the output file.
+     */
+    @Override
+    public void begin() {
+        for (byte b : BinaryLog.MAGIC) {
+            this.writeByte(b);
+        }
+        this.writeByte(BinaryLog.VERSION);
+        this.writeVarint(this.board.getNumberOfSpecialCells());
+        for (int i = 0; i < this.board.getNumberOfSpecialCells(); i++) {
+            Cell cell = this.board.getSpecialCell(i);
+            this.writeVarint(cell.getIndex());
+            this.writeByte(getType(cell));
+            this.writeVarint(getParameter(cell));
+            this.writeString(cell.getDescription());
+        }
+    }
+
+    /**
+     * Gets the type of the cell in the dictionary.
+     *
+     * @param cell the cell of the board
+     * @return the type of the cell, 0 for the start cell and the regular cells which are not in the dictionary
+     */
+    private static int getType(Cell cell) {
+        if (cell instanceof GoForwardCell) {
+            return BinaryLog.GO_FORWARD_CELL;
+        }
+        if (cell instanceof GoBackCell) {
+            return BinaryLog.GO_BACK_CELL;
+        }
+        if (cell instanceof DoubleRollCell) {
+            return BinaryLog.DOUBLE_ROLL_CELL;
+        }
+        if (cell instanceof StopCell) {
+            return BinaryLog.STOP_CELL;
+        }
+        if (cell instanceof TeleportCell) {
+            return BinaryLog.TELEPORT_CELL;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the parameter of the cell in the dictionary.
+     *
+     * @param cell the special cell of the board
+     * @return the parameter of the cell
+     */
+    private static int getParameter(Cell cell) {
+        if (cell instanceof GoForwardCell) {
+            return ((GoForwardCell) cell).getNumberOfCellsForward();
+        }
+        if (cell instanceof GoBackCell) {
+            return ((GoBackCell) cell).getNumberOfCellsBack();
+        }
+        if (cell instanceof StopCell) {
+            return ((StopCell) cell).getNumberOfTurnsToWait();
+        }
+        if (cell instanceof TeleportCell) {
+            return ((TeleportCell) cell).getDestinationIndex();
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the remaining events to the output file and closes it.
+     */
+    @Override
+    public void finish() {
+        try {
+            this.backend.close();
+        } catch (IOException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints the number of cells to the output file.
+     *
+     * @param numberOfCells the number of the cells in the game's board
+     */
+    @Override
+    public void printNumberOfCells(int numberOfCells) {
+        this.writeEvent(BinaryLog.NUMBER_OF_CELLS);
+        this.writeVarint(numberOfCells);
+    }
+
+    /**
+     * Defines a player in the output file.
+     *
+     * @param number the player's number
+     * @param name the name of the player
+     */
+    @Override
+    public void printPlayer(int number, String name) {
+        this.writeEvent(BinaryLog.PLAYER);
+        this.writeVarint(number);
+        this.writeString(name);
+    }
+
+    /**
+     * Prints "end of the turn" event to the output file.
+     */
+    @Override
+    public void printEndTurn() {
+        this.writeEvent(BinaryLog.END_TURN);
+        try {
+            this.backend.endOfTurn();
+            this.buffer = this.backend.getBuffer();
+        } catch (IOException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints start of the turn event to the output file.
+     *
+     * @param number the number of the player who is performing the turn
+     */
+    @Override
+    public void printPlayerTurn(int number) {
+        this.writeEvent(BinaryLog.TURN);
+        this.writeVarint(number);
+    }
+
+    /**
+     * Prints dice roll result to the output file.
+     *
+     * @param diceRoll the result of the dice roll
+     */
+    @Override
+    public void printDiceRoll(int diceRoll) {
+        this.writeEvent(BinaryLog.DICE_ROLL + diceRoll);
+    }
+
+    /**
+     * Prints player's move to the output file.
+     * Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     */
+    @Override
+    public void printPrimaryAnimationWithin(Cell cell, int fromIndex) {
+        this.writeEvent(BinaryLog.MOVE_WITHIN);
+        this.writeVarint(BinaryLog.zigzag(cell.getIndex() - fromIndex));
+        this.position = cell.getIndex();
+    }
+
+    /**
+     * Prints player's move to the output file.
+     * Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     */
+    @Override
+    public void printPrimaryAnimationOut(Cell cell, int fromIndex, int boardSize) {
+        this.writeEvent(BinaryLog.MOVE_OUT);
+        this.writeVarint(BinaryLog.zigzag(cell.getIndex() - fromIndex));
+        this.position = cell.getIndex();
+    }
+
+    /**
+     * Prints the action of the cell reached by the player to the output file.
+     * The cell is written as the difference from the previous cell, its animation is rebuilt from the dictionary.
+     *
+     * @param cell the cell reached by the player
+     * @param diceRoll the result of the dice roll
+     */
+    @Override
+    public void printSecondaryAnimation(Cell cell, int diceRoll) {
+        this.writeEvent(BinaryLog.CELL_ACTION);
+        this.writeVarint(BinaryLog.zigzag(cell.getIndex() - this.position));
+        this.position = cell.getIndex();
+    }
+
+    /**
+     * Prints player's move to the output file, when the cell reached with the dice roll is a regular cell.
+     * Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    @Override
+    public void printMoveWithin(int fromIndex, int index) {
+        this.writeEvent(BinaryLog.MOVE_WITHIN);
+        this.writeVarint(BinaryLog.zigzag(index - fromIndex));
+        this.position = index;
+    }
+
+    /**
+     * Prints player's move to the output file, when the cell reached with the dice roll is a regular cell.
+     * Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    @Override
+    public void printMoveOut(int fromIndex, int boardSize, int index) {
+        this.writeEvent(BinaryLog.MOVE_OUT);
+        this.writeVarint(BinaryLog.zigzag(index - fromIndex));
+        this.position = index;
+    }
+
+    /**
+     * Prints the action of a regular cell reached by the player to the output file.
+     *
+     * @param index the index of the regular cell
+     */
+    @Override
+    public void printRegularCell(int index) {
+        this.writeEvent(BinaryLog.CELL_ACTION);
+        this.writeVarint(BinaryLog.zigzag(index - this.position));
+        this.position = index;
+    }
+
+    /**
+     * Prints the victory to the output file.
+     *
+     * @param name the name of the player who is performing the turn
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param afterRollIndex the index of the cell where the player arrived after the dice roll, in this case the final cell
+     */
+    @Override
+    public void printVictory(String name, int fromIndex, int afterRollIndex) {
+        this.writeEvent(BinaryLog.VICTORY);
+        this.writeVarint(BinaryLog.zigzag(afterRollIndex - fromIndex));
+    }
+
+    /**
+     * Writes the tag of an event, making room in the buffer for the whole event.
+     *
+     * @param tag the tag of the event
+     */
+    private void writeEvent(int tag) {
+        this.makeRoom(MAXIMUM_EVENT_SIZE);
+        this.buffer.put((byte) tag);
+    }
+
+    /**
+     * Writes one byte, making room for it in the buffer.
+     *
+     * @param value the byte
+     */
+    private void writeByte(int value) {
+        this.makeRoom(1);
+        this.buffer.put((byte) value);
+    }
+
+    /**
+     * Asks the backend for room in the buffer if there is not enough left.
+     *
+     * @param bytes the number of bytes to be written
+     */
+    private void makeRoom(int bytes) {
+        if (this.buffer.remaining() < bytes) {
+            try {
+                this.buffer = this.backend.makeRoom(bytes);
+            } catch (IOException e) {
+                System.out.println("Cannot write the result to the output file.");
+                System.exit(0);
+            }
+        }
+    }
+
+    /**
+     * Writes an unsigned number in 7-bit groups, the high bit of each byte tells if another byte follows.
+     *
+     * @param value the unsigned number
+     */
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            this.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.writeByte(value);
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 bytes.
+     *
+     * @param value the string
+     */
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.writeVarint(bytes.length);
+        for (byte b : bytes) {
+            this.writeByte(b);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The backend which writes the log with a FileChannel from a large direct buffer.
+ * The direct buffer is handed to the operating system without being copied, so every write is one system call.
+ */
+public class ChannelBackend extends OutputBackend {
+
+    /**
+     * The channel of the output file.
+     */
+    private FileChannel channel;
+
+    /**
+     * Constructor of the backend.
+     *
+     * @param channel the channel of the output file
+     * @param bufferSize the size of the direct buffer
+     * @param flushEveryTurn true if the buffer is written at the end of every turn
+     * @param syncPolicy the policy of forcing the written bytes to the disk
+     */
+    public ChannelBackend(FileChannel channel, int bufferSize, boolean flushEveryTurn, SyncPolicy syncPolicy) {
+        super(flushEveryTurn, syncPolicy);
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Writes the buffer if there is not enough room left in it.
+     *
+     * @param bytes the number of bytes the log is going to write
+     * @return true if the buffer was written
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    protected boolean nextBuffer(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) {
+            this.writeBuffer();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes the bytes of the buffer to the channel and empties the buffer.
+     *
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    protected void writeBuffer() throws IOException {
+        int bytes = this.buffer.position();
+        long start = startWrite();
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+        endWrite(bytes, start);
+    }
+
+    /**
+     * Forces the written bytes to the disk.
+     *
+     * @throws IOException if the output file cannot be forced
+     */
+    @Override
+    protected void force() throws IOException {
+        this.channel.force(false);
+    }
+
+    /**
+     * Closes the channel.
+     *
+     * @throws IOException if the output file cannot be closed
+     */
+    @Override
+    protected void release() throws IOException {
+        this.channel.close();
+    }
+}
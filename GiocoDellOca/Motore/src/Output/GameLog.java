@@ -0,0 +1,154 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import Board.Board;
+import Cells.Cell;
+
+/**
+ * The interface which represents the log of a game.
+ * The events are described with primitive values, so a log can be replayed from a file into another log.
+ */
+public interface GameLog {
+
+    /**
+     * The extension of the output files written in the binary format, every other file is written as text.
+     */
+    String BINARY_EXTENSION = ".ocab";
+
+    /**
+     * The default number of events of the ring buffer of the asynchronous log.
+     */
+    int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+
+    /**
+     * Creates the log of a game, in the binary format if the name of the file ends with BINARY_EXTENSION,
+     * optionally followed by the extension of the compressed files.
+     * If the system property oca.output.async is true the log is written by a dedicated thread,
+     * the system property oca.output.queue sets the number of events waiting to be written.
+     *
+     * @param outputFile the output file
+     * @param board the game's board
+     * @return the log writing the output file
+     */
+    static GameLog create(String outputFile, Board board) {
+        GameLog log;
+        if (outputFile.endsWith(BINARY_EXTENSION) || outputFile.endsWith(BINARY_EXTENSION + OutputBackend.GZIP_EXTENSION)) {
+            log = new BinaryOutput(outputFile, board);
+        }
+        else {
+            log = new Output(outputFile);
+        }
+        if (Boolean.getBoolean("oca.output.async")) {
+            log = new AsyncGameLog(log, Integer.getInteger("oca.output.queue", DEFAULT_QUEUE_CAPACITY));
+        }
+        return log;
+    }
+
+    /**
+     * Prints initial command to the output file.
+     */
+    void begin();
+
+    /**
+     * Closes the output file.
+     */
+    void finish();
+
+    /**
+     * Prints the number of cells to the output file.
+     *
+     * @param numberOfCells the number of the cells in the game's board
+     */
+    void printNumberOfCells(int numberOfCells);
+
+    /**
+     * Defines a player in the output file.
+     *
+     * @param number the player's number
+     * @param name the name of the player
+     */
+    void printPlayer(int number, String name);
+
+    /**
+     * Prints "end of the turn" message to the output file.
+     */
+    void printEndTurn();
+
+    /**
+     * Prints start of the turn command to the output file.
+     *
+     * @param number the number of the player who is performing the turn
+     */
+    void printPlayerTurn(int number);
+
+    /**
+     * Prints dice roll result to the output file.
+     *
+     * @param diceRoll the result of the dice roll
+     */
+    void printDiceRoll(int diceRoll);
+
+    /**
+     * Prints player's move animation command to the output file.
+     * Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     */
+    void printPrimaryAnimationWithin(Cell cell, int fromIndex);
+
+    /**
+     * Prints player's move animation command to the output file.
+     * Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     */
+    void printPrimaryAnimationOut(Cell cell, int fromIndex, int boardSize);
+
+    /**
+     * Prints the animation of the action of the cell reached by the player to the output file.
+     *
+     * @param cell the cell reached by the player
+     * @param diceRoll the result of the dice roll
+     */
+    void printSecondaryAnimation(Cell cell, int diceRoll);
+
+    /**
+     * Prints player's move animation command to the output file, when the cell reached with the dice roll is a
+     * regular cell. Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    void printMoveWithin(int fromIndex, int index);
+
+    /**
+     * Prints player's move animation command to the output file, when the cell reached with the dice roll is a
+     * regular cell. Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    void printMoveOut(int fromIndex, int boardSize, int index);
+
+    /**
+     * Prints the animation of a regular cell reached by the player to the output file.
+     *
+     * @param index the index of the regular cell
+     */
+    void printRegularCell(int index);
+
+    /**
+     * Prints the final player's move animation command, and the victory command to the output file.
+     *
+     * @param name the name of the player who is performing the turn
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param afterRollIndex the index of the cell where the player arrived after the dice roll, in this case the final cell
+     */
+    void printVictory(String name, int fromIndex, int afterRollIndex);
+}
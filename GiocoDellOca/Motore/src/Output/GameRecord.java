@@ -0,0 +1,225 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import Board.Board;
+import Dice.SplittableDice;
+import Game.Game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class which represents the record of a game: the board, the seed of the dice and the names of the players.
+ * The log of a game is determined by them, so a record of some tens of bytes replaces the output file,
+ * and the log is played again from the record only when it is needed.
+ * The board is identified by the SHA-256 hash of its input file, a changed input file cannot replay the record.
+ *
+ * Format: the magic bytes "OCAR", the version, the 32 bytes of the hash, the seed, the name of the input file
+ * and the names of the players, the strings in the modified UTF-8 of DataOutput.
+ */
+public class GameRecord {
+
+    /**
+     * The extension of the output files written as records.
+     */
+    public static final String EXTENSION = ".ocar";
+
+    /**
+     * The magic bytes at the start of every record.
+     */
+    private static final byte[] MAGIC = {'O', 'C', 'A', 'R'};
+
+    /**
+     * The version of the format, which also fixes the dice of the seed.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The number of bytes of the hash.
+     */
+    private static final int HASH_SIZE = 32;
+
+    /**
+     * The name of the input file of the board.
+     */
+    private String boardName;
+
+    /**
+     * The SHA-256 hash of the input file of the board.
+     */
+    private byte[] boardHash;
+
+    /**
+     * The seed of the dice of the game.
+     */
+    private long seed;
+
+    /**
+     * The names of the players, in the order of their turns.
+     */
+    private List<String> names;
+
+    /**
+     * Constructor of the record of a game.
+     *
+     * @param board the loaded game's board
+     * @param seed the seed of the dice, rolled by all the players from one SplittableDice
+     * @param names the names of the players, in the order of their turns
+     * @throws IOException if the input file of the board cannot be hashed
+     */
+    public GameRecord(Board board, long seed, List<String> names) throws IOException {
+        this(board.getName(), board.getHash(), seed, names);
+    }
+
+    /**
+     * Constructor of the record read from a file.
+     *
+     * @param boardName the name of the input file of the board
+     * @param boardHash the hash of the input file of the board
+     * @param seed the seed of the dice
+     * @param names the names of the players
+     */
+    private GameRecord(String boardName, byte[] boardHash, long seed, List<String> names) {
+        this.boardName = boardName;
+        this.boardHash = boardHash;
+        this.seed = seed;
+        this.names = new ArrayList<>(names);
+    }
+
+    /**
+     * Gets the name of the input file of the board.
+     *
+     * @return the name of the input file
+     */
+    public String getBoardName() {
+        return this.boardName;
+    }
+
+    /**
+     * Gets the seed of the dice of the game.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the names of the players.
+     *
+     * @return the names of the players, in the order of their turns
+     */
+    public List<String> getNames() {
+        return new ArrayList<>(this.names);
+    }
+
+    /**
+     * Writes the record to a file.
+     *
+     * @param recordFile the record
+     */
+    public void write(String recordFile) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.write(this.boardHash);
+            out.writeLong(this.seed);
+            out.writeUTF(this.boardName);
+            out.writeShort(this.names.size());
+            for (String name : this.names) {
+                out.writeUTF(name);
+            }
+            Files.write(Paths.get("./" + recordFile), bytes.toByteArray());
+        } catch (IOException e) {
+            System.out.println("Cannot create the record.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Reads a record from a file.
+     *
+     * @param recordFile the record
+     * @return the record
+     */
+    public static GameRecord read(String recordFile) {
+        byte[] bytes = null;
+        try {
+            bytes = Files.readAllBytes(Paths.get("./" + recordFile));
+        } catch (IOException e) {
+            System.out.println("Cannot find the record.");
+            System.exit(0);
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+                throw new IOException("not a record of this version");
+            }
+            byte[] boardHash = new byte[HASH_SIZE];
+            in.readFully(boardHash);
+            long seed = in.readLong();
+            String boardName = in.readUTF();
+            int numberOfPlayers = in.readUnsignedShort();
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < numberOfPlayers; i++) {
+                names.add(in.readUTF());
+            }
+            return new GameRecord(boardName, boardHash, seed, names);
+        } catch (IOException e) {
+            System.out.println("Wrong record format.");
+            System.exit(0);
+            return null;
+        }
+    }
+
+    /**
+     * Plays the game of the record again into a log.
+     * The events are written while the game is played, so the log is streamed and never held in memory.
+     *
+     * @param board the board of the record, loaded from its input file or from another copy of it
+     * @param log the log receiving the events
+     */
+    public void replay(Board board, GameLog log) {
+        try {
+            if (!Arrays.equals(board.getHash(), this.boardHash)) {
+                System.out.println("The input file is not the board of the record.");
+                System.exit(0);
+            }
+        } catch (IOException e) {
+            System.out.println("Cannot find the input file.");
+            System.exit(0);
+        }
+        Game game = new Game(board, log);
+        game.setDice(new SplittableDice(this.seed));
+        game.addPlayers(this.names);
+        game.playGame();
+    }
+
+    /**
+     * Plays the game of a record again and writes its log.
+     *
+     * @param recordFile the record
+     * @param boardFile the input file of the board, or null for the input file named in the record
+     * @param outputFile the output file, in any format of GameLog.create, or "-" for the standard output
+     */
+    public static void convert(String recordFile, String boardFile, String outputFile) {
+        GameRecord record = read(recordFile);
+        Board board = new Board();
+        board.loadBoard(boardFile != null ? boardFile : record.boardName);
+        record.replay(board, GameLog.create(outputFile, board));
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The backend which compresses the log in the gzip format and hands the compressed bytes to another backend.
+ * The log writes into a block buffer, every full block is deflated straight into the buffer of the other backend,
+ * so the compressed log can still be written with a FileChannel, into a memory-mapped file or to the standard output.
+ * When the flush policy writes the buffer at the end of every turn, the block is sync-flushed
+ * so that the compressed file can be read up to the last turn.
+ */
+public class GzipBackend extends OutputBackend {
+
+    /**
+     * The header of a gzip member: magic bytes, deflate method, no flags, no time, no extra flags, unknown system.
+     */
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    /**
+     * The room asked to the other backend before every call of the deflater.
+     */
+    private static final int MINIMUM_ROOM = 16;
+
+    /**
+     * The backend receiving the compressed bytes.
+     */
+    private OutputBackend target;
+
+    /**
+     * The deflater compressing the blocks.
+     */
+    private Deflater deflater;
+
+    /**
+     * The checksum of the uncompressed bytes.
+     */
+    private CRC32 checksum;
+
+    /**
+     * The number of uncompressed bytes.
+     */
+    private long size;
+
+    /**
+     * Constructor of the backend.
+     * Writes the gzip header.
+     *
+     * @param target the backend receiving the compressed bytes
+     * @param level the compression level, from 0 to 9, or -1 for the default level
+     * @param blockSize the size of the block of uncompressed bytes deflated at once
+     * @param flushEveryTurn true if the block is sync-flushed at the end of every turn
+     * @throws IOException if the header cannot be written
+     */
+    public GzipBackend(OutputBackend target, int level, int blockSize, boolean flushEveryTurn) throws IOException {
+        super(flushEveryTurn, SyncPolicy.NONE);
+        this.target = target;
+        this.deflater = new Deflater(level, true);
+        this.checksum = new CRC32();
+        this.size = 0;
+        this.buffer = ByteBuffer.allocate(blockSize);
+        ByteBuffer out = target.makeRoom(HEADER.length);
+        out.put(HEADER);
+    }
+
+    /**
+     * Deflates the block if there is not enough room left in it.
+     *
+     * @param bytes the number of bytes the log is going to write
+     * @return false, the other backend forces the compressed bytes according to its own sync policy
+     * @throws IOException if the compressed bytes cannot be written
+     */
+    @Override
+    protected boolean nextBuffer(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) {
+            this.deflate(Deflater.NO_FLUSH, false);
+        }
+        return false;
+    }
+
+    /**
+     * Deflates the block with a sync flush and writes the compressed bytes.
+     *
+     * @throws IOException if the compressed bytes cannot be written
+     */
+    @Override
+    protected void writeBuffer() throws IOException {
+        this.deflate(Deflater.SYNC_FLUSH, false);
+        this.target.flush();
+    }
+
+    /**
+     * Forces the compressed bytes to the disk, the policy of the other backend decides when.
+     *
+     * @throws IOException if the output file cannot be forced
+     */
+    @Override
+    protected void force() throws IOException {
+        this.target.force();
+    }
+
+    /**
+     * Finishes the compressed stream, writes the gzip trailer and closes the other backend.
+     *
+     * @throws IOException if the compressed bytes cannot be written
+     */
+    @Override
+    protected void release() throws IOException {
+        this.deflater.finish();
+        this.deflate(Deflater.NO_FLUSH, true);
+        this.deflater.end();
+        ByteBuffer out = this.target.makeRoom(8);
+        int crc = (int) this.checksum.getValue();
+        int length = (int) this.size;
+        for (int i = 0; i < 32; i += 8) {
+            out.put((byte) (crc >>> i));
+        }
+        for (int i = 0; i < 32; i += 8) {
+            out.put((byte) (length >>> i));
+        }
+        this.target.close();
+    }
+
+    /**
+     * Compresses the bytes of the block into the buffer of the other backend and empties the block.
+     *
+     * @param flushMode the flush mode of the deflater
+     * @param finishing true if the deflater is finished and the stream has to be compressed until its end
+     * @throws IOException if the compressed bytes cannot be written
+     */
+    private void deflate(int flushMode, boolean finishing) throws IOException {
+        this.buffer.flip();
+        this.size += this.buffer.remaining();
+        this.checksum.update(this.buffer);
+        this.buffer.flip();
+        this.deflater.setInput(this.buffer);
+        while (true) {
+            ByteBuffer out = this.target.makeRoom(MINIMUM_ROOM);
+            this.deflater.deflate(out, flushMode);
+            //The deflater has nothing left when the stream ends, when the flushed output did not fill the buffer
+            //or when the whole block has been consumed.
+            if (finishing ? this.deflater.finished()
+                    : flushMode == Deflater.SYNC_FLUSH ? out.hasRemaining() : this.deflater.needsInput()) {
+                break;
+            }
+        }
+        this.buffer.clear();
+    }
+}
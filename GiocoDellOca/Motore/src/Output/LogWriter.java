@@ -0,0 +1,190 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
+/**
+ * The class which encodes the characters of the text log in UTF-8 straight into the buffer of the backend.
+ * The ASCII characters, which are almost all the characters of the log, are copied as single bytes.
+ */
+public class LogWriter extends Writer {
+
+    /**
+     * The maximum number of bytes of one encoded character.
+     */
+    private static final int MAXIMUM_CHARACTER_SIZE = 4;
+
+    /**
+     * The backend receiving the bytes.
+     */
+    private OutputBackend backend;
+
+    /**
+     * The buffer of the backend.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The high surrogate waiting for its low surrogate, or 0.
+     */
+    private char highSurrogate;
+
+    /**
+     * Constructor of the writer.
+     *
+     * @param backend the backend receiving the bytes
+     */
+    public LogWriter(OutputBackend backend) {
+        this.backend = backend;
+        this.buffer = backend.getBuffer();
+        this.highSurrogate = 0;
+    }
+
+    /**
+     * Gets the backend receiving the bytes.
+     *
+     * @return the backend
+     */
+    public OutputBackend getBackend() {
+        return this.backend;
+    }
+
+    /**
+     * Writes one character.
+     *
+     * @param c the character
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    public void write(int c) throws IOException {
+        this.put((char) c);
+    }
+
+    /**
+     * Writes a part of an array of characters.
+     *
+     * @param characters the array of characters
+     * @param offset the position of the first character
+     * @param length the number of characters
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    public void write(char[] characters, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            this.put(characters[i]);
+        }
+    }
+
+    /**
+     * Writes a part of a string.
+     *
+     * @param text the string
+     * @param offset the position of the first character
+     * @param length the number of characters
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            this.put(text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes one character.
+     *
+     * @param c the character
+     * @return this writer
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    public Writer append(char c) throws IOException {
+        this.put(c);
+        return this;
+    }
+
+    /**
+     * Writes a sequence of characters without converting it to a string.
+     *
+     * @param text the sequence of characters
+     * @return this writer
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    public Writer append(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            this.put(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Encodes one character into the buffer.
+     *
+     * @param c the character
+     * @throws IOException if the output file cannot be written
+     */
+    private void put(char c) throws IOException {
+        if (this.buffer.remaining() < MAXIMUM_CHARACTER_SIZE) {
+            this.buffer = this.backend.makeRoom(MAXIMUM_CHARACTER_SIZE);
+        }
+        if (c < 0x80) {
+            this.buffer.put((byte) c);
+        }
+        else if (Character.isHighSurrogate(c)) {
+            this.highSurrogate = c;
+        }
+        else if (Character.isLowSurrogate(c) && this.highSurrogate != 0) {
+            int codePoint = Character.toCodePoint(this.highSurrogate, c);
+            this.highSurrogate = 0;
+            this.buffer.put((byte) (0xF0 | codePoint >> 18));
+            this.buffer.put((byte) (0x80 | (codePoint >> 12 & 0x3F)));
+            this.buffer.put((byte) (0x80 | (codePoint >> 6 & 0x3F)));
+            this.buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        }
+        else if (c < 0x800) {
+            this.buffer.put((byte) (0xC0 | c >> 6));
+            this.buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        else {
+            this.buffer.put((byte) (0xE0 | c >> 12));
+            this.buffer.put((byte) (0x80 | (c >> 6 & 0x3F)));
+            this.buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    /**
+     * Writes the end of the turn, the backend writes its buffer if its flush policy asks for it.
+     *
+     * @throws IOException if the output file cannot be written
+     */
+    public void endOfTurn() throws IOException {
+        this.backend.endOfTurn();
+        this.buffer = this.backend.getBuffer();
+    }
+
+    /**
+     * Makes all the characters written so far visible in the output file.
+     *
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        this.backend.flush();
+        this.buffer = this.backend.getBuffer();
+    }
+
+    /**
+     * Closes the backend.
+     *
+     * @throws IOException if the output file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.backend.close();
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The backend which appends the log into a memory-mapped file.
+ * The log writes straight into the mapped region, when the region is full the next one is mapped after it
+ * and the file grows. When the file is closed it is truncated to the bytes actually written.
+ */
+public class MappedBackend extends OutputBackend {
+
+    /**
+     * The channel of the output file.
+     */
+    private FileChannel channel;
+
+    /**
+     * The size of every mapped region.
+     */
+    private int regionSize;
+
+    /**
+     * The position in the file of the current mapped region.
+     */
+    private long regionStart;
+
+    /**
+     * True if every region is forced to the disk before the next one is mapped, that is if the sync policy is not NONE.
+     */
+    private boolean forceRegions;
+
+    /**
+     * Constructor of the backend.
+     *
+     * @param channel the channel of the output file, open for reading and writing
+     * @param regionSize the size of every mapped region
+     * @param flushEveryTurn true if the buffer is written at the end of every turn, the mapped bytes are always in the file
+     * @param syncPolicy the policy of forcing the written bytes to the disk
+     * @throws IOException if the output file cannot be mapped
+     */
+    public MappedBackend(FileChannel channel, int regionSize, boolean flushEveryTurn, SyncPolicy syncPolicy) throws IOException {
+        super(flushEveryTurn, syncPolicy);
+        this.channel = channel;
+        this.regionSize = regionSize;
+        this.regionStart = 0;
+        this.forceRegions = syncPolicy != SyncPolicy.NONE;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, regionSize);
+    }
+
+    /**
+     * Maps the next region after the bytes written so far if there is not enough room left in the current one.
+     * The current region is forced to the disk before it is dropped, unless the sync policy is NONE:
+     * force() only reaches the region which is mapped.
+     *
+     * @param bytes the number of bytes the log is going to write
+     * @return false, the completed region is already forced if the sync policy asks for it
+     * @throws IOException if the output file cannot be mapped
+     */
+    @Override
+    protected boolean nextBuffer(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) {
+            int written = this.buffer.position();
+            long start = startWrite();
+            if (this.forceRegions) {
+                this.force();
+            }
+            this.regionStart += written;
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, this.regionStart, this.regionSize);
+            endWrite(written, start);
+        }
+        return false;
+    }
+
+    /**
+     * The bytes written in the mapped region are already in the file, nothing has to be written.
+     */
+    @Override
+    protected void writeBuffer() {
+    }
+
+    /**
+     * Forces the mapped region to the disk.
+     */
+    @Override
+    protected void force() {
+        ((MappedByteBuffer) this.buffer).force();
+    }
+
+    /**
+     * Truncates the file to the bytes written and closes it.
+     *
+     * @throws IOException if the output file cannot be truncated
+     */
+    @Override
+    protected void release() throws IOException {
+        int written = this.buffer.position();
+        long start = startWrite();
+        long length = this.regionStart + written;
+        this.buffer = null;
+        this.channel.truncate(length);
+        this.channel.close();
+        endWrite(written, start);
+    }
+}
@@ -1,53 +1,60 @@
 /**
- * Contains: Output Class.
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
  */
 package Output;
 
-import Player.Player;
+import Cells.AnimationWriter;
+import Cells.Cell;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
 
 /**
  * The class which manages write operations to the output file.
+ * The commands are written straight into the buffer of the backend, the numbers with AnimationWriter,
+ * so once the game has started writing its log creates no garbage.
  */
-public class Output {
+public class Output implements GameLog {
 
     /**
-     * The output file.
+     * The writer encoding the output file into the buffer of its backend.
      */
-    private FileWriter gameOutputFile;
-
-    /**
-     * The Buffered Writer for the output file.
-     */
-    private BufferedWriter bufferedWriter;
+    private LogWriter writer;
 
     /**
      * The constructor of the output.
-     * Creates the output file.
+     * Creates the output file with the backend chosen by the system properties, see OutputBackend.
      *
-     * @param textFile the output file
+     * @param textFile the output file, or "-" for the standard output
      */
     public Output(String textFile) {
         try {
-            this.gameOutputFile = new FileWriter("./" + textFile);
-            this.bufferedWriter = new BufferedWriter(this.gameOutputFile);
+            this.writer = new LogWriter(OutputBackend.open(textFile));
         } catch (IOException e) {
             System.out.println("Cannot create the output file.");
             System.exit(0);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Wrong output options: " + e.getMessage() + ".");
+            System.exit(0);
         }
     }
 
+    /**
+     * The constructor of the output writing to the given backend.
+     *
+     * @param backend the backend writing the log
+     */
+    public Output(OutputBackend backend) {
+        this.writer = new LogWriter(backend);
+    }
+
     /**
      * Prints initial command to the output file.
      */
+    @Override
     public void begin() {
         try {
-            this.bufferedWriter.write("OCA GIOCO");
-            this.bufferedWriter.newLine();
+            this.writer.write("OCA GIOCO");
+            this.writer.write('\n');
         } catch (IOException e) {
             System.out.println("Cannot write the result to the output file.");
             System.exit(0);
@@ -57,9 +64,10 @@ public class Output {
     /**
      * Closes the output file.
      */
+    @Override
     public void finish() {
         try {
-            this.bufferedWriter.close();
+            this.writer.close();
         } catch (IOException e) {
             System.out.println("Cannot write the result to the output file.");
             System.exit(0);
@@ -71,10 +79,12 @@ public class Output {
      *
      * @param numberOfCells the number of the cells in the game's board
      */
+    @Override
     public void printNumberOfCells(int numberOfCells) {
         try {
-            this.bufferedWriter.write("CASELLE" + " " + numberOfCells);
-            this.bufferedWriter.newLine();
+            this.writer.write("CASELLE ");
+            AnimationWriter.appendInt(this.writer, numberOfCells);
+            this.writer.write('\n');
         } catch (IOException e) {
             System.out.println("Cannot write the result to the output file.");
             System.exit(0);
@@ -82,29 +92,34 @@ public class Output {
     }
 
     /**
-     * Defines players in the output file.
+     * Defines a player in the output file.
      *
-     * @param players the list of the players
-     */
-    public void printPlayers(List<Player> players) {
-        for (Player player : players) {
-            try {
-                this.bufferedWriter.write("GIOCATORE"+ " " + player.getNumber() + " " + player.toString());
-                this.bufferedWriter.newLine();
-            } catch (IOException e) {
-                System.out.println("Cannot write the result to the output file.");
-                System.exit(0);
-            }
+     * @param number the player's number
+     * @param name the name of the player
+     */
+    @Override
+    public void printPlayer(int number, String name) {
+        try {
+            this.writer.write("GIOCATORE ");
+            AnimationWriter.appendInt(this.writer, number);
+            this.writer.write(' ');
+            this.writer.write(name);
+            this.writer.write('\n');
+        } catch (IOException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
         }
     }
 
     /**
      * Prints "end of the turn" message to the output file.
      */
+    @Override
     public void printEndTurn() {
         try {
-            this.bufferedWriter.write("MESSAGGIO" + " " + "Fine turno");
-            this.bufferedWriter.newLine();
+            this.writer.write("MESSAGGIO Fine turno");
+            this.writer.write('\n');
+            this.writer.endOfTurn();
         } catch (IOException e) {
             System.out.println("Cannot write the result to the output file.");
             System.exit(0);
@@ -114,12 +129,14 @@ public class Output {
     /**
      * Prints start of the turn command to the output file.
      *
-     * @param player the object of the player who is performing the turn
+     * @param number the number of the player who is performing the turn
      */
-    public void printPlayerTurn(Player player) {
+    @Override
+    public void printPlayerTurn(int number) {
         try {
-            this.bufferedWriter.write("TURNO" + " " + player.getNumber());
-            this.bufferedWriter.newLine();
+            this.writer.write("TURNO ");
+            AnimationWriter.appendInt(this.writer, number);
+            this.writer.write('\n');
         } catch (IOException e) {
             System.out.println("Cannot write the result to the output file.");
             System.exit(0);
@@ -131,10 +148,12 @@ public class Output {
      *
      * @param diceRoll the result of the dice roll
      */
+    @Override
     public void printDiceRoll(int diceRoll) {
         try {
-            this.bufferedWriter.write("DADO" + " " + diceRoll);
-            this.bufferedWriter.newLine();
+            this.writer.write("DADO ");
+            AnimationWriter.appendInt(this.writer, diceRoll);
+            this.writer.write('\n');
         } catch (IOException e) {
             System.out.println("Cannot write the result to the output file.");
             System.exit(0);
@@ -143,12 +162,99 @@ public class Output {
 
     /**
      * Prints player's move animation command to the output file.
+     * Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     */
+    @Override
+    public void printPrimaryAnimationWithin(Cell cell, int fromIndex) {
+        try {
+            cell.appendPrimaryAnimationWithin(fromIndex, this.writer);
+        } catch (IOException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints player's move animation command to the output file.
+     * Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     */
+    @Override
+    public void printPrimaryAnimationOut(Cell cell, int fromIndex, int boardSize) {
+        try {
+            cell.appendPrimaryAnimationOut(fromIndex, boardSize, this.writer);
+        } catch (IOException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints the animation of the action of the cell reached by the player to the output file.
+     *
+     * @param cell the cell reached by the player
+     * @param diceRoll the result of the dice roll
+     */
+    @Override
+    public void printSecondaryAnimation(Cell cell, int diceRoll) {
+        try {
+            cell.appendSecondaryAnimation(diceRoll, this.writer);
+        } catch (IOException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints player's move animation command to the output file, when the cell reached with the dice roll is a
+     * regular cell. Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    @Override
+    public void printMoveWithin(int fromIndex, int index) {
+        try {
+            AnimationWriter.appendMoveWithin(this.writer, fromIndex, index);
+        } catch (IOException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints player's move animation command to the output file, when the cell reached with the dice roll is a
+     * regular cell. Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    @Override
+    public void printMoveOut(int fromIndex, int boardSize, int index) {
+        try {
+            AnimationWriter.appendMoveOut(this.writer, fromIndex, boardSize, index);
+        } catch (IOException e) {
+            System.out.println("Cannot write the result to the output file.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints the animation of a regular cell reached by the player to the output file.
      *
-     * @param animation the animation's string originating in a cell
+     * @param index the index of the regular cell
      */
-    public void printAnimation(String animation) {
+    @Override
+    public void printRegularCell(int index) {
         try {
-            this.bufferedWriter.write(animation);
+            AnimationWriter.appendRegularCell(this.writer, index);
         } catch (IOException e) {
             System.out.println("Cannot write the result to the output file.");
             System.exit(0);
@@ -158,20 +264,19 @@ public class Output {
     /**
      * Prints the final player's move animation command, and the victory command to the output file.
      *
-     * @param player the object of the player who is performing the turn
+     * @param name the name of the player who is performing the turn
+     * @param fromIndex the index of the cell where the player started the turn
      * @param afterRollIndex the index of the cell where the player arrived after the dice roll, in this case the final cell
      */
-    public void printVictory(Player player, int afterRollIndex) {
+    @Override
+    public void printVictory(String name, int fromIndex, int afterRollIndex) {
         try {
-            this.bufferedWriter.write("SPOSTA");
-            for (int i = player.getCell().getIndex() + 1; i <= afterRollIndex; i++){
-                this.bufferedWriter.write(" ");
-                this.bufferedWriter.write(Integer.toString(i));
-            }
-            this.bufferedWriter.newLine();
-            this.bufferedWriter.write("MESSAGGIO " + player.toString() + " " + "vince!");
-            this.bufferedWriter.newLine();
-            this.bufferedWriter.write("VINCE");
+            AnimationWriter.appendMoveWithin(this.writer, fromIndex, afterRollIndex);
+            this.writer.write("MESSAGGIO ");
+            this.writer.write(name);
+            this.writer.write(" vince!");
+            this.writer.write('\n');
+            this.writer.write("VINCE");
         } catch (IOException e) {
             System.out.println("Cannot write the result to the output file.");
             System.exit(0);
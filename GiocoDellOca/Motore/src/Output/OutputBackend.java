@@ -0,0 +1,317 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import Events.OutputWriteEvent;
+import Metrics.EngineMetrics;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+/**
+ * The class which represents the destination of the bytes of a log.
+ * The log writes its bytes straight into the buffer of the backend, and asks the backend for room when it is full.
+ *
+ * The backend is chosen with the system properties:
+ * oca.output - "channel" (default) writes with a FileChannel from a direct buffer,
+ * "mmap" appends into a memory-mapped file which grows by one buffer at a time;
+ * oca.output.buffer - the size of the buffer in bytes;
+ * oca.output.flush - "buffer" (default) writes when the buffer is full, "turn" also at the end of every turn;
+ * oca.output.sync - "none" (default), "finish" forces the file to the disk when it is closed,
+ * "always" after every write.
+ * The output file "-" is the standard output, written from the direct buffer without copies.
+ *
+ * The log is compressed in the gzip format if the name of the output file ends with ".gz"
+ * or the system property oca.output.compression is "gzip";
+ * oca.output.gzip.level sets the compression level, from 0 to 9,
+ * and oca.output.gzip.block the size of the block of uncompressed bytes deflated at once.
+ *
+ * The writes of the output file are recorded in the metrics of the engine, see EngineMetrics,
+ * and as OutputWriteEvent in the flight recorder: the bytes of a compressed log are counted after the compression.
+ */
+public abstract class OutputBackend {
+
+    /**
+     * The name of the output file which stands for the standard output.
+     */
+    public static final String STANDARD_OUTPUT = "-";
+
+    /**
+     * The extension of the output files compressed in the gzip format.
+     */
+    public static final String GZIP_EXTENSION = ".gz";
+
+    /**
+     * The default size of the block of the gzip backend.
+     */
+    private static final int DEFAULT_GZIP_BLOCK = 1 << 16;
+
+    /**
+     * The default size of the buffer of the channel backend.
+     */
+    private static final int DEFAULT_CHANNEL_BUFFER = 1 << 20;
+
+    /**
+     * The default size of the mapped region of the memory-mapped backend.
+     */
+    private static final int DEFAULT_MAPPED_BUFFER = 1 << 26;
+
+    /**
+     * The policies of forcing the written bytes to the disk.
+     */
+    public enum SyncPolicy {
+        /**
+         * The bytes are left to the operating system.
+         */
+        NONE,
+        /**
+         * The file is forced to the disk when it is closed.
+         */
+        FINISH,
+        /**
+         * The file is forced to the disk after every write.
+         */
+        ALWAYS
+    }
+
+    /**
+     * The buffer where the log writes its bytes.
+     */
+    protected ByteBuffer buffer;
+
+    /**
+     * True if the buffer is written at the end of every turn.
+     */
+    private boolean flushEveryTurn;
+
+    /**
+     * The policy of forcing the written bytes to the disk.
+     */
+    private SyncPolicy syncPolicy;
+
+    /**
+     * The flight recorder event of the write in progress.
+     */
+    private OutputWriteEvent writeEvent;
+
+    /**
+     * Constructor of the backend.
+     *
+     * @param flushEveryTurn true if the buffer is written at the end of every turn
+     * @param syncPolicy the policy of forcing the written bytes to the disk
+     */
+    protected OutputBackend(boolean flushEveryTurn, SyncPolicy syncPolicy) {
+        this.flushEveryTurn = flushEveryTurn;
+        this.syncPolicy = syncPolicy;
+    }
+
+    /**
+     * Opens the backend chosen with the system properties.
+     *
+     * @param outputFile the output file, or "-" for the standard output
+     * @return the backend writing the output file
+     * @throws IOException if the output file cannot be created
+     * @throws IllegalArgumentException if a system property has a wrong value
+     */
+    public static OutputBackend open(String outputFile) throws IOException {
+        String compression = System.getProperty("oca.output.compression", "none");
+        if (!compression.equals("none") && !compression.equals("gzip")) {
+            throw new IllegalArgumentException("oca.output.compression must be none or gzip");
+        }
+        boolean compressed = compression.equals("gzip") || outputFile.endsWith(GZIP_EXTENSION);
+        String type = System.getProperty("oca.output", "channel");
+        String flush = System.getProperty("oca.output.flush", "buffer");
+        if (!flush.equals("buffer") && !flush.equals("turn")) {
+            throw new IllegalArgumentException("oca.output.flush must be buffer or turn");
+        }
+        boolean flushEveryTurn = flush.equals("turn");
+        SyncPolicy syncPolicy;
+        try {
+            syncPolicy = SyncPolicy.valueOf(System.getProperty("oca.output.sync", "none").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("oca.output.sync must be none, finish or always");
+        }
+        if (compressed) {
+            int level = Integer.getInteger("oca.output.gzip.level", Deflater.DEFAULT_COMPRESSION);
+            if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+                throw new IllegalArgumentException("oca.output.gzip.level must be between 0 and 9");
+            }
+            int blockSize = Integer.getInteger("oca.output.gzip.block", DEFAULT_GZIP_BLOCK);
+            if (blockSize < 16) {
+                throw new IllegalArgumentException("oca.output.gzip.block must be at least 16 bytes");
+            }
+            //The compressed bytes follow the flush policy of the gzip backend and the sync policy of the file.
+            return new GzipBackend(openFile(outputFile, type, false, syncPolicy), level, blockSize, flushEveryTurn);
+        }
+        return openFile(outputFile, type, flushEveryTurn, syncPolicy);
+    }
+
+    /**
+     * Opens the backend writing the output file without compression.
+     *
+     * @param outputFile the output file, or "-" for the standard output
+     * @param type the type of the backend, "channel" or "mmap"
+     * @param flushEveryTurn true if the buffer is written at the end of every turn
+     * @param syncPolicy the policy of forcing the written bytes to the disk
+     * @return the backend writing the output file
+     * @throws IOException if the output file cannot be created
+     * @throws IllegalArgumentException if the type or the size of the buffer is wrong
+     */
+    private static OutputBackend openFile(String outputFile, String type, boolean flushEveryTurn, SyncPolicy syncPolicy) throws IOException {
+        if (outputFile.equals(STANDARD_OUTPUT)) {
+            FileChannel channel = new FileOutputStream(FileDescriptor.out).getChannel();
+            return new ChannelBackend(channel, getBufferSize(DEFAULT_CHANNEL_BUFFER), flushEveryTurn, SyncPolicy.NONE);
+        }
+        if (type.equals("channel")) {
+            FileChannel channel = FileChannel.open(Paths.get("./" + outputFile),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return new ChannelBackend(channel, getBufferSize(DEFAULT_CHANNEL_BUFFER), flushEveryTurn, syncPolicy);
+        }
+        if (type.equals("mmap")) {
+            FileChannel channel = FileChannel.open(Paths.get("./" + outputFile), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return new MappedBackend(channel, getBufferSize(DEFAULT_MAPPED_BUFFER), flushEveryTurn, syncPolicy);
+        }
+        throw new IllegalArgumentException("oca.output must be channel or mmap");
+    }
+
+    /**
+     * Reads the size of the buffer from the system property oca.output.buffer.
+     *
+     * @param defaultSize the size used if the property is not set
+     * @return the size of the buffer
+     * @throws IllegalArgumentException if the size is too small
+     */
+    private static int getBufferSize(int defaultSize) {
+        int size = Integer.getInteger("oca.output.buffer", defaultSize);
+        if (size < 16) {
+            throw new IllegalArgumentException("oca.output.buffer must be at least 16 bytes");
+        }
+        return size;
+    }
+
+    /**
+     * Gets the buffer where the log writes its bytes.
+     *
+     * @return the buffer
+     */
+    public ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Writes the buffer if needed, so that there is room for the given number of bytes.
+     *
+     * @param bytes the number of bytes the log is going to write, not more than 16
+     * @return the buffer where the log continues to write
+     * @throws IOException if the output file cannot be written
+     */
+    public ByteBuffer makeRoom(int bytes) throws IOException {
+        if (this.nextBuffer(bytes) && this.syncPolicy == SyncPolicy.ALWAYS) {
+            this.force();
+        }
+        return this.buffer;
+    }
+
+    /**
+     * Makes all the bytes written so far visible in the output file.
+     *
+     * @throws IOException if the output file cannot be written
+     */
+    public void flush() throws IOException {
+        this.writeBuffer();
+        if (this.syncPolicy == SyncPolicy.ALWAYS) {
+            this.force();
+        }
+    }
+
+    /**
+     * Called by the log at the end of every turn, writes the buffer if the flush policy asks for it.
+     *
+     * @throws IOException if the output file cannot be written
+     */
+    public void endOfTurn() throws IOException {
+        if (this.flushEveryTurn) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Writes the remaining bytes, forces them to the disk if the sync policy asks for it and closes the output file.
+     *
+     * @throws IOException if the output file cannot be written
+     */
+    public void close() throws IOException {
+        this.writeBuffer();
+        if (this.syncPolicy != SyncPolicy.NONE) {
+            this.force();
+        }
+        this.release();
+    }
+
+    /**
+     * Starts timing a write of the output file.
+     *
+     * @return the value of System.nanoTime(), or 0 if the metrics are disabled
+     */
+    protected long startWrite() {
+        this.writeEvent = new OutputWriteEvent();
+        this.writeEvent.begin();
+        return EngineMetrics.ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records a write of the output file in the metrics of the engine, if they are enabled,
+     * and in the flight recorder, if the write is longer than the threshold of the event.
+     *
+     * @param bytes the number of written bytes, nothing is recorded if there are none
+     * @param start the start time of the write, returned by startWrite
+     */
+    protected void endWrite(long bytes, long start) {
+        this.writeEvent.end();
+        if (bytes > 0 && this.writeEvent.shouldCommit()) {
+            this.writeEvent.record(this.getClass().getSimpleName(), bytes);
+        }
+        this.writeEvent = null;
+        if (EngineMetrics.ENABLED && bytes > 0) {
+            EngineMetrics.get().recordOutputWrite(bytes, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Replaces the buffer, or empties it, so that there is room for the given number of bytes.
+     *
+     * @param bytes the number of bytes the log is going to write
+     * @return true if bytes were written to the output file and are not forced to the disk yet
+     * @throws IOException if the output file cannot be written
+     */
+    protected abstract boolean nextBuffer(int bytes) throws IOException;
+
+    /**
+     * Makes the bytes of the buffer visible in the output file.
+     *
+     * @throws IOException if the output file cannot be written
+     */
+    protected abstract void writeBuffer() throws IOException;
+
+    /**
+     * Forces the written bytes to the disk.
+     *
+     * @throws IOException if the output file cannot be forced
+     */
+    protected abstract void force() throws IOException;
+
+    /**
+     * Closes the output file.
+     *
+     * @throws IOException if the output file cannot be closed
+     */
+    protected abstract void release() throws IOException;
+}
@@ -0,0 +1,90 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The backend which writes the log to an OutputStream, such as the body of the response of the game service.
+ * The errors of the stream are thrown as UncheckedIOException instead of IOException, so that a closed connection
+ * stops the game writing the log instead of stopping the whole program.
+ */
+public class StreamBackend extends OutputBackend {
+
+    /**
+     * The stream receiving the log.
+     */
+    private OutputStream stream;
+
+    /**
+     * Constructor of the backend.
+     *
+     * @param stream the stream receiving the log
+     * @param bufferSize the size of the buffer
+     * @param flushEveryTurn true if the buffer is written at the end of every turn
+     */
+    public StreamBackend(OutputStream stream, int bufferSize, boolean flushEveryTurn) {
+        super(flushEveryTurn, SyncPolicy.NONE);
+        this.stream = stream;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Writes the buffer if there is not enough room left in it.
+     *
+     * @param bytes the number of bytes the log is going to write
+     * @return true if the buffer was written
+     */
+    @Override
+    protected boolean nextBuffer(int bytes) {
+        if (this.buffer.remaining() < bytes) {
+            this.writeBuffer();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes the bytes of the buffer to the stream and empties the buffer.
+     *
+     * @throws UncheckedIOException if the stream cannot be written
+     */
+    @Override
+    protected void writeBuffer() {
+        int bytes = this.buffer.position();
+        long start = startWrite();
+        try {
+            this.stream.write(this.buffer.array(), 0, bytes);
+            this.stream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.buffer.clear();
+        endWrite(bytes, start);
+    }
+
+    /**
+     * Does nothing, a stream cannot be forced to the disk.
+     */
+    @Override
+    protected void force() {
+    }
+
+    /**
+     * Closes the stream.
+     *
+     * @throws UncheckedIOException if the stream cannot be closed
+     */
+    @Override
+    protected void release() {
+        try {
+            this.stream.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
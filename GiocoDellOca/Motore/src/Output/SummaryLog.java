@@ -0,0 +1,277 @@
+/**
+ * Contains: AsyncGameLog Class, BinaryLog Class, BinaryLogReader Class, BinaryOutput Class, ChannelBackend Class, GameLog Interface, GameRecord Class, GzipBackend Class, LogWriter Class, MappedBackend Class, Output Class, OutputBackend Class, StreamBackend Class, SummaryLog Class.
+ */
+package Output;
+
+import Cells.Cell;
+
+/**
+ * The log which passes the events of a game to another log, if any, and keeps the summary of the game:
+ * the winner and the number of rounds and turns.
+ */
+public class SummaryLog implements GameLog {
+
+    /**
+     * The log receiving the events, or null if only the summary is kept.
+     */
+    private GameLog log;
+
+    /**
+     * The number of rounds started.
+     */
+    private int rounds;
+
+    /**
+     * The number of turns started.
+     */
+    private long turns;
+
+    /**
+     * The name of the winner, null until the game ends.
+     */
+    private String winner;
+
+    /**
+     * The number of the winner, 0 until the game ends.
+     */
+    private int winnerNumber;
+
+    /**
+     * The number of the player of the last turn started.
+     */
+    private int lastPlayer;
+
+    /**
+     * Constructor of the log.
+     *
+     * @param log the log receiving the events, or null if only the summary is kept
+     */
+    public SummaryLog(GameLog log) {
+        this.log = log;
+        this.rounds = 0;
+        this.turns = 0;
+        this.winner = null;
+        this.winnerNumber = 0;
+        this.lastPlayer = 0;
+    }
+
+    /**
+     * Gets the number of rounds of the game.
+     *
+     * @return the number of rounds started
+     */
+    public int getRounds() {
+        return this.rounds;
+    }
+
+    /**
+     * Gets the number of turns of the game.
+     *
+     * @return the number of turns started
+     */
+    public long getTurns() {
+        return this.turns;
+    }
+
+    /**
+     * Gets the winner of the game.
+     *
+     * @return the name of the winner, null until the game ends
+     */
+    public String getWinner() {
+        return this.winner;
+    }
+
+    /**
+     * Gets the number of the winner, which is also the seat of the winner in the game.
+     *
+     * @return the number of the winner, 0 until the game ends
+     */
+    public int getWinnerNumber() {
+        return this.winnerNumber;
+    }
+
+    /**
+     * Prints initial command to the log.
+     */
+    @Override
+    public void begin() {
+        if (this.log != null) {
+            this.log.begin();
+        }
+    }
+
+    /**
+     * Closes the log.
+     */
+    @Override
+    public void finish() {
+        if (this.log != null) {
+            this.log.finish();
+        }
+    }
+
+    /**
+     * Prints the number of cells to the log.
+     *
+     * @param numberOfCells the number of the cells in the game's board
+     */
+    @Override
+    public void printNumberOfCells(int numberOfCells) {
+        if (this.log != null) {
+            this.log.printNumberOfCells(numberOfCells);
+        }
+    }
+
+    /**
+     * Defines a player in the log.
+     *
+     * @param number the player's number
+     * @param name the name of the player
+     */
+    @Override
+    public void printPlayer(int number, String name) {
+        if (this.log != null) {
+            this.log.printPlayer(number, name);
+        }
+    }
+
+    /**
+     * Prints "end of the turn" message to the log.
+     */
+    @Override
+    public void printEndTurn() {
+        if (this.log != null) {
+            this.log.printEndTurn();
+        }
+    }
+
+    /**
+     * Prints start of the turn command to the log, the turn of the first player starts a new round.
+     *
+     * @param number the number of the player who is performing the turn
+     */
+    @Override
+    public void printPlayerTurn(int number) {
+        this.lastPlayer = number;
+        this.turns++;
+        if (number == 1) {
+            this.rounds++;
+        }
+        if (this.log != null) {
+            this.log.printPlayerTurn(number);
+        }
+    }
+
+    /**
+     * Prints dice roll result to the log.
+     *
+     * @param diceRoll the result of the dice roll
+     */
+    @Override
+    public void printDiceRoll(int diceRoll) {
+        if (this.log != null) {
+            this.log.printDiceRoll(diceRoll);
+        }
+    }
+
+    /**
+     * Prints player's move animation command to the log.
+     * Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     */
+    @Override
+    public void printPrimaryAnimationWithin(Cell cell, int fromIndex) {
+        if (this.log != null) {
+            this.log.printPrimaryAnimationWithin(cell, fromIndex);
+        }
+    }
+
+    /**
+     * Prints player's move animation command to the log.
+     * Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param cell the cell reached with the dice roll
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     */
+    @Override
+    public void printPrimaryAnimationOut(Cell cell, int fromIndex, int boardSize) {
+        if (this.log != null) {
+            this.log.printPrimaryAnimationOut(cell, fromIndex, boardSize);
+        }
+    }
+
+    /**
+     * Prints the animation of the action of the cell reached by the player to the log.
+     *
+     * @param cell the cell reached by the player
+     * @param diceRoll the result of the dice roll
+     */
+    @Override
+    public void printSecondaryAnimation(Cell cell, int diceRoll) {
+        if (this.log != null) {
+            this.log.printSecondaryAnimation(cell, diceRoll);
+        }
+    }
+
+    /**
+     * Prints player's move animation command to the log, when the cell reached with the dice roll is a regular cell.
+     * Covers cases when the result of the dice roll does not exceed the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    @Override
+    public void printMoveWithin(int fromIndex, int index) {
+        if (this.log != null) {
+            this.log.printMoveWithin(fromIndex, index);
+        }
+    }
+
+    /**
+     * Prints player's move animation command to the log, when the cell reached with the dice roll is a regular cell.
+     * Covers cases when the result of the dice roll exceeds the length of the board.
+     *
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param boardSize the size of the game's board
+     * @param index the index of the regular cell reached with the dice roll
+     */
+    @Override
+    public void printMoveOut(int fromIndex, int boardSize, int index) {
+        if (this.log != null) {
+            this.log.printMoveOut(fromIndex, boardSize, index);
+        }
+    }
+
+    /**
+     * Prints the animation of a regular cell reached by the player to the log.
+     *
+     * @param index the index of the regular cell
+     */
+    @Override
+    public void printRegularCell(int index) {
+        if (this.log != null) {
+            this.log.printRegularCell(index);
+        }
+    }
+
+    /**
+     * Prints the final player's move animation command, and the victory command to the log, and keeps the winner,
+     * who is the player of the last turn started.
+     *
+     * @param name the name of the player who is performing the turn
+     * @param fromIndex the index of the cell where the player started the turn
+     * @param afterRollIndex the index of the cell where the player arrived after the dice roll, in this case the final cell
+     */
+    @Override
+    public void printVictory(String name, int fromIndex, int afterRollIndex) {
+        this.winner = name;
+        this.winnerNumber = this.lastPlayer;
+        if (this.log != null) {
+            this.log.printVictory(name, fromIndex, afterRollIndex);
+        }
+    }
+}
@@ -4,6 +4,8 @@
 package Player;
 
 import Cells.Cell;
+import Dice.DiceSource;
+import Dice.SplittableDice;
 
 /**
  * The class which represents the Player object.
@@ -11,9 +13,10 @@ import Cells.Cell;
 public class Player {
 
     /**
-     * The current cell of the player.
+     * The index of the current cell of the player.
+     * The index is kept instead of the cell, since the board does not store its regular cells.
      */
-    private Cell currentCell;
+    private int position;
 
     /**
      * The name of the player.
@@ -31,21 +34,23 @@ public class Player {
     private int numberOfTurnsToWait;
 
     /**
-     * The number of players.
+     * The source of the player's dice rolls.
      */
-    static public int numberOfPlayers = 0;
+    private DiceSource dice;
 
     /**
      * The constructor of the player.
+     * The number is given by the game, so that many games can be played in the same program.
      *
      * @param name the name of the player
+     * @param number the player's number in the game, starting from 1
      */
-    public Player (String name) {
-        this.numberOfPlayers++;
+    public Player (String name, int number) {
         this.name = name;
-        this.number = numberOfPlayers;
+        this.number = number;
         this.numberOfTurnsToWait = 0;
-        this.currentCell = null;
+        this.position = 0;
+        this.dice = new SplittableDice();
     }
 
     /**
@@ -68,12 +73,21 @@ public class Player {
     }
 
     /**
-     * Returns the current cell of the player.
+     * Returns the index of the current cell of the player.
      *
      * @return the current position of the player
      */
-    public Cell getCell() {
-        return this.currentCell;
+    public int getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Sets the index of the cell of the player.
+     *
+     * @param position the new position of the player
+     */
+    public void setPosition(int position) {
+        this.position = position;
     }
 
     /**
@@ -82,7 +96,7 @@ public class Player {
      * @param cell the new position of the player
      */
     public void setCell(Cell cell) {
-        this.currentCell = cell;
+        this.position = cell.getIndex();
     }
 
     /**
@@ -91,7 +105,16 @@ public class Player {
      * @return random integer number of the range [1,6]
      */
     public int diceRoll() {
-        return ((int) (Math.random()*10000) % 6)+ 1;
+        return this.dice.roll();
+    }
+
+    /**
+     * Sets the source of the player's dice rolls.
+     *
+     * @param dice the source of the dice rolls
+     */
+    public void setDice(DiceSource dice) {
+        this.dice = dice;
     }
 
     /**
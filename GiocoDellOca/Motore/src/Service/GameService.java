@@ -0,0 +1,561 @@
+/**
+ * Contains: GameService Class, Job Class, JobLog Class.
+ */
+package Service;
+
+import Board.Board;
+import Dice.SplittableDice;
+import Game.Game;
+import Output.Output;
+import Output.StreamBackend;
+import Simulation.BatchSimulation;
+import Simulation.SimulationResult;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class which plays and simulates games on the registered boards for the clients of a local HTTP service,
+ * so many games are played by one program instead of starting a new program for every game.
+ * Every request runs on its own virtual thread when the Java runtime provides them, otherwise on a pooled thread.
+ *
+ * Requests:
+ * GET /boards - the registered boards, one per line: name, number of cells, number of special cells
+ * POST /play?board=name&players=Name1,Name2[&seed=number][&format=log|summary] - plays a game and sends its log
+ * in the format of the output file while it is written, or only the winner and the number of rounds
+ * POST /simulate?board=name&players=number&games=number[&seed=number] - plays many games and sends the aggregate results
+ * GET /jobs - the running games and simulations, one per line: number, kind, board, running time
+ * DELETE /jobs/number - cancels a running game or simulation
+ *
+ * The number of the job is sent in the X-Job-Id header and the seed of the dice in the X-Seed header.
+ * The system property oca.service.jobs sets the number of jobs running at once, further requests are refused with 503;
+ * oca.service.timeout sets the longest time of a job in milliseconds, 0 for no limit.
+ * A game or a simulation has at most MAXIMUM_PLAYERS players and a simulation at most MAXIMUM_PLAYER_GAMES games
+ * times players, larger requests are refused with 400.
+ * A cancelled game stops within one turn and its log ends without the victory.
+ */
+public class GameService {
+
+    /**
+     * The default number of jobs running at once.
+     */
+    public static final int DEFAULT_JOBS = 16;
+
+    /**
+     * The default longest time of a job, in milliseconds.
+     */
+    public static final long DEFAULT_TIMEOUT = 600_000;
+
+    /**
+     * The largest number of players of a game or of a simulation, the arrays of the games are sized by it.
+     */
+    public static final int MAXIMUM_PLAYERS = 1024;
+
+    /**
+     * The largest number of games times the number of players of a simulation, which bounds the work of a request.
+     */
+    public static final long MAXIMUM_PLAYER_GAMES = 4_000_000_000L;
+
+    /**
+     * The size of the buffer of the log sent to the client.
+     */
+    private static final int LOG_BUFFER = 1 << 16;
+
+    /**
+     * The number of games simulated between two checks of the job.
+     */
+    private static final long GAMES_PER_CHECK = 1 << 16;
+
+    /**
+     * The HTTP server.
+     */
+    private HttpServer server;
+
+    /**
+     * The executor running the requests.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The registered boards by name.
+     */
+    private Map<String, Board> boards;
+
+    /**
+     * The running jobs by number.
+     */
+    private Map<Long, Job> jobs;
+
+    /**
+     * The number of the next job.
+     */
+    private AtomicLong nextJob;
+
+    /**
+     * The permits of the jobs running at once.
+     */
+    private Semaphore admission;
+
+    /**
+     * The longest time of a job, in milliseconds, 0 for no limit.
+     */
+    private long timeout;
+
+    /**
+     * Constructor of the service.
+     * The service does not accept requests until it is started.
+     *
+     * @param port the port of the service, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if the system properties of the service are wrong
+     */
+    public GameService(int port) throws IOException {
+        int maximumJobs = Integer.getInteger("oca.service.jobs", DEFAULT_JOBS);
+        if (maximumJobs <= 0) {
+            throw new IllegalArgumentException("oca.service.jobs must be positive");
+        }
+        this.timeout = Long.getLong("oca.service.timeout", DEFAULT_TIMEOUT);
+        if (this.timeout < 0) {
+            throw new IllegalArgumentException("oca.service.timeout must not be negative");
+        }
+        this.boards = new ConcurrentHashMap<>();
+        this.jobs = new ConcurrentHashMap<>();
+        this.nextJob = new AtomicLong(1);
+        this.admission = new Semaphore(maximumJobs);
+        this.executor = createExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/boards", exchange -> this.handle(exchange, "GET", this::listBoards));
+        this.server.createContext("/play", exchange -> this.handle(exchange, "POST", this::play));
+        this.server.createContext("/simulate", exchange -> this.handle(exchange, "POST", this::simulate));
+        this.server.createContext("/jobs", this::handleJobs);
+    }
+
+    /**
+     * Creates the executor running every request on a new virtual thread.
+     * The virtual threads are looked up by reflection, on a Java runtime without them the requests run on a pool of threads.
+     *
+     * @return the executor of the requests
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "oca-service");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Registers a board, the games of the requests naming it share the loaded board.
+     *
+     * @param name the name of the board in the requests
+     * @param board the loaded board
+     */
+    public void registerBoard(String name, Board board) {
+        this.boards.put(name, board);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Cancels the running jobs and stops accepting requests, waiting at most the given time for the running requests to end.
+     *
+     * @param delay the time to wait for the running requests, in seconds
+     */
+    public void stop(int delay) {
+        for (Job job : this.jobs.values()) {
+            job.cancel();
+        }
+        this.server.stop(delay);
+        this.executor.shutdown();
+    }
+
+    /**
+     * Gets the port of the service.
+     *
+     * @return the port bound by the service
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * The body of a request to the service.
+     */
+    private interface Request {
+
+        /**
+         * Handles the request and sends the response.
+         *
+         * @param exchange the exchange with the client
+         * @param parameters the parameters of the query
+         * @throws IOException if the response cannot be sent
+         */
+        void handle(HttpExchange exchange, Map<String, String> parameters) throws IOException;
+    }
+
+    /**
+     * Checks the method of a request, runs it and closes the exchange.
+     * The wrong parameters are answered with 400 and the unexpected errors with 500.
+     *
+     * @param exchange the exchange with the client
+     * @param method the method accepted by the request
+     * @param request the body of the request
+     */
+    private void handle(HttpExchange exchange, String method, Request request) {
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                respond(exchange, 405, "Method not allowed.");
+                return;
+            }
+            request.handle(exchange, readParameters(exchange));
+        } catch (IllegalArgumentException e) {
+            tryRespond(exchange, 400, e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            //The client has closed the connection.
+        } catch (RuntimeException e) {
+            tryRespond(exchange, 500, "Internal error: " + e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads the parameters of the query of a request.
+     *
+     * @param exchange the exchange with the client
+     * @return the parameters by name
+     */
+    private static Map<String, String> readParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Sends a whole response in plain text.
+     *
+     * @param exchange the exchange with the client
+     * @param status the status of the response
+     * @param body the text of the response
+     * @throws IOException if the response cannot be sent
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Sends a whole response, unless the response has already started.
+     *
+     * @param exchange the exchange with the client
+     * @param status the status of the response
+     * @param body the text of the response
+     */
+    private static void tryRespond(HttpExchange exchange, int status, String body) {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        try {
+            respond(exchange, status, body);
+        } catch (IOException e) {
+            //The client has closed the connection.
+        }
+    }
+
+    /**
+     * Sends the registered boards.
+     *
+     * @param exchange the exchange with the client
+     * @param parameters the parameters of the query
+     * @throws IOException if the response cannot be sent
+     */
+    private void listBoards(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, Board> entry : new TreeMap<>(this.boards).entrySet()) {
+            body.append(entry.getKey()).append(' ').append(entry.getValue().getNumberOfCells())
+                    .append(' ').append(entry.getValue().getNumberOfSpecialCells()).append('\n');
+        }
+        respond(exchange, 200, body.toString().trim());
+    }
+
+    /**
+     * Plays a game and sends its log, or its summary.
+     *
+     * @param exchange the exchange with the client
+     * @param parameters the parameters of the query
+     * @throws IOException if the response cannot be sent
+     */
+    private void play(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        String boardName = parameters.get("board");
+        Board board = this.getBoard(boardName);
+        String names = parameters.get("players");
+        if (names == null || names.isEmpty()) {
+            throw new IllegalArgumentException("Missing players.");
+        }
+        List<String> players = Arrays.asList(names.split(","));
+        if (players.size() > MAXIMUM_PLAYERS) {
+            throw new IllegalArgumentException("The number of players must be at most " + MAXIMUM_PLAYERS + ".");
+        }
+        String format = parameters.getOrDefault("format", "log");
+        if (!format.equals("log") && !format.equals("summary")) {
+            throw new IllegalArgumentException("The format must be log or summary.");
+        }
+        long seed = getSeed(parameters);
+        Job job = this.admit(exchange, "play", boardName, seed);
+        if (job == null) {
+            return;
+        }
+        try {
+            if (format.equals("log")) {
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(200, 0);
+                JobLog log = new JobLog(new Output(new StreamBackend(exchange.getResponseBody(), LOG_BUFFER, false)), job);
+                try {
+                    playGame(board, log, players, seed);
+                } catch (CancellationException e) {
+                    //The game stops at the end of a turn: the buffered log is sent up to it and closed.
+                    log.finish();
+                    throw e;
+                }
+            }
+            else {
+                JobLog log = new JobLog(null, job);
+                playGame(board, log, players, seed);
+                respond(exchange, 200, "Board: " + boardName + "\n"
+                        + "Number of players: " + players.size() + "\n"
+                        + "Seed: " + seed + "\n"
+                        + "Winner: " + log.getWinner() + "\n"
+                        + "Rounds: " + log.getRounds() + "\n"
+                        + "Turns: " + log.getTurns());
+            }
+        } catch (CancellationException e) {
+            tryRespond(exchange, 409, e.getMessage());
+        } finally {
+            this.release(job);
+        }
+    }
+
+    /**
+     * Plays a game on the board with the seeded dice.
+     *
+     * @param board the board of the game
+     * @param log the log of the game
+     * @param players the names of the players
+     * @param seed the seed of the dice
+     */
+    private static void playGame(Board board, JobLog log, List<String> players, long seed) {
+        Game game = new Game(board, log);
+        game.setDice(new SplittableDice(seed));
+        game.addPlayers(players);
+        game.playGame();
+    }
+
+    /**
+     * Plays many games and sends the aggregate results.
+     * The job is checked every GAMES_PER_CHECK games.
+     *
+     * @param exchange the exchange with the client
+     * @param parameters the parameters of the query
+     * @throws IOException if the response cannot be sent
+     */
+    private void simulate(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        String boardName = parameters.get("board");
+        Board board = this.getBoard(boardName);
+        long players = getPositive(parameters, "players");
+        if (players > MAXIMUM_PLAYERS) {
+            throw new IllegalArgumentException("The number of players must be at most " + MAXIMUM_PLAYERS + ".");
+        }
+        int numberOfPlayers = (int) players;
+        long numberOfGames = getPositive(parameters, "games");
+        if (numberOfGames > MAXIMUM_PLAYER_GAMES / numberOfPlayers) {
+            throw new IllegalArgumentException("The number of games times the number of players must be at most "
+                    + MAXIMUM_PLAYER_GAMES + ".");
+        }
+        long seed = getSeed(parameters);
+        Job job = this.admit(exchange, "simulate", boardName, seed);
+        if (job == null) {
+            return;
+        }
+        try {
+            BatchSimulation simulation = new BatchSimulation(board, numberOfPlayers, seed);
+            SimulationResult result = new SimulationResult(numberOfPlayers);
+            while (result.getNumberOfGames() < numberOfGames) {
+                job.check();
+                result.merge(simulation.run(Math.min(GAMES_PER_CHECK, numberOfGames - result.getNumberOfGames())));
+            }
+            respond(exchange, 200, "Board: " + boardName + "\n"
+                    + "Number of players: " + numberOfPlayers + "\n"
+                    + "Seed: " + seed + "\n"
+                    + result);
+        } catch (CancellationException e) {
+            tryRespond(exchange, 409, e.getMessage());
+        } finally {
+            this.release(job);
+        }
+    }
+
+    /**
+     * Sends the running jobs, or cancels one of them.
+     *
+     * @param exchange the exchange with the client
+     */
+    private void handleJobs(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/jobs") || path.equals("/jobs/")) {
+            this.handle(exchange, "GET", (e, parameters) -> {
+                StringBuilder body = new StringBuilder();
+                for (Job job : new TreeMap<>(this.jobs).values()) {
+                    body.append(job).append('\n');
+                }
+                respond(e, 200, body.toString().trim());
+            });
+            return;
+        }
+        this.handle(exchange, "DELETE", (e, parameters) -> {
+            long id;
+            try {
+                id = Long.parseLong(path.substring("/jobs/".length()));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Wrong job number.");
+            }
+            Job job = this.jobs.get(id);
+            if (job == null) {
+                respond(e, 404, "Unknown job " + id + ".");
+                return;
+            }
+            job.cancel();
+            respond(e, 200, "Cancelled job " + id + ".");
+        });
+    }
+
+    /**
+     * Starts a job if there is a free permit, otherwise refuses the request with 503.
+     *
+     * @param exchange the exchange with the client
+     * @param kind the kind of the job
+     * @param boardName the name of the board of the job
+     * @param seed the seed of the dice of the job
+     * @return the started job, or null if the request has been refused
+     * @throws IOException if the response cannot be sent
+     */
+    private Job admit(HttpExchange exchange, String kind, String boardName, long seed) throws IOException {
+        if (!this.admission.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, "Too many jobs.");
+            return null;
+        }
+        Job job = new Job(this.nextJob.getAndIncrement(), kind, boardName, this.timeout);
+        this.jobs.put(job.getId(), job);
+        exchange.getResponseHeaders().set("X-Job-Id", Long.toString(job.getId()));
+        exchange.getResponseHeaders().set("X-Seed", Long.toString(seed));
+        return job;
+    }
+
+    /**
+     * Ends a job and frees its permit.
+     *
+     * @param job the ended job
+     */
+    private void release(Job job) {
+        this.jobs.remove(job.getId());
+        this.admission.release();
+    }
+
+    /**
+     * Gets a registered board.
+     *
+     * @param name the name of the board
+     * @return the board
+     * @throws IllegalArgumentException if the board is not registered
+     */
+    private Board getBoard(String name) {
+        Board board = name == null ? null : this.boards.get(name);
+        if (board == null) {
+            throw new IllegalArgumentException("Unknown board " + name + ".");
+        }
+        return board;
+    }
+
+    /**
+     * Gets a positive number from the parameters.
+     *
+     * @param parameters the parameters of the query
+     * @param name the name of the parameter
+     * @return the number
+     * @throws IllegalArgumentException if the parameter is missing or is not a positive number
+     */
+    private static long getPositive(Map<String, String> parameters, String name) {
+        try {
+            long value = Long.parseLong(parameters.getOrDefault(name, ""));
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            //Reported below.
+        }
+        throw new IllegalArgumentException("The parameter " + name + " must be a positive number.");
+    }
+
+    /**
+     * Gets the seed of the dice from the parameters, or a random seed, which is sent back so the job can be reproduced.
+     *
+     * @param parameters the parameters of the query
+     * @return the seed of the dice
+     * @throws IllegalArgumentException if the seed is not a number
+     */
+    private static long getSeed(Map<String, String> parameters) {
+        String seed = parameters.get("seed");
+        if (seed == null) {
+            return new SplittableRandom().nextLong();
+        }
+        try {
+            return Long.parseLong(seed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The seed must be a number.");
+        }
+    }
+}
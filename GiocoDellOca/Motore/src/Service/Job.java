@@ -0,0 +1,100 @@
+/**
+ * Contains: GameService Class, Job Class, JobLog Class.
+ */
+package Service;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * The class which represents a game or a simulation running in the game service.
+ * A job stops at the next check after it has been cancelled or after its deadline.
+ */
+public class Job {
+
+    /**
+     * The number of the job.
+     */
+    private long id;
+
+    /**
+     * The kind of the job, "play" or "simulate".
+     */
+    private String kind;
+
+    /**
+     * The name of the board of the job.
+     */
+    private String boardName;
+
+    /**
+     * The time when the job started, in milliseconds.
+     */
+    private long startTime;
+
+    /**
+     * The time after which the job stops, in milliseconds, or Long.MAX_VALUE if the job has no deadline.
+     */
+    private long deadline;
+
+    /**
+     * True if the job has been cancelled.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor of the job.
+     *
+     * @param id the number of the job
+     * @param kind the kind of the job
+     * @param boardName the name of the board of the job
+     * @param timeout the longest time the job may run, in milliseconds, 0 for no limit
+     */
+    public Job(long id, String kind, String boardName, long timeout) {
+        this.id = id;
+        this.kind = kind;
+        this.boardName = boardName;
+        this.startTime = System.currentTimeMillis();
+        this.deadline = timeout > 0 ? this.startTime + timeout : Long.MAX_VALUE;
+        this.cancelled = false;
+    }
+
+    /**
+     * Gets the number of the job.
+     *
+     * @return the number of the job
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Cancels the job, it stops at its next check.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Stops the job if it has been cancelled or if its deadline has passed.
+     *
+     * @throws CancellationException if the job has to stop
+     */
+    public void check() {
+        if (this.cancelled) {
+            throw new CancellationException("Job " + this.id + " cancelled.");
+        }
+        if (System.currentTimeMillis() > this.deadline) {
+            throw new CancellationException("Job " + this.id + " timed out.");
+        }
+    }
+
+    /**
+     * Describes the job.
+     *
+     * @return the number, the kind, the board and the running time of the job
+     */
+    @Override
+    public String toString() {
+        return this.id + " " + this.kind + " " + this.boardName + " " + (System.currentTimeMillis() - this.startTime) + "ms";
+    }
+}
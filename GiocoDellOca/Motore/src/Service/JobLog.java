@@ -0,0 +1,41 @@
+/**
+ * Contains: GameService Class, Job Class, JobLog Class.
+ */
+package Service;
+
+import Output.GameLog;
+import Output.SummaryLog;
+
+/**
+ * The log which keeps the summary of a game of the service and checks its job at the end of every turn,
+ * so a cancelled game stops within one turn.
+ */
+public class JobLog extends SummaryLog {
+
+    /**
+     * The job of the game.
+     */
+    private Job job;
+
+    /**
+     * Constructor of the log.
+     *
+     * @param log the log receiving the events, or null if only the summary is kept
+     * @param job the job of the game
+     */
+    public JobLog(GameLog log, Job job) {
+        super(log);
+        this.job = job;
+    }
+
+    /**
+     * Prints "end of the turn" message to the log and checks the job.
+     *
+     * @throws java.util.concurrent.CancellationException if the job has been cancelled or has timed out
+     */
+    @Override
+    public void printEndTurn() {
+        super.printEndTurn();
+        this.job.check();
+    }
+}
@@ -0,0 +1,452 @@
+/**
+ * Contains: BatchSimulation Class, Checkpoint Class, GameBatch Class, SimulationResult Class.
+ */
+package Simulation;
+
+import Board.Board;
+import Board.MoveTable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The class which plays many games on one board in parallel, without writing the output file.
+ * The games are split between all the cores of the machine with the fork/join pool.
+ * The game number k always rolls the dice of the stream k of the seed, so the results do not depend on the threads.
+ * Every task plays its games in a GameBatch.
+ *
+ * With a checkpoint the games of every step are split between one GameBatch per thread, which play ROUNDS_PER_EPOCH
+ * rounds at a time: between two epochs the batches are still, and their state is written to the checkpoint when it is due.
+ * A simulation resumed from the checkpoint plays the same games with the same dice, so it gives the same results.
+ */
+public class BatchSimulation {
+
+    /**
+     * The number of games below which a task is not split any more.
+     */
+    private static final long GAMES_PER_TASK = 4096;
+
+    /**
+     * The number of games played between two checks of the confidence interval.
+     */
+    private static final long GAMES_PER_STEP = 1 << 16;
+
+    /**
+     * The number of games held at once by the batch of a task.
+     */
+    private static final int LANES = 1024;
+
+    /**
+     * The number of rounds played by every batch between two checks of the checkpoint.
+     */
+    private static final int ROUNDS_PER_EPOCH = 64;
+
+    /**
+     * The quantile of the normal distribution for the 95% confidence interval.
+     */
+    private static final double Z_95 = 1.96;
+
+    /**
+     * The precomputed destinations of all the moves on the game's board.
+     */
+    private MoveTable moveTable;
+
+    /**
+     * The fingerprint of the game's board, written to the checkpoint.
+     */
+    private long boardFingerprint;
+
+    /**
+     * The number of players taking part in every game.
+     */
+    private int numberOfPlayers;
+
+    /**
+     * The pool executing the games.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The seed of the dice of all the games.
+     */
+    private long seed;
+
+    /**
+     * The number of the next game to be played.
+     */
+    private long nextGame;
+
+    /**
+     * The checkpoint of the simulation, null if the simulation is not checkpointed.
+     */
+    private Checkpoint checkpoint;
+
+    /**
+     * The requested half width of the confidence interval of the checkpointed simulation, negative if there is none.
+     */
+    private double halfWidth;
+
+    /**
+     * The number of games of the checkpointed simulation, or its maximum number of games.
+     */
+    private long maximumGames;
+
+    /**
+     * The aggregate results of the completed steps of the checkpointed simulation, null before it starts.
+     */
+    private SimulationResult completed;
+
+    /**
+     * The batches playing the current step of the checkpointed simulation, null between two steps.
+     */
+    private GameBatch[] workers;
+
+    /**
+     * The aggregate results of the games ended in each batch of the current step.
+     */
+    private SimulationResult[] workerResults;
+
+    /**
+     * Constructor of the batch simulation with a random seed.
+     *
+     * @param board the loaded game's board
+     * @param numberOfPlayers the number of players taking part in every game
+     */
+    public BatchSimulation(Board board, int numberOfPlayers) {
+        this(board, numberOfPlayers, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor of the batch simulation.
+     *
+     * @param board the loaded game's board
+     * @param numberOfPlayers the number of players taking part in every game
+     * @param seed the seed of the dice, the same seed gives the same results
+     */
+    public BatchSimulation(Board board, int numberOfPlayers, long seed) {
+        this.moveTable = board.getMoveTable();
+        this.boardFingerprint = board.getFingerprint();
+        this.numberOfPlayers = numberOfPlayers;
+        this.pool = ForkJoinPool.commonPool();
+        this.seed = seed;
+        this.nextGame = 0;
+    }
+
+    /**
+     * Gets the seed of the dice of all the games.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Plays the given number of games.
+     *
+     * @param numberOfGames the number of games to be played, counting the games played before the checkpoint
+     * @return the aggregate results of the games
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     * @throws IllegalArgumentException if the resumed checkpoint belongs to another number of games
+     */
+    public SimulationResult run(long numberOfGames) {
+        if (this.checkpoint != null) {
+            return this.runSteps(-1.0, numberOfGames);
+        }
+        long firstGame = this.nextGame;
+        this.nextGame += numberOfGames;
+        return this.pool.invoke(new SimulationTask(firstGame, numberOfGames));
+    }
+
+    /**
+     * Plays games until the 95% confidence interval of the mean number of rounds is narrow enough.
+     *
+     * @param halfWidth the requested half width of the confidence interval
+     * @param maximumGames the number of games after which the simulation stops anyway
+     * @return the aggregate results of the games
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     * @throws IllegalArgumentException if the resumed checkpoint belongs to another half width or number of games
+     */
+    public SimulationResult runUntil(double halfWidth, long maximumGames) {
+        if (this.checkpoint != null) {
+            return this.runSteps(halfWidth, maximumGames);
+        }
+        SimulationResult result = new SimulationResult(this.numberOfPlayers);
+        while (result.getNumberOfGames() < maximumGames && result.getConfidenceHalfWidth(Z_95) > halfWidth) {
+            long games = Math.min(GAMES_PER_STEP, maximumGames - result.getNumberOfGames());
+            result.merge(this.run(games));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the state of the simulation to the checkpoint from now on, and resumes the simulation saved in it if it exists.
+     * The resumed simulation takes the seed of the checkpoint.
+     *
+     * @param checkpoint the checkpoint of the simulation
+     * @return true if the simulation has been resumed
+     * @throws IOException if the checkpoint cannot be read
+     * @throws IllegalArgumentException if the checkpoint is damaged or belongs to another board or number of players
+     */
+    public boolean resume(Checkpoint checkpoint) throws IOException {
+        this.checkpoint = checkpoint;
+        if (!checkpoint.exists()) {
+            return false;
+        }
+        checkpoint.read(this::readCheckpoint);
+        return true;
+    }
+
+    /**
+     * Plays the checkpointed simulation step by step, from the point where it was resumed.
+     *
+     * @param halfWidth the requested half width of the confidence interval, negative to play all the games
+     * @param maximumGames the number of games, or the maximum number of games
+     * @return the aggregate results of the games
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     * @throws IllegalArgumentException if the resumed checkpoint belongs to another simulation
+     */
+    private SimulationResult runSteps(double halfWidth, long maximumGames) {
+        if (this.completed == null) {
+            this.completed = new SimulationResult(this.numberOfPlayers);
+            this.halfWidth = halfWidth;
+            this.maximumGames = maximumGames;
+        } else if (Double.compare(this.halfWidth, halfWidth) != 0 || this.maximumGames != maximumGames) {
+            throw new IllegalArgumentException("the checkpoint belongs to another half width or number of games");
+        }
+        SimulationResult result = this.completed;
+        while (true) {
+            if (this.workers == null) {
+                if (result.getNumberOfGames() >= maximumGames
+                        || (halfWidth >= 0 && result.getConfidenceHalfWidth(Z_95) <= halfWidth)) {
+                    break;
+                }
+                this.startStep(Math.min(GAMES_PER_STEP, maximumGames - result.getNumberOfGames()));
+            }
+            this.playStep();
+            for (SimulationResult workerResult : this.workerResults) {
+                result.merge(workerResult);
+            }
+            this.workers = null;
+            this.workerResults = null;
+        }
+        this.completed = null;
+        try {
+            this.checkpoint.delete();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    /**
+     * Splits the games of a step between one batch per thread.
+     *
+     * @param numberOfGames the number of games of the step
+     */
+    private void startStep(long numberOfGames) {
+        int numberOfWorkers = (int) Math.min(Math.max(1, this.pool.getParallelism()), numberOfGames);
+        this.workers = new GameBatch[numberOfWorkers];
+        this.workerResults = new SimulationResult[numberOfWorkers];
+        long firstGame = this.nextGame;
+        for (int worker = 0; worker < numberOfWorkers; worker++) {
+            long endGame = this.nextGame + numberOfGames * (worker + 1) / numberOfWorkers;
+            this.workers[worker] = new GameBatch(this.moveTable, this.numberOfPlayers, (int) Math.min(LANES, endGame - firstGame), this.seed);
+            this.workers[worker].start(firstGame, endGame - firstGame);
+            this.workerResults[worker] = new SimulationResult(this.numberOfPlayers);
+            firstGame = endGame;
+        }
+        this.nextGame += numberOfGames;
+    }
+
+    /**
+     * Plays the games of the current step epoch by epoch, writing the checkpoint between two epochs when it is due.
+     *
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    private void playStep() {
+        while (this.pool.invoke(new EpochTask(0, this.workers.length))) {
+            if (this.checkpoint.isDue()) {
+                try {
+                    this.checkpoint.write(this::writeCheckpoint);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the state of the simulation: the board, the plan, the results of the completed steps and the batches.
+     *
+     * @param out the destination of the state
+     * @throws IOException if the state cannot be written
+     */
+    private void writeCheckpoint(DataOutputStream out) throws IOException {
+        out.writeLong(this.boardFingerprint);
+        out.writeInt(this.numberOfPlayers);
+        out.writeLong(this.seed);
+        out.writeLong(this.nextGame);
+        out.writeDouble(this.halfWidth);
+        out.writeLong(this.maximumGames);
+        this.completed.writeState(out);
+        out.writeInt(this.workers == null ? 0 : this.workers.length);
+        for (int worker = 0; this.workers != null && worker < this.workers.length; worker++) {
+            out.writeInt(this.workers[worker].getLanes());
+            this.workers[worker].writeState(out);
+            this.workerResults[worker].writeState(out);
+        }
+    }
+
+    /**
+     * Reads the state of the simulation written by writeCheckpoint.
+     *
+     * @param in the source of the state
+     * @throws IOException if the state cannot be read
+     * @throws IllegalArgumentException if the state belongs to another board or number of players, or is not valid
+     */
+    private void readCheckpoint(DataInputStream in) throws IOException {
+        if (in.readLong() != this.boardFingerprint) {
+            throw new IllegalArgumentException("the checkpoint belongs to another board");
+        }
+        if (in.readInt() != this.numberOfPlayers) {
+            throw new IllegalArgumentException("the checkpoint belongs to another number of players");
+        }
+        this.seed = in.readLong();
+        this.nextGame = in.readLong();
+        this.halfWidth = in.readDouble();
+        this.maximumGames = in.readLong();
+        this.completed = SimulationResult.readState(in);
+        int numberOfWorkers = in.readInt();
+        if (numberOfWorkers < 0 || numberOfWorkers > in.available()) {
+            throw new IllegalArgumentException("wrong number of batches");
+        }
+        this.workers = numberOfWorkers == 0 ? null : new GameBatch[numberOfWorkers];
+        this.workerResults = numberOfWorkers == 0 ? null : new SimulationResult[numberOfWorkers];
+        for (int worker = 0; worker < numberOfWorkers; worker++) {
+            int lanes = in.readInt();
+            if (lanes <= 0 || lanes > LANES) {
+                throw new IllegalArgumentException("wrong number of lanes");
+            }
+            this.workers[worker] = new GameBatch(this.moveTable, this.numberOfPlayers, lanes, this.seed);
+            this.workers[worker].readState(in);
+            this.workerResults[worker] = SimulationResult.readState(in);
+        }
+    }
+
+    /**
+     * The task which plays one epoch of a range of batches, splitting it while it holds more than one batch.
+     */
+    private class EpochTask extends RecursiveTask<Boolean> {
+
+        /**
+         * The version of the serialized form, required by RecursiveTask which is Serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The first batch of the range.
+         */
+        private final int firstWorker;
+
+        /**
+         * The batch after the last batch of the range.
+         */
+        private final int endWorker;
+
+        /**
+         * Constructor of the task.
+         *
+         * @param firstWorker the first batch of the range
+         * @param endWorker the batch after the last batch of the range
+         */
+        EpochTask(int firstWorker, int endWorker) {
+            this.firstWorker = firstWorker;
+            this.endWorker = endWorker;
+        }
+
+        /**
+         * Plays ROUNDS_PER_EPOCH rounds of the batches or splits them between two subtasks.
+         *
+         * @return true if there are still games to be played in the range
+         */
+        @Override
+        protected Boolean compute() {
+            if (this.endWorker - this.firstWorker == 1) {
+                GameBatch batch = workers[this.firstWorker];
+                SimulationResult result = workerResults[this.firstWorker];
+                boolean active = batch.getActiveLanes() > 0;
+                for (int round = 0; active && round < ROUNDS_PER_EPOCH; round++) {
+                    active = batch.step(result);
+                }
+                return active;
+            }
+            int half = (this.firstWorker + this.endWorker) >>> 1;
+            EpochTask first = new EpochTask(this.firstWorker, half);
+            EpochTask second = new EpochTask(half, this.endWorker);
+            first.fork();
+            boolean active = second.compute();
+            return first.join() | active;
+        }
+    }
+
+    /**
+     * The task which plays a range of games, splitting it while it is large.
+     */
+    private class SimulationTask extends RecursiveTask<SimulationResult> {
+
+        /**
+         * The version of the serialized form, required by RecursiveTask which is Serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The number of the first game to be played by the task.
+         */
+        private final long firstGame;
+
+        /**
+         * The number of games to be played by the task.
+         */
+        private final long numberOfGames;
+
+        /**
+         * Constructor of the task.
+         *
+         * @param firstGame the number of the first game to be played
+         * @param numberOfGames the number of games to be played
+         */
+        SimulationTask(long firstGame, long numberOfGames) {
+            this.firstGame = firstGame;
+            this.numberOfGames = numberOfGames;
+        }
+
+        /**
+         * Plays the games or splits them between two subtasks.
+         *
+         * @return the aggregate results of the games
+         */
+        @Override
+        protected SimulationResult compute() {
+            if (this.numberOfGames <= GAMES_PER_TASK) {
+                SimulationResult result = new SimulationResult(numberOfPlayers);
+                GameBatch batch = new GameBatch(moveTable, numberOfPlayers, (int) Math.min(LANES, this.numberOfGames), seed);
+                batch.start(this.firstGame, this.numberOfGames);
+                batch.playAll(result);
+                return result;
+            }
+            long half = this.numberOfGames / 2;
+            SimulationTask first = new SimulationTask(this.firstGame, half);
+            SimulationTask second = new SimulationTask(this.firstGame + half, this.numberOfGames - half);
+            first.fork();
+            SimulationResult result = second.compute();
+            result.merge(first.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Contains: BatchSimulation Class, Checkpoint Class, GameBatch Class, SimulationResult Class.
+ */
+package Simulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * The class which writes the state of a long simulation to a file, so that it can be resumed after a crash.
+ *
+ * The file is written periodically: the state is written to a temporary file in the same directory,
+ * forced to the disk and then moved over the checkpoint, so the checkpoint is always complete.
+ * Format: "OCAK", the version, the length of the state, the state written by the simulation and its CRC-32.
+ */
+public class Checkpoint {
+
+    /**
+     * The first bytes of a checkpoint, "OCAK".
+     */
+    private static final int MAGIC = 0x4F43414B;
+
+    /**
+     * The version of the format of the checkpoints.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The largest state read from a checkpoint.
+     */
+    private static final int MAXIMUM_STATE = 1 << 30;
+
+    /**
+     * The time between two checkpoints by default, in milliseconds.
+     */
+    public static final long DEFAULT_INTERVAL = 60000;
+
+    /**
+     * The writer of the state of a simulation.
+     */
+    public interface StateWriter {
+
+        /**
+         * Writes the state.
+         *
+         * @param out the destination of the state
+         * @throws IOException if the state cannot be written
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * The reader of the state of a simulation.
+     */
+    public interface StateReader {
+
+        /**
+         * Reads the state.
+         *
+         * @param in the source of the state
+         * @throws IOException if the state cannot be read
+         */
+        void read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * The path of the checkpoint.
+     */
+    private Path file;
+
+    /**
+     * The time between two checkpoints, in milliseconds.
+     */
+    private long interval;
+
+    /**
+     * The time of the last checkpoint, in milliseconds.
+     */
+    private long lastWrite;
+
+    /**
+     * Constructor of the checkpoint written every oca.checkpoint.interval milliseconds, by default every minute.
+     *
+     * @param file the name of the checkpoint file
+     */
+    public Checkpoint(String file) {
+        this(file, Long.getLong("oca.checkpoint.interval", DEFAULT_INTERVAL));
+    }
+
+    /**
+     * Constructor of the checkpoint.
+     *
+     * @param file the name of the checkpoint file
+     * @param interval the time between two checkpoints, in milliseconds
+     */
+    public Checkpoint(String file, long interval) {
+        this.file = Paths.get(file).toAbsolutePath();
+        this.interval = interval;
+        this.lastWrite = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks if there is a checkpoint to resume.
+     *
+     * @return true if the checkpoint file exists
+     */
+    public boolean exists() {
+        return Files.exists(this.file);
+    }
+
+    /**
+     * Checks if the time of the next checkpoint has come.
+     *
+     * @return true if the last checkpoint is older than the interval
+     */
+    public boolean isDue() {
+        return System.currentTimeMillis() - this.lastWrite >= this.interval;
+    }
+
+    /**
+     * Writes the checkpoint atomically.
+     *
+     * @param writer the writer of the state
+     * @throws IOException if the checkpoint cannot be written, the previous checkpoint is then left unchanged
+     */
+    public void write(StateWriter writer) throws IOException {
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        writer.write(new DataOutputStream(state));
+        CRC32 checksum = new CRC32();
+        checksum.update(state.toByteArray());
+        Path temporary = Files.createTempFile(this.file.getParent(), "checkpoint", ".tmp");
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temporary.toFile())) {
+                DataOutputStream out = new DataOutputStream(stream);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(state.size());
+                state.writeTo(out);
+                out.writeInt((int) checksum.getValue());
+                out.flush();
+                stream.getFD().sync();
+            }
+            try {
+                Files.move(temporary, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        this.lastWrite = System.currentTimeMillis();
+    }
+
+    /**
+     * Reads the checkpoint.
+     *
+     * @param reader the reader of the state
+     * @throws IOException if the checkpoint cannot be read
+     * @throws IllegalArgumentException if the file is not a checkpoint of this version or is damaged
+     */
+    public void read(StateReader reader) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(this.file)));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IllegalArgumentException("the file is not a checkpoint of this version");
+        }
+        int length = in.readInt();
+        if (length < 0 || length > MAXIMUM_STATE || length > in.available() - 4) {
+            throw new IllegalArgumentException("the checkpoint is truncated");
+        }
+        byte[] state = new byte[length];
+        in.readFully(state);
+        CRC32 checksum = new CRC32();
+        checksum.update(state);
+        if (in.readInt() != (int) checksum.getValue()) {
+            throw new IllegalArgumentException("the checkpoint is damaged");
+        }
+        reader.read(new DataInputStream(new ByteArrayInputStream(state)));
+    }
+
+    /**
+     * Deletes the checkpoint, when the simulation is finished.
+     *
+     * @throws IOException if the checkpoint cannot be deleted
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * Gets the name of the checkpoint file.
+     *
+     * @return the path of the checkpoint
+     */
+    @Override
+    public String toString() {
+        return this.file.toString();
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * Contains: BatchSimulation Class, Checkpoint Class, GameBatch Class, SimulationResult Class.
+ */
+package Simulation;
+
+import Board.MoveTable;
+import Dice.CounterDice;
+import Metrics.EngineMetrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The class which holds the state of many games at once in primitive arrays.
+ * Every game occupies a lane: the position and the turns to wait of each of its players are packed in one int,
+ * and the arrays are ordered by seat, so the players of the same seat in consecutive games are next to each other.
+ * When a game ends its lane is filled with the next game of the range, and stepping the batch allocates nothing.
+ * The state of the batch can be written to a checkpoint and read back, the games then continue with the same dice.
+ */
+public class GameBatch {
+
+    /**
+     * The marker of a lane without a game.
+     */
+    private static final long NO_GAME = -1;
+
+    /**
+     * The precomputed destinations of all the moves on the game's board.
+     */
+    private MoveTable moveTable;
+
+    /**
+     * The board's size, the index reached by the winning player.
+     */
+    private int boardSize;
+
+    /**
+     * The number of players taking part in every game.
+     */
+    private int numberOfPlayers;
+
+    /**
+     * The number of games held at once.
+     */
+    private int lanes;
+
+    /**
+     * The number of low bits of a packed state holding the position, the high bits hold the turns to wait.
+     */
+    private int positionBits;
+
+    /**
+     * The mask of the position in a packed state.
+     */
+    private int positionMask;
+
+    /**
+     * The packed states, the player of the seat s in the lane l is at s * lanes + l.
+     */
+    private int[] states;
+
+    /**
+     * The number of rounds started by the game of each lane.
+     */
+    private int[] rounds;
+
+    /**
+     * The number of the game of each lane, or NO_GAME.
+     */
+    private long[] games;
+
+    /**
+     * The key of the dice stream of the game of each lane.
+     */
+    private long[] streamKeys;
+
+    /**
+     * The number of dice rolled by the game of each lane.
+     */
+    private int[] rolls;
+
+    /**
+     * The seed of the dice of all the games.
+     */
+    private long seed;
+
+    /**
+     * The number of the next game to be put in a lane.
+     */
+    private long nextGame;
+
+    /**
+     * The number after the last game to be played.
+     */
+    private long endGame;
+
+    /**
+     * The number of lanes holding a game.
+     */
+    private int activeLanes;
+
+    /**
+     * Constructor of the batch.
+     *
+     * @param moveTable the move table of the game's board
+     * @param numberOfPlayers the number of players taking part in every game
+     * @param lanes the number of games held at once
+     * @param seed the seed of the dice of all the games
+     * @throws IllegalArgumentException if the positions and the turns to wait of the board do not fit in an int
+     */
+    public GameBatch(MoveTable moveTable, int numberOfPlayers, int lanes, long seed) {
+        this.moveTable = moveTable;
+        this.boardSize = moveTable.getBoardSize();
+        this.numberOfPlayers = numberOfPlayers;
+        this.lanes = lanes;
+        this.seed = seed;
+        this.positionBits = 32 - Integer.numberOfLeadingZeros(this.boardSize);
+        this.positionMask = (1 << this.positionBits) - 1;
+        int maximumWait = moveTable.getMaximumTurnsToWait();
+        if (32 - Integer.numberOfLeadingZeros(maximumWait) > 31 - this.positionBits) {
+            throw new IllegalArgumentException("the board is too large to pack the turns to wait of " + maximumWait);
+        }
+        this.states = new int[numberOfPlayers * lanes];
+        this.rounds = new int[lanes];
+        this.games = new long[lanes];
+        this.streamKeys = new long[lanes];
+        this.rolls = new int[lanes];
+        this.start(0, 0);
+    }
+
+    /**
+     * Empties the batch and starts playing a new range of games.
+     *
+     * @param firstGame the number of the first game
+     * @param numberOfGames the number of games to be played
+     */
+    public void start(long firstGame, long numberOfGames) {
+        this.nextGame = firstGame;
+        this.endGame = firstGame + numberOfGames;
+        this.activeLanes = 0;
+        for (int lane = 0; lane < this.lanes; lane++) {
+            this.games[lane] = NO_GAME;
+            this.loadGame(lane);
+        }
+    }
+
+    /**
+     * Puts the next game of the range in the lane, if there is one left.
+     *
+     * @param lane the free lane
+     */
+    private void loadGame(int lane) {
+        if (this.nextGame >= this.endGame) {
+            return;
+        }
+        long game = this.nextGame++;
+        this.games[lane] = game;
+        this.streamKeys[lane] = CounterDice.streamKey(this.seed, game);
+        this.rolls[lane] = 0;
+        this.rounds[lane] = 0;
+        for (int seat = 0; seat < this.numberOfPlayers; seat++) {
+            this.states[seat * this.lanes + lane] = 0;
+        }
+        this.activeLanes++;
+    }
+
+    /**
+     * Plays one round of every game in the batch, records the games which end and replaces them with new games.
+     *
+     * @param result the result where the ended games are recorded
+     * @return true if there are still games to be played
+     */
+    public boolean step(SimulationResult result) {
+        for (int lane = 0; lane < this.lanes; lane++) {
+            if (this.games[lane] != NO_GAME) {
+                this.rounds[lane]++;
+            }
+        }
+        for (int seat = 0; seat < this.numberOfPlayers; seat++) {
+            //Every lane still holding a game plays the turn of the seat.
+            if (EngineMetrics.ENABLED) {
+                EngineMetrics.get().recordTurns(this.activeLanes);
+            }
+            int base = seat * this.lanes;
+            for (int lane = 0; lane < this.lanes; lane++) {
+                //Skips the lanes without a game, including the games ended earlier in this round.
+                if (this.games[lane] == NO_GAME) {
+                    continue;
+                }
+                int state = this.states[base + lane];
+                //Checks if the player can move.
+                if (state > this.positionMask) {
+                    this.states[base + lane] = state - (1 << this.positionBits);
+                    continue;
+                }
+                int dice = CounterDice.rollAt(this.streamKeys[lane], this.rolls[lane]++);
+                int destination = this.moveTable.getDestination(state, dice);
+                //If the player has won.
+                if (destination == this.boardSize) {
+                    this.endGame(lane, seat, result);
+                    continue;
+                }
+                this.states[base + lane] = (this.moveTable.getTurnsToWait(destination) << this.positionBits) | destination;
+            }
+        }
+        for (int lane = 0; lane < this.lanes; lane++) {
+            if (this.games[lane] == NO_GAME) {
+                this.loadGame(lane);
+            }
+        }
+        return this.activeLanes > 0;
+    }
+
+    /**
+     * Records the game of the lane as won by the seat and frees the lane.
+     *
+     * @param lane the lane of the game
+     * @param seat the seat of the winning player
+     * @param result the result where the game is recorded
+     */
+    private void endGame(int lane, int seat, SimulationResult result) {
+        result.addGame(seat, this.rounds[lane]);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordGame();
+        }
+        this.games[lane] = NO_GAME;
+        this.activeLanes--;
+    }
+
+    /**
+     * Plays all the games of the range.
+     *
+     * @param result the result where the games are recorded
+     */
+    public void playAll(SimulationResult result) {
+        while (this.step(result)) {
+            //Every step plays one round of every game.
+        }
+    }
+
+    /**
+     * Gets the number of games held at once.
+     *
+     * @return the number of lanes
+     */
+    public int getLanes() {
+        return this.lanes;
+    }
+
+    /**
+     * Gets the number of lanes holding a game.
+     *
+     * @return the number of games in progress
+     */
+    public int getActiveLanes() {
+        return this.activeLanes;
+    }
+
+    /**
+     * Gets the position of a player.
+     *
+     * @param lane the lane of the game
+     * @param seat the seat of the player
+     * @return the index of the cell of the player
+     */
+    public int getPosition(int lane, int seat) {
+        return this.states[seat * this.lanes + lane] & this.positionMask;
+    }
+
+    /**
+     * Gets the turns to wait of a player.
+     *
+     * @param lane the lane of the game
+     * @param seat the seat of the player
+     * @return the number of turns the player still has to wait
+     */
+    public int getTurnsToWait(int lane, int seat) {
+        return this.states[seat * this.lanes + lane] >>> this.positionBits;
+    }
+
+    /**
+     * Writes the state of the batch: the range of the games and the games in progress.
+     * The keys of the dice are not written, they are computed again from the seed and the number of the game.
+     *
+     * @param out the destination of the state
+     * @throws IOException if the state cannot be written
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(this.lanes);
+        out.writeInt(this.numberOfPlayers);
+        out.writeLong(this.nextGame);
+        out.writeLong(this.endGame);
+        for (int lane = 0; lane < this.lanes; lane++) {
+            out.writeLong(this.games[lane]);
+            if (this.games[lane] == NO_GAME) {
+                continue;
+            }
+            out.writeInt(this.rounds[lane]);
+            out.writeInt(this.rolls[lane]);
+            for (int seat = 0; seat < this.numberOfPlayers; seat++) {
+                out.writeInt(this.states[seat * this.lanes + lane]);
+            }
+        }
+    }
+
+    /**
+     * Reads the state of the batch written by writeState, replacing the games of the batch.
+     *
+     * @param in the source of the state
+     * @throws IOException if the state cannot be read
+     * @throws IllegalArgumentException if the state belongs to a batch of another size or is not valid
+     */
+    public void readState(DataInput in) throws IOException {
+        if (in.readInt() != this.lanes || in.readInt() != this.numberOfPlayers) {
+            throw new IllegalArgumentException("the batch has another number of lanes or players");
+        }
+        this.nextGame = in.readLong();
+        this.endGame = in.readLong();
+        if (this.nextGame < 0 || this.nextGame > this.endGame) {
+            throw new IllegalArgumentException("wrong range of games");
+        }
+        this.activeLanes = 0;
+        for (int lane = 0; lane < this.lanes; lane++) {
+            this.games[lane] = in.readLong();
+            if (this.games[lane] == NO_GAME) {
+                continue;
+            }
+            if (this.games[lane] < 0 || this.games[lane] >= this.nextGame) {
+                throw new IllegalArgumentException("the game " + this.games[lane] + " is out of the range");
+            }
+            this.streamKeys[lane] = CounterDice.streamKey(this.seed, this.games[lane]);
+            this.rounds[lane] = in.readInt();
+            this.rolls[lane] = in.readInt();
+            for (int seat = 0; seat < this.numberOfPlayers; seat++) {
+                int state = in.readInt();
+                if ((state & this.positionMask) >= this.boardSize) {
+                    throw new IllegalArgumentException("the position " + (state & this.positionMask) + " is out of the board");
+                }
+                this.states[seat * this.lanes + lane] = state;
+            }
+            this.activeLanes++;
+        }
+    }
+}
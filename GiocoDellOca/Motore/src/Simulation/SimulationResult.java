@@ -0,0 +1,267 @@
+/**
+ * Contains: BatchSimulation Class, Checkpoint Class, GameBatch Class, SimulationResult Class.
+ */
+package Simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The class which collects the aggregate results of many simulated games.
+ * All the statistics are kept as integer sums, so merging partial results is exact and independent of the order.
+ */
+public class SimulationResult {
+
+    /**
+     * The largest number of players of the aggregates read from a checkpoint.
+     */
+    private static final int MAXIMUM_STATE_PLAYERS = 1 << 16;
+
+    /**
+     * The largest distribution of the rounds read from a checkpoint.
+     */
+    private static final int MAXIMUM_STATE_ROUNDS = 1 << 26;
+
+    /**
+     * The number of the simulated games.
+     */
+    private long numberOfGames;
+
+    /**
+     * The number of games won by each seat, seat 0 is the first player to move.
+     */
+    private long[] winsPerSeat;
+
+    /**
+     * The number of games which ended after the given number of rounds.
+     */
+    private long[] roundsDistribution;
+
+    /**
+     * The sum of the rounds of all the games.
+     */
+    private long sumOfRounds;
+
+    /**
+     * The sum of the squared rounds of all the games.
+     */
+    private long sumOfSquaredRounds;
+
+    /**
+     * Constructor of the empty result.
+     *
+     * @param numberOfPlayers the number of players taking part in every game
+     */
+    public SimulationResult(int numberOfPlayers) {
+        this.numberOfGames = 0;
+        this.winsPerSeat = new long[numberOfPlayers];
+        this.roundsDistribution = new long[64];
+        this.sumOfRounds = 0;
+        this.sumOfSquaredRounds = 0;
+    }
+
+    /**
+     * Records the result of one game.
+     *
+     * @param winnerSeat the seat of the player who has won the game
+     * @param rounds the number of rounds played
+     */
+    public void addGame(int winnerSeat, int rounds) {
+        this.numberOfGames++;
+        this.winsPerSeat[winnerSeat]++;
+        if (rounds >= this.roundsDistribution.length) {
+            this.roundsDistribution = Arrays.copyOf(this.roundsDistribution, Math.max(rounds + 1, 2 * this.roundsDistribution.length));
+        }
+        this.roundsDistribution[rounds]++;
+        this.sumOfRounds += rounds;
+        this.sumOfSquaredRounds += (long) rounds * rounds;
+    }
+
+    /**
+     * Adds all the games of another result to this result.
+     *
+     * @param other the result to be merged
+     */
+    public void merge(SimulationResult other) {
+        this.numberOfGames += other.numberOfGames;
+        for (int i = 0; i < this.winsPerSeat.length; i++) {
+            this.winsPerSeat[i] += other.winsPerSeat[i];
+        }
+        if (other.roundsDistribution.length > this.roundsDistribution.length) {
+            this.roundsDistribution = Arrays.copyOf(this.roundsDistribution, other.roundsDistribution.length);
+        }
+        for (int i = 0; i < other.roundsDistribution.length; i++) {
+            this.roundsDistribution[i] += other.roundsDistribution[i];
+        }
+        this.sumOfRounds += other.sumOfRounds;
+        this.sumOfSquaredRounds += other.sumOfSquaredRounds;
+    }
+
+    /**
+     * Gets the number of the simulated games.
+     *
+     * @return the number of games
+     */
+    public long getNumberOfGames() {
+        return this.numberOfGames;
+    }
+
+    /**
+     * Gets the number of players taking part in every game.
+     *
+     * @return the number of seats
+     */
+    public int getNumberOfPlayers() {
+        return this.winsPerSeat.length;
+    }
+
+    /**
+     * Gets the number of games won by the given seat.
+     *
+     * @param seat the seat of the player, 0 is the first player to move
+     * @return the number of won games
+     */
+    public long getWins(int seat) {
+        return this.winsPerSeat[seat];
+    }
+
+    /**
+     * Gets the number of games which ended after the given number of rounds.
+     *
+     * @param rounds the number of rounds
+     * @return the number of games
+     */
+    public long getGamesEndedAfter(int rounds) {
+        if (rounds < 0 || rounds >= this.roundsDistribution.length) {
+            return 0;
+        }
+        return this.roundsDistribution[rounds];
+    }
+
+    /**
+     * Gets the longest game played.
+     *
+     * @return the maximum number of rounds, 0 if no game was played
+     */
+    public int getMaximumRounds() {
+        for (int i = this.roundsDistribution.length - 1; i > 0; i--) {
+            if (this.roundsDistribution[i] != 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the mean number of rounds of a game.
+     *
+     * @return the mean number of rounds
+     */
+    public double getMeanRounds() {
+        if (this.numberOfGames == 0) {
+            return 0.0;
+        }
+        return (double) this.sumOfRounds / this.numberOfGames;
+    }
+
+    /**
+     * Gets the sample variance of the number of rounds of a game.
+     *
+     * @return the variance of the number of rounds
+     */
+    public double getVarianceOfRounds() {
+        if (this.numberOfGames < 2) {
+            return 0.0;
+        }
+        double mean = this.getMeanRounds();
+        return (this.sumOfSquaredRounds - mean * this.sumOfRounds) / (this.numberOfGames - 1);
+    }
+
+    /**
+     * Gets the half width of the confidence interval of the mean number of rounds.
+     *
+     * @param z the quantile of the normal distribution, for example 1.96 for the 95% interval
+     * @return the half width of the interval
+     */
+    public double getConfidenceHalfWidth(double z) {
+        if (this.numberOfGames < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return z * Math.sqrt(this.getVarianceOfRounds() / this.numberOfGames);
+    }
+
+    /**
+     * Returns the summary of the result.
+     *
+     * @return the result as a text
+     */
+    @Override
+    public String toString() {
+        String summary = "";
+        summary += "Games: " + this.numberOfGames + "\n";
+        for (int i = 0; i < this.winsPerSeat.length; i++) {
+            summary += "    -> Player " + (i + 1) + " wins: " + this.winsPerSeat[i]
+                    + " (" + String.format("%.4f", this.numberOfGames == 0 ? 0.0 : (double) this.winsPerSeat[i] / this.numberOfGames) + ")\n";
+        }
+        summary += "Mean rounds: " + String.format("%.4f", this.getMeanRounds()) + "\n";
+        summary += "Variance of rounds: " + String.format("%.4f", this.getVarianceOfRounds()) + "\n";
+        summary += "95% confidence half width: " + String.format("%.4f", this.getConfidenceHalfWidth(1.96)) + "\n";
+        summary += "Longest game: " + this.getMaximumRounds() + " rounds";
+        return summary;
+    }
+
+    /**
+     * Writes the aggregates, the distribution of the rounds without its trailing zeros.
+     *
+     * @param out the destination of the aggregates
+     * @throws IOException if the aggregates cannot be written
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(this.numberOfGames);
+        out.writeInt(this.winsPerSeat.length);
+        for (long wins : this.winsPerSeat) {
+            out.writeLong(wins);
+        }
+        int length = this.getMaximumRounds() + 1;
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeLong(this.roundsDistribution[i]);
+        }
+        out.writeLong(this.sumOfRounds);
+        out.writeLong(this.sumOfSquaredRounds);
+    }
+
+    /**
+     * Reads the aggregates written by writeState.
+     *
+     * @param in the source of the aggregates
+     * @return the aggregates
+     * @throws IOException if the aggregates cannot be read
+     * @throws IllegalArgumentException if the aggregates are not valid
+     */
+    public static SimulationResult readState(DataInput in) throws IOException {
+        long numberOfGames = in.readLong();
+        int numberOfPlayers = in.readInt();
+        if (numberOfGames < 0 || numberOfPlayers <= 0 || numberOfPlayers > MAXIMUM_STATE_PLAYERS) {
+            throw new IllegalArgumentException("wrong aggregates");
+        }
+        SimulationResult result = new SimulationResult(numberOfPlayers);
+        result.numberOfGames = numberOfGames;
+        for (int i = 0; i < numberOfPlayers; i++) {
+            result.winsPerSeat[i] = in.readLong();
+        }
+        int length = in.readInt();
+        if (length <= 0 || length > MAXIMUM_STATE_ROUNDS) {
+            throw new IllegalArgumentException("wrong distribution of the rounds");
+        }
+        result.roundsDistribution = new long[Math.max(length, result.roundsDistribution.length)];
+        for (int i = 0; i < length; i++) {
+            result.roundsDistribution[i] = in.readLong();
+        }
+        result.sumOfRounds = in.readLong();
+        result.sumOfSquaredRounds = in.readLong();
+        return result;
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * Contains: Tournament Class, TournamentResult Class.
+ */
+package Tournament;
+
+import Board.Board;
+import Dice.SplittableDice;
+import Game.Game;
+import Output.SummaryLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The class which plays a tournament: every seating of the roster plays the same number of games on every board.
+ * The seatings are all the permutations of the roster, or its rotations, so every player takes every seat.
+ *
+ * The games are played in parallel by a pool of threads owned by the tournament: the tournament waits for all of them,
+ * and if one game fails the remaining games are cancelled and the pool is shut down before the error is reported.
+ * Only GAMES_IN_FLIGHT_PER_THREAD games per thread are submitted at once, the next game is submitted when one ends,
+ * so the memory does not grow with the number of games of the tournament.
+ * The dice of every game are split from the seed in the order of the games, so the results do not depend on the threads.
+ * The system property oca.tournament.threads sets the number of threads, by default the number of processors.
+ */
+public class Tournament {
+
+    /**
+     * The largest roster whose permutations can be played.
+     */
+    public static final int MAXIMUM_PERMUTED_PLAYERS = 8;
+
+    /**
+     * The number of games submitted to the pool and not yet taken, for each thread.
+     */
+    private static final int GAMES_IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * The names of the boards.
+     */
+    private List<String> boardNames;
+
+    /**
+     * The loaded boards, shared by all their games.
+     */
+    private List<Board> boards;
+
+    /**
+     * The names of the players.
+     */
+    private List<String> roster;
+
+    /**
+     * The position in the roster of the player of each seat, for each seating.
+     */
+    private int[][] seatings;
+
+    /**
+     * The number of games of each seating on each board.
+     */
+    private int gamesPerSeating;
+
+    /**
+     * The seed of the dice of the tournament.
+     */
+    private long seed;
+
+    /**
+     * Constructor of the tournament.
+     *
+     * @param boardNames the names of the boards
+     * @param boards the loaded boards
+     * @param roster the names of the players, every game seats all of them
+     * @param permutations true to play all the permutations of the roster, false to play its rotations
+     * @param gamesPerSeating the number of games of each seating on each board
+     * @param seed the seed of the dice of the tournament
+     * @throws IllegalArgumentException if the roster is empty, has repeated names or is too large for the permutations
+     */
+    public Tournament(List<String> boardNames, List<Board> boards, List<String> roster, boolean permutations, int gamesPerSeating, long seed) {
+        if (roster.isEmpty() || new HashSet<>(roster).size() != roster.size()) {
+            throw new IllegalArgumentException("the names of the players must be different");
+        }
+        if (permutations && roster.size() > MAXIMUM_PERMUTED_PLAYERS) {
+            throw new IllegalArgumentException("the permutations need at most " + MAXIMUM_PERMUTED_PLAYERS + " players");
+        }
+        if (gamesPerSeating <= 0) {
+            throw new IllegalArgumentException("the number of games must be positive");
+        }
+        this.boardNames = new ArrayList<>(boardNames);
+        this.boards = new ArrayList<>(boards);
+        this.roster = new ArrayList<>(roster);
+        this.seatings = permutations ? permutations(roster.size()) : rotations(roster.size());
+        this.gamesPerSeating = gamesPerSeating;
+        this.seed = seed;
+    }
+
+    /**
+     * Builds all the permutations of the seats, in lexicographic order.
+     *
+     * @param numberOfPlayers the number of players
+     * @return the position in the roster of the player of each seat, for each permutation
+     */
+    private static int[][] permutations(int numberOfPlayers) {
+        List<int[]> seatings = new ArrayList<>();
+        int[] seating = new int[numberOfPlayers];
+        for (int i = 0; i < numberOfPlayers; i++) {
+            seating[i] = i;
+        }
+        while (true) {
+            seatings.add(seating.clone());
+            //Finds the last seat followed by a larger one, swaps it with the last larger seat and reverses the rest.
+            int i = numberOfPlayers - 2;
+            while (i >= 0 && seating[i] > seating[i + 1]) {
+                i--;
+            }
+            if (i < 0) {
+                return seatings.toArray(new int[0][]);
+            }
+            int j = numberOfPlayers - 1;
+            while (seating[j] < seating[i]) {
+                j--;
+            }
+            swap(seating, i, j);
+            for (int a = i + 1, b = numberOfPlayers - 1; a < b; a++, b--) {
+                swap(seating, a, b);
+            }
+        }
+    }
+
+    /**
+     * Swaps two seats.
+     *
+     * @param seating the seating
+     * @param i the first seat
+     * @param j the second seat
+     */
+    private static void swap(int[] seating, int i, int j) {
+        int player = seating[i];
+        seating[i] = seating[j];
+        seating[j] = player;
+    }
+
+    /**
+     * Builds the rotations of the seats, so every player takes every seat once.
+     *
+     * @param numberOfPlayers the number of players
+     * @return the position in the roster of the player of each seat, for each rotation
+     */
+    private static int[][] rotations(int numberOfPlayers) {
+        int[][] seatings = new int[numberOfPlayers][numberOfPlayers];
+        for (int rotation = 0; rotation < numberOfPlayers; rotation++) {
+            for (int seat = 0; seat < numberOfPlayers; seat++) {
+                seatings[rotation][seat] = (seat + rotation) % numberOfPlayers;
+            }
+        }
+        return seatings;
+    }
+
+    /**
+     * Gets the number of seatings of the tournament.
+     *
+     * @return the number of seatings
+     */
+    public int getNumberOfSeatings() {
+        return this.seatings.length;
+    }
+
+    /**
+     * Gets the number of games of the tournament.
+     *
+     * @return the number of games on all the boards
+     */
+    public long getNumberOfGames() {
+        return (long) this.boards.size() * this.seatings.length * this.gamesPerSeating;
+    }
+
+    /**
+     * Plays all the games of the tournament.
+     *
+     * @return the results of the games
+     * @throws InterruptedException if the thread is interrupted while it waits for the games
+     * @throws IllegalStateException if a game fails, after the other games have been cancelled
+     */
+    public TournamentResult play() throws InterruptedException {
+        int threads = Math.max(1, Integer.getInteger("oca.tournament.threads", Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "oca-tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<int[]> games = new ExecutorCompletionService<>(executor);
+            SplittableDice dice = new SplittableDice(this.seed);
+            long numberOfGames = this.getNumberOfGames();
+            long submitted = 0;
+            while (submitted < numberOfGames && submitted < (long) threads * GAMES_IN_FLIGHT_PER_THREAD) {
+                games.submit(this.playGame(submitted++, dice.split()));
+            }
+            TournamentResult result = new TournamentResult(this.boardNames, this.roster);
+            for (long i = 0; i < numberOfGames; i++) {
+                int[] game = games.take().get();
+                result.addGame(game[0], this.seatings[game[1]], game[2], game[3]);
+                //Keeps the pool busy with the next game, the dice are still split in the order of the games.
+                if (submitted < numberOfGames) {
+                    games.submit(this.playGame(submitted++, dice.split()));
+                }
+            }
+            return result;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a game of the tournament failed: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the task playing one game. The games are numbered board by board, and seating by seating on each board.
+     *
+     * @param number the number of the game
+     * @param dice the dice of the game
+     * @return the task returning the board, the seating, the seat of the winner and the number of rounds
+     */
+    private Callable<int[]> playGame(long number, SplittableDice dice) {
+        int board = (int) (number / ((long) this.seatings.length * this.gamesPerSeating));
+        int seating = (int) (number / this.gamesPerSeating % this.seatings.length);
+        return () -> {
+            SummaryLog log = new SummaryLog(null);
+            Game game = new Game(this.boards.get(board), log);
+            game.setDice(dice);
+            List<String> names = new ArrayList<>();
+            for (int player : this.seatings[seating]) {
+                names.add(this.roster.get(player));
+            }
+            game.addPlayers(names);
+            game.playGame();
+            return new int[]{board, seating, log.getWinnerNumber(), log.getRounds()};
+        };
+    }
+
+    /**
+     * Describes the seatings of the tournament.
+     *
+     * @return the names of the players of each seating, one seating per line
+     */
+    public String describeSeatings() {
+        List<String> description = new ArrayList<>();
+        for (int[] seating : this.seatings) {
+            String[] names = new String[seating.length];
+            for (int seat = 0; seat < seating.length; seat++) {
+                names[seat] = this.roster.get(seating[seat]);
+            }
+            description.add("    -> " + String.join(", ", Arrays.asList(names)));
+        }
+        return String.join("\n", description);
+    }
+}
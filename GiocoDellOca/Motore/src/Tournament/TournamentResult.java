@@ -0,0 +1,181 @@
+/**
+ * Contains: Tournament Class, TournamentResult Class.
+ */
+package Tournament;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The class which collects the results of the games of a tournament:
+ * the wins of every player and of every seat on every board, and the number of rounds.
+ */
+public class TournamentResult {
+
+    /**
+     * The names of the boards.
+     */
+    private List<String> boardNames;
+
+    /**
+     * The names of the players of the roster.
+     */
+    private List<String> roster;
+
+    /**
+     * The number of wins of each player of the roster, for each board.
+     */
+    private long[][] winsPerPlayer;
+
+    /**
+     * The number of wins of each seat, for each board.
+     */
+    private long[][] winsPerSeat;
+
+    /**
+     * The number of games played on each board.
+     */
+    private long[] games;
+
+    /**
+     * The sum of the rounds of the games played on each board.
+     */
+    private long[] rounds;
+
+    /**
+     * Constructor of an empty result.
+     *
+     * @param boardNames the names of the boards
+     * @param roster the names of the players, every game seats all of them
+     */
+    public TournamentResult(List<String> boardNames, List<String> roster) {
+        this.boardNames = new ArrayList<>(boardNames);
+        this.roster = new ArrayList<>(roster);
+        this.winsPerPlayer = new long[boardNames.size()][roster.size()];
+        this.winsPerSeat = new long[boardNames.size()][roster.size()];
+        this.games = new long[boardNames.size()];
+        this.rounds = new long[boardNames.size()];
+    }
+
+    /**
+     * Adds the result of one game.
+     *
+     * @param board the position of the board of the game
+     * @param seating the position in the roster of the player of each seat
+     * @param winnerSeat the seat of the winner, starting from 1
+     * @param rounds the number of rounds of the game
+     */
+    public void addGame(int board, int[] seating, int winnerSeat, int rounds) {
+        this.winsPerPlayer[board][seating[winnerSeat - 1]]++;
+        this.winsPerSeat[board][winnerSeat - 1]++;
+        this.games[board]++;
+        this.rounds[board] += rounds;
+    }
+
+    /**
+     * Gets the number of games played on a board.
+     *
+     * @param board the position of the board
+     * @return the number of games
+     */
+    public long getGames(int board) {
+        return this.games[board];
+    }
+
+    /**
+     * Gets the number of games won by a player on a board.
+     *
+     * @param board the position of the board
+     * @param player the position of the player in the roster
+     * @return the number of wins
+     */
+    public long getWins(int board, int player) {
+        return this.winsPerPlayer[board][player];
+    }
+
+    /**
+     * Gets the number of games won by a player on all the boards.
+     *
+     * @param player the position of the player in the roster
+     * @return the number of wins
+     */
+    public long getTotalWins(int player) {
+        long wins = 0;
+        for (long[] board : this.winsPerPlayer) {
+            wins += board[player];
+        }
+        return wins;
+    }
+
+    /**
+     * Gets the number of games won from a seat on a board.
+     *
+     * @param board the position of the board
+     * @param seat the seat, starting from 1
+     * @return the number of wins
+     */
+    public long getSeatWins(int board, int seat) {
+        return this.winsPerSeat[board][seat - 1];
+    }
+
+    /**
+     * Gets the mean number of rounds of the games played on a board.
+     *
+     * @param board the position of the board
+     * @return the mean number of rounds, 0 if no game was played
+     */
+    public double getMeanRounds(int board) {
+        return this.games[board] == 0 ? 0.0 : (double) this.rounds[board] / this.games[board];
+    }
+
+    /**
+     * Formats a number of wins with its rate.
+     *
+     * @param wins the number of wins
+     * @param games the number of games
+     * @return the wins followed by the rate in brackets
+     */
+    private static String rate(long wins, long games) {
+        return wins + " (" + String.format("%.4f", games == 0 ? 0.0 : (double) wins / games) + ")";
+    }
+
+    /**
+     * Returns the standings and the win rates of the players and of the seats on every board.
+     *
+     * @return the result as a text
+     */
+    @Override
+    public String toString() {
+        long totalGames = 0;
+        for (long boardGames : this.games) {
+            totalGames += boardGames;
+        }
+        //Sorts the players by their wins, the players with the same wins keep the order of the roster.
+        List<Integer> standings = new ArrayList<>();
+        for (int i = 0; i < this.roster.size(); i++) {
+            standings.add(i);
+        }
+        standings.sort((a, b) -> Long.compare(this.getTotalWins(b), this.getTotalWins(a)));
+        StringBuilder summary = new StringBuilder();
+        summary.append("Games: ").append(totalGames).append("\n");
+        summary.append("Standings:").append("\n");
+        for (int i = 0; i < standings.size(); i++) {
+            int player = standings.get(i);
+            summary.append("    ").append(i + 1).append(". ").append(this.roster.get(player)).append(" wins: ")
+                    .append(rate(this.getTotalWins(player), totalGames)).append("\n");
+        }
+        for (int board = 0; board < this.boardNames.size(); board++) {
+            summary.append("Board ").append(this.boardNames.get(board)).append(": ").append(this.games[board])
+                    .append(" games, mean rounds ").append(String.format("%.4f", this.getMeanRounds(board))).append("\n");
+            for (int player = 0; player < this.roster.size(); player++) {
+                summary.append("    -> ").append(this.roster.get(player)).append(" wins: ")
+                        .append(rate(this.winsPerPlayer[board][player], this.games[board])).append("\n");
+            }
+            for (int seat = 1; seat <= this.roster.size(); seat++) {
+                summary.append("    -> Seat ").append(seat).append(" wins: ")
+                        .append(rate(this.getSeatWins(board, seat), this.games[board])).append("\n");
+            }
+        }
+        return summary.toString().trim();
+    }
+}